@@ -0,0 +1,182 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compares running an ingest file's commands one by one with handing them
+ * to Database.applyBatch() in the batches CommandProcessor reads. Both
+ * parse the same Command list up front, so only applying it is timed.
+ *
+ * The file is the data set's inserts in runs of 1000, each run followed by
+ * removes of every twentieth point it inserted, alternating by name and by
+ * coordinates.
+ *
+ * Usage: java -cp bin:lib/student.jar BatchBenchmark [points]
+ * [uniform|clustered|duplicates] [warmup] [iterations]
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class BatchBenchmark {
+
+    // Commands handed to applyBatch at once, as CommandProcessor does
+    private static final int BATCH_SIZE = 4096;
+
+    // Inserts between each group of removes
+    private static final int RUN = 1000;
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args
+     *            Optional points (defaults to 200,000), distribution
+     *            (defaults to uniform), warmup iterations (defaults to 3)
+     *            and measured iterations (defaults to 5)
+     * @throws IOException
+     *             If the command file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int n = 200000;
+        String distribution = "uniform";
+        int warmup = 3;
+        int iterations = 5;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            distribution = args[1];
+        }
+        if (args.length > 2) {
+            warmup = Integer.parseInt(args[2]);
+        }
+        if (args.length > 3) {
+            iterations = Integer.parseInt(args[3]);
+        }
+
+        Point[] points = OperationsBenchmark.makePoints(n, distribution,
+            new Random(42));
+        File file = File.createTempFile("ingest", ".txt");
+        file.deleteOnExit();
+        writeCommands(points, file);
+        final ArrayList<Command> commands = readCommands(file);
+        System.out.println(n + " points, " + distribution + ", " + warmup
+            + " warmup and " + iterations + " measured iterations; "
+            + commands.size() + " commands");
+        System.out.println("benchmark   ops/s   ns/op   bytes/op");
+
+        OperationsBenchmark.run(new OperationsBenchmark.Workload("one by one",
+            commands.size()) {
+            private Database db;
+
+            void setUp() {
+                db = newDatabase();
+            }
+
+
+            void run() {
+                for (int i = 0; i < commands.size(); i++) {
+                    commands.get(i).applyTo(db);
+                }
+                db.flush();
+            }
+        }, warmup, iterations);
+
+        OperationsBenchmark.run(new OperationsBenchmark.Workload("applyBatch",
+            commands.size()) {
+            private Database db;
+
+            void setUp() {
+                db = newDatabase();
+            }
+
+
+            void run() {
+                for (int i = 0; i < commands.size(); i += BATCH_SIZE) {
+                    db.applyBatch(commands.subList(i, Math.min(i + BATCH_SIZE,
+                        commands.size())));
+                }
+                db.flush();
+            }
+        }, warmup, iterations);
+    }
+
+
+    /**
+     * Writes the ingest file
+     *
+     * @param points
+     *            The data set
+     * @param file
+     *            The file to write
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    private static void writeCommands(Point[] points, File file)
+        throws IOException {
+        FileWriter writer = new FileWriter(file);
+        try {
+            for (int start = 0; start < points.length; start += RUN) {
+                int end = Math.min(points.length, start + RUN);
+                for (int i = start; i < end; i++) {
+                    Point p = points[i];
+                    writer.write("insert " + p.getName() + " " + p.getX()
+                        + " " + p.getY() + "\n");
+                }
+                for (int i = start; i < end; i += 20) {
+                    Point p = points[i];
+                    if (i % 40 == 0) {
+                        writer.write("remove " + p.getName() + "\n");
+                    }
+                    else {
+                        writer.write("remove " + p.getX() + " " + p.getY()
+                            + "\n");
+                    }
+                }
+            }
+        }
+        finally {
+            writer.close();
+        }
+    }
+
+
+    /**
+     * Parses every line of a command file
+     *
+     * @param file
+     *            The command file
+     * @return The commands, in order
+     * @throws IOException
+     *             If the file cannot be read
+     */
+    private static ArrayList<Command> readCommands(File file)
+        throws IOException {
+        ArrayList<Command> commands = new ArrayList<>();
+        FileInputStream in = new FileInputStream(file);
+        try {
+            CommandReader reader = new CommandReader(in);
+            while (reader.nextLine()) {
+                commands.add(Command.parse(reader));
+            }
+        }
+        finally {
+            in.close();
+        }
+        return commands;
+    }
+
+
+    /**
+     * Creates a database whose output is thrown away
+     *
+     * @return The database
+     */
+    private static Database newDatabase() {
+        return new Database(new OutputSink(OutputStream.nullOutputStream(),
+            false), false);
+    }
+}
@@ -0,0 +1,174 @@
+import java.util.Random;
+
+/**
+ * Sweeps the QuadTree leaf bucket capacity over one data set and reports
+ * insert, region search and remove costs for each capacity, so the capacity
+ * for a world size and distribution can be picked from measurements. Small
+ * buckets make deep trees with many nodes to walk and split; large buckets
+ * make shallow trees whose leaves are scanned point by point.
+ *
+ * Each line is one operation at one capacity, in the same ops/s, ns/op and
+ * bytes/op columns OperationsBenchmark prints.
+ *
+ * Usage: java -cp bin:lib/student.jar BucketCapacityBenchmark [points]
+ * [uniform|clustered|duplicates] [world size] [warmup] [iterations]
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class BucketCapacityBenchmark {
+
+    // Capacities swept, smallest first
+    private static final int[] CAPACITIES = { 1, 2, 3, 4, 8, 16, 32, 64,
+        128 };
+
+    // Number of region searches timed per iteration
+    private static final int QUERIES = 2000;
+
+    // Results are folded in here so the JIT cannot drop the work
+    private static long sink;
+
+    /**
+     * Runs the sweep
+     *
+     * @param args
+     *            Optional points (defaults to 100,000), distribution
+     *            (defaults to uniform), world size (defaults to 2^20),
+     *            warmup iterations (defaults to 3) and measured iterations
+     *            (defaults to 5)
+     */
+    public static void main(String[] args) {
+        int n = 100000;
+        String distribution = "uniform";
+        int worldSize = 1 << 20;
+        int warmup = 3;
+        int iterations = 5;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            distribution = args[1];
+        }
+        if (args.length > 2) {
+            worldSize = Integer.parseInt(args[2]);
+        }
+        if (args.length > 3) {
+            warmup = Integer.parseInt(args[3]);
+        }
+        if (args.length > 4) {
+            iterations = Integer.parseInt(args[4]);
+        }
+
+        Point[] points = OperationsBenchmark.makePoints(n, distribution,
+            worldSize, new Random(42));
+        // Queries cover about 32 points each on uniform data
+        int querySize = (int)Math.max(1, worldSize * Math.sqrt(32.0 / n));
+        int[] queries = new int[QUERIES * 2];
+        Random random = new Random(7);
+        for (int i = 0; i < QUERIES; i++) {
+            Point p = points[random.nextInt(points.length)];
+            queries[2 * i] = p.getX() - querySize / 2;
+            queries[2 * i + 1] = p.getY() - querySize / 2;
+        }
+
+        System.out.println(n + " points, " + distribution + ", world "
+            + worldSize + ", " + querySize + " wide queries, " + warmup
+            + " warmup and " + iterations + " measured iterations");
+        System.out.println("benchmark   ops/s   ns/op   bytes/op");
+        for (int c = 0; c < CAPACITIES.length; c++) {
+            OperationsBenchmark.Workload[] workloads = workloads(points,
+                queries, querySize, worldSize, CAPACITIES[c]);
+            for (int i = 0; i < workloads.length; i++) {
+                OperationsBenchmark.run(workloads[i], warmup, iterations);
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+
+    /**
+     * Creates the insert, region search and remove benchmarks for one
+     * capacity
+     *
+     * @param points
+     *            The data set
+     * @param queries
+     *            The region search corners
+     * @param querySize
+     *            The side of each region search
+     * @param worldSize
+     *            The side of the world
+     * @param capacity
+     *            The leaf bucket capacity
+     * @return The benchmarks
+     */
+    private static OperationsBenchmark.Workload[] workloads(
+        final Point[] points,
+        final int[] queries,
+        final int querySize,
+        final int worldSize,
+        final int capacity) {
+        return new OperationsBenchmark.Workload[] {
+
+            new OperationsBenchmark.Workload("insert/cap" + capacity,
+                points.length) {
+                private QuadTree tree;
+
+                void setUp() {
+                    tree = new QuadTree(worldSize, capacity);
+                }
+
+
+                void run() {
+                    for (int i = 0; i < points.length; i++) {
+                        tree.insert(points[i]);
+                    }
+                    sink += tree.size();
+                }
+            },
+
+            new OperationsBenchmark.Workload("regionsearch/cap" + capacity,
+                QUERIES) {
+                private QuadTree tree;
+
+                void setUp() {
+                    if (tree == null) {
+                        tree = new QuadTree(worldSize, capacity);
+                        tree.bulkLoad(points);
+                    }
+                }
+
+
+                void run() {
+                    for (int i = 0; i < QUERIES; i++) {
+                        RegionSearchResult result = tree.regionsearch(
+                            queries[2 * i], queries[2 * i + 1], querySize,
+                            querySize);
+                        sink += result.getNodesVisited();
+                    }
+                }
+            },
+
+            new OperationsBenchmark.Workload("remove/cap" + capacity,
+                points.length) {
+                private QuadTree tree;
+
+                void setUp() {
+                    tree = new QuadTree(worldSize, capacity);
+                    tree.bulkLoad(points);
+                }
+
+
+                void run() {
+                    for (int i = 0; i < points.length; i++) {
+                        Point p = points[i];
+                        if (tree.remove(p.getX(), p.getY()) != null) {
+                            sink++;
+                        }
+                    }
+                }
+            } };
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares SkipList insert and search with and without a finger, for keys
+ * arriving in sorted order, numbered the way ingest files name points
+ * ("p_1", "p_2", ..., which is clustered but not sorted as strings), and in
+ * random order.
+ *
+ * Usage: java -cp bin:lib/student.jar FingerBenchmark [keys] [warmup]
+ * [iterations]
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class FingerBenchmark {
+
+    // Results are folded in here so the JIT cannot drop the work
+    private static long sink;
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args
+     *            Optional keys (defaults to 200,000), warmup iterations
+     *            (defaults to 3) and measured iterations (defaults to 5)
+     */
+    public static void main(String[] args) {
+        int n = 200000;
+        int warmup = 3;
+        int iterations = 5;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            warmup = Integer.parseInt(args[1]);
+        }
+        if (args.length > 2) {
+            iterations = Integer.parseInt(args[2]);
+        }
+
+        String[] numbered = new String[n];
+        for (int i = 0; i < n; i++) {
+            numbered[i] = "p_" + (i + 1);
+        }
+        String[] sorted = numbered.clone();
+        Arrays.sort(sorted);
+        String[] shuffled = numbered.clone();
+        Random random = new Random(42);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String t = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = t;
+        }
+
+        System.out.println(n + " keys, " + warmup + " warmup and "
+            + iterations + " measured iterations");
+        System.out.println("benchmark   ops/s   ns/op   bytes/op");
+        String[][] orders = { sorted, numbered, shuffled };
+        String[] names = { "sorted", "numbered", "random" };
+        for (int k = 0; k < orders.length; k++) {
+            for (int f = 0; f < 2; f++) {
+                boolean finger = f == 1;
+                String label = (finger ? "finger " : "plain ") + names[k];
+                OperationsBenchmark.run(new Inserts("insert " + label,
+                    orders[k], finger), warmup, iterations);
+                OperationsBenchmark.run(new Searches("search " + label,
+                    orders[k], finger), warmup, iterations);
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+
+    /**
+     * Inserts every key into a fresh list
+     */
+    private static class Inserts extends OperationsBenchmark.Workload {
+        private final String[] keys;
+        private final boolean finger;
+        private SkipList<String, Point> list;
+
+        /**
+         * Creates the benchmark
+         *
+         * @param name
+         *            The name printed in the report
+         * @param keys
+         *            The keys, in the order they are inserted
+         * @param finger
+         *            True to give the list a finger
+         */
+        Inserts(String name, String[] keys, boolean finger) {
+            super(name, keys.length);
+            this.keys = keys;
+            this.finger = finger;
+        }
+
+
+        void setUp() {
+            list = new SkipList<String, Point>(finger);
+        }
+
+
+        void run() {
+            Point p = new Point("p", 0, 0);
+            for (int i = 0; i < keys.length; i++) {
+                list.insert(new KVPair<>(keys[i], p));
+            }
+            sink += list.size();
+        }
+    }
+
+
+    /**
+     * Searches for every key, in the same order, in a list holding them
+     * all
+     */
+    private static class Searches extends OperationsBenchmark.Workload {
+        private final String[] keys;
+        private final SkipList<String, Point> list;
+
+        /**
+         * Creates the benchmark and fills its list
+         *
+         * @param name
+         *            The name printed in the report
+         * @param keys
+         *            The keys, in the order they are searched for
+         * @param finger
+         *            True to give the list a finger
+         */
+        Searches(String name, String[] keys, boolean finger) {
+            super(name, keys.length);
+            this.keys = keys;
+            list = new SkipList<String, Point>(finger);
+            Point p = new Point("p", 0, 0);
+            for (int i = 0; i < keys.length; i++) {
+                list.insert(new KVPair<>(keys[i], p));
+            }
+        }
+
+
+        void setUp() {
+            // The list is built once
+        }
+
+
+        void run() {
+            long found = 0;
+            for (int i = 0; i < keys.length; i++) {
+                found += list.search(keys[i]).size();
+            }
+            sink += found;
+        }
+    }
+}
@@ -0,0 +1,601 @@
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the main operations of QuadTree, SkipList and Database on a
+ * configurable data set. Every benchmark rebuilds its structure before each
+ * iteration without timing it, runs a number of warmup iterations so the JIT
+ * has compiled the hot paths, and then reports the mean over the measured
+ * iterations as throughput (ops/s), average latency (ns/op) and allocation
+ * (bytes/op, from the thread allocation counter).
+ *
+ * Distributions: uniform spreads points over the whole world, clustered
+ * puts them in a few dense groups, and duplicates puts every point at one
+ * location.
+ *
+ * Usage: java -cp bin:lib/student.jar OperationsBenchmark [points]
+ * [uniform|clustered|duplicates] [warmup] [iterations]
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class OperationsBenchmark {
+
+    // Number of region searches and name searches timed per iteration
+    private static final int QUERIES = 2000;
+
+    // Number of duplicates scans timed per iteration
+    private static final int SCANS = 20;
+
+    // Side of the square region search query
+    private static final int QUERY_SIZE = 32;
+
+    // Side of the query used to compare sequential and parallel searches
+    private static final int LARGE_QUERY_SIZE = 512;
+
+    // Number of large region searches timed per iteration
+    private static final int LARGE_QUERIES = 20;
+
+    private static final int WORLD_SIZE = 1024;
+
+    // Results are folded in here so the JIT cannot drop the work
+    private static long sink;
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args
+     *            Optional points (defaults to 100,000), distribution
+     *            (defaults to uniform), warmup iterations (defaults to 5)
+     *            and measured iterations (defaults to 10)
+     */
+    public static void main(String[] args) {
+        int n = 100000;
+        String distribution = "uniform";
+        int warmup = 5;
+        int iterations = 10;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            distribution = args[1];
+        }
+        if (args.length > 2) {
+            warmup = Integer.parseInt(args[2]);
+        }
+        if (args.length > 3) {
+            iterations = Integer.parseInt(args[3]);
+        }
+
+        Point[] points = makePoints(n, distribution, new Random(42));
+        int[] queries = makeQueries(points, new Random(7));
+
+        System.out.println(n + " points, " + distribution + ", " + warmup
+            + " warmup and " + iterations + " measured iterations");
+        System.out.println("benchmark   ops/s   ns/op   bytes/op");
+        Workload[] workloads = workloads(points, queries);
+        for (int i = 0; i < workloads.length; i++) {
+            run(workloads[i], warmup, iterations);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+
+    /**
+     * Creates the data set
+     *
+     * @param n
+     *            The number of points
+     * @param distribution
+     *            uniform, clustered or duplicates
+     * @param random
+     *            The random source
+     * @return The points, all inside the world and with distinct names
+     */
+    static Point[] makePoints(int n, String distribution, Random random) {
+        return makePoints(n, distribution, WORLD_SIZE, random);
+    }
+
+
+    /**
+     * Creates the data set in a world of the given size. Clusters spread
+     * over a sixty-fourth of the world, so their shape does not depend on
+     * its size.
+     *
+     * @param n
+     *            The number of points
+     * @param distribution
+     *            uniform, clustered or duplicates
+     * @param worldSize
+     *            The side of the world
+     * @param random
+     *            The random source
+     * @return The points, all inside the world and with distinct names
+     */
+    static Point[] makePoints(
+        int n,
+        String distribution,
+        int worldSize,
+        Random random) {
+        int margin = worldSize / 16;
+        int spread = Math.max(1, worldSize / 64);
+        int[] centers = new int[16];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = margin + random.nextInt(worldSize - 2 * margin);
+        }
+
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int x;
+            int y;
+            if (distribution.equals("uniform")) {
+                x = random.nextInt(worldSize);
+                y = random.nextInt(worldSize);
+            }
+            else if (distribution.equals("clustered")) {
+                int c = random.nextInt(centers.length / 2) * 2;
+                x = clamp(centers[c] + (int)(random.nextGaussian() * spread),
+                    worldSize);
+                y = clamp(centers[c + 1] + (int)(random.nextGaussian()
+                    * spread), worldSize);
+            }
+            else if (distribution.equals("duplicates")) {
+                x = worldSize / 2;
+                y = worldSize / 2;
+            }
+            else {
+                throw new IllegalArgumentException("Unknown distribution: "
+                    + distribution);
+            }
+            points[i] = new Point("p_" + i, x, y);
+        }
+        return points;
+    }
+
+
+    /**
+     * Keeps a coordinate inside the world
+     *
+     * @param value
+     *            The coordinate
+     * @param worldSize
+     *            The side of the world
+     * @return The nearest coordinate inside the world
+     */
+    private static int clamp(int value, int worldSize) {
+        return Math.max(0, Math.min(worldSize - 1, value));
+    }
+
+
+    /**
+     * Creates region search corners centered on data points, so queries on
+     * clustered data land inside the clusters
+     *
+     * @param points
+     *            The data set
+     * @param random
+     *            The random source
+     * @return x, y pairs for QUERIES queries
+     */
+    private static int[] makeQueries(Point[] points, Random random) {
+        int[] queries = new int[QUERIES * 2];
+        for (int i = 0; i < QUERIES; i++) {
+            Point p = points[random.nextInt(points.length)];
+            queries[2 * i] = p.getX() - QUERY_SIZE / 2;
+            queries[2 * i + 1] = p.getY() - QUERY_SIZE / 2;
+        }
+        return queries;
+    }
+
+
+    /**
+     * Creates every benchmark over one data set
+     *
+     * @param points
+     *            The data set
+     * @param queries
+     *            The region search corners
+     * @return The benchmarks
+     */
+    private static Workload[] workloads(
+        final Point[] points,
+        final int[] queries) {
+        final int n = points.length;
+        final int searches = Math.min(n, QUERIES);
+        return new Workload[] {
+
+            new Workload("QuadTree.insert", n) {
+                private QuadTree tree;
+
+                void setUp() {
+                    tree = new QuadTree();
+                }
+
+
+                void run() {
+                    for (int i = 0; i < n; i++) {
+                        tree.insert(points[i]);
+                    }
+                }
+            },
+
+            new Workload("QuadTree.remove", n) {
+                private QuadTree tree;
+
+                void setUp() {
+                    tree = new QuadTree();
+                    tree.bulkLoad(points);
+                }
+
+
+                void run() {
+                    for (int i = 0; i < n; i++) {
+                        sink += tree.remove(points[i].getX(), points[i]
+                            .getY()).getX();
+                    }
+                }
+            },
+
+            new Workload("QuadTree.regionsearch", QUERIES) {
+                private QuadTree tree;
+
+                void setUp() {
+                    if (tree == null) {
+                        tree = new QuadTree();
+                        tree.bulkLoad(points);
+                    }
+                }
+
+
+                void run() {
+                    for (int i = 0; i < QUERIES; i++) {
+                        sink += tree.regionsearch(queries[2 * i], queries[2
+                            * i + 1], QUERY_SIZE, QUERY_SIZE)
+                            .getNodesVisited();
+                    }
+                }
+            },
+
+            new Workload("QuadTree.regionsearch large", LARGE_QUERIES) {
+                private QuadTree tree;
+
+                void setUp() {
+                    if (tree == null) {
+                        tree = new QuadTree();
+                        tree.bulkLoad(points);
+                    }
+                }
+
+
+                void run() {
+                    for (int i = 0; i < LARGE_QUERIES; i++) {
+                        sink += tree.regionsearch(queries[2 * i], queries[2
+                            * i + 1], LARGE_QUERY_SIZE, LARGE_QUERY_SIZE)
+                            .getPoints().size();
+                    }
+                }
+            },
+
+            new Workload("QuadTree.regionsearch large parallel",
+                LARGE_QUERIES) {
+                private QuadTree tree;
+
+                void setUp() {
+                    if (tree == null) {
+                        tree = new QuadTree();
+                        tree.bulkLoad(points);
+                    }
+                }
+
+
+                void run() {
+                    ForkJoinPool pool = ForkJoinPool.commonPool();
+                    for (int i = 0; i < LARGE_QUERIES; i++) {
+                        sink += tree.regionsearch(queries[2 * i], queries[2
+                            * i + 1], LARGE_QUERY_SIZE, LARGE_QUERY_SIZE,
+                            pool).getPoints().size();
+                    }
+                }
+            },
+
+            new Workload("QuadTree.findDuplicates", SCANS) {
+                private QuadTree tree;
+
+                void setUp() {
+                    if (tree == null) {
+                        tree = new QuadTree();
+                        tree.bulkLoad(points);
+                    }
+                }
+
+
+                void run() {
+                    for (int i = 0; i < SCANS; i++) {
+                        sink += tree.findDuplicates().getDuplicates().size();
+                    }
+                }
+            },
+
+            new Workload("SkipList.insert", n) {
+                private SkipList<String, Point> list;
+
+                void setUp() {
+                    list = new SkipList<String, Point>();
+                }
+
+
+                void run() {
+                    for (int i = 0; i < n; i++) {
+                        list.insert(new KVPair<>(points[i].getName(),
+                            points[i]));
+                    }
+                }
+            },
+
+            new Workload("SkipList.search", searches) {
+                private SkipList<String, Point> list;
+
+                void setUp() {
+                    if (list == null) {
+                        list = new SkipList<String, Point>();
+                        for (int i = 0; i < n; i++) {
+                            list.insert(new KVPair<>(points[i].getName(),
+                                points[i]));
+                        }
+                    }
+                }
+
+
+                void run() {
+                    int step = n / searches;
+                    for (int i = 0; i < searches; i++) {
+                        sink += list.search(points[i * step].getName())
+                            .size();
+                    }
+                }
+            },
+
+            new Workload("SkipList.remove", searches) {
+                private SkipList<String, Point> list;
+
+                void setUp() {
+                    list = new SkipList<String, Point>();
+                    for (int i = 0; i < n; i++) {
+                        list.insert(new KVPair<>(points[i].getName(),
+                            points[i]));
+                    }
+                }
+
+
+                void run() {
+                    int step = n / searches;
+                    for (int i = 0; i < searches; i++) {
+                        Point p = points[i * step];
+                        sink += list.remove(p.getName(), p).value().getX();
+                    }
+                }
+            },
+
+            new Workload("Database.insert", n) {
+                private Database data;
+
+                void setUp() {
+                    data = newDatabase();
+                }
+
+
+                void run() {
+                    for (int i = 0; i < n; i++) {
+                        data.insert(points[i].getName(), points[i].getX(),
+                            points[i].getY());
+                    }
+                }
+            },
+
+            new Workload("Database.remove", searches) {
+                private Database data;
+
+                void setUp() {
+                    data = newDatabase();
+                    data.bulkInsert(points);
+                }
+
+
+                void run() {
+                    int step = n / searches;
+                    for (int i = 0; i < searches; i++) {
+                        Point p = points[i * step];
+                        data.remove(p.getX(), p.getY());
+                    }
+                }
+            },
+
+            new Workload("Database.remove by name", searches) {
+                private Database data;
+
+                void setUp() {
+                    data = newDatabase();
+                    data.bulkInsert(points);
+                }
+
+
+                void run() {
+                    int step = n / searches;
+                    for (int i = 0; i < searches; i++) {
+                        data.remove(points[i * step].getName());
+                    }
+                }
+            },
+
+            new Workload("Database.regionsearch", QUERIES) {
+                private Database data;
+
+                void setUp() {
+                    if (data == null) {
+                        data = newDatabase();
+                        data.bulkInsert(points);
+                    }
+                }
+
+
+                void run() {
+                    for (int i = 0; i < QUERIES; i++) {
+                        data.regionsearch(queries[2 * i], queries[2 * i + 1],
+                            QUERY_SIZE, QUERY_SIZE);
+                    }
+                }
+            },
+
+            new Workload("Database.search", searches) {
+                private Database data;
+
+                void setUp() {
+                    if (data == null) {
+                        data = newDatabase();
+                        data.bulkInsert(points);
+                    }
+                }
+
+
+                void run() {
+                    int step = n / searches;
+                    for (int i = 0; i < searches; i++) {
+                        data.search(points[i * step].getName());
+                    }
+                }
+            },
+
+            new Workload("Database.duplicates", SCANS) {
+                private Database data;
+
+                void setUp() {
+                    if (data == null) {
+                        data = newDatabase();
+                        data.bulkInsert(points);
+                    }
+                }
+
+
+                void run() {
+                    for (int i = 0; i < SCANS; i++) {
+                        data.duplicates();
+                    }
+                }
+            } };
+    }
+
+
+    /**
+     * Creates a database whose output is thrown away
+     *
+     * @return The database
+     */
+    private static Database newDatabase() {
+        return new Database(new OutputSink(OutputStream.nullOutputStream(),
+            false), false);
+    }
+
+
+    /**
+     * Runs one benchmark and prints its line
+     *
+     * @param workload
+     *            The benchmark
+     * @param warmup
+     *            Iterations run before measuring
+     * @param iterations
+     *            Iterations measured
+     */
+    static void run(Workload workload, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            workload.setUp();
+            workload.run();
+        }
+
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        long id = Thread.currentThread().getId();
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            workload.setUp();
+            long allocated = 0;
+            if (threads != null) {
+                allocated = threads.getThreadAllocatedBytes(id);
+            }
+            long start = System.nanoTime();
+            workload.run();
+            nanos += System.nanoTime() - start;
+            if (threads != null) {
+                bytes += threads.getThreadAllocatedBytes(id) - allocated;
+            }
+        }
+
+        long ops = (long)workload.operations * iterations;
+        String allocation = "-";
+        if (threads != null) {
+            allocation = Long.toString(bytes / ops);
+        }
+        System.out.println(workload.name + "   " + (ops * 1000000000L / Math
+            .max(1, nanos)) + "   " + (nanos / ops) + "   " + allocation);
+    }
+
+
+    /**
+     * Gets the thread allocation counter if this JVM has one
+     *
+     * @return The counter, or null if allocation cannot be measured
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory
+            .getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean)bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+
+    /**
+     * One benchmark: an untimed set up and a timed run of a fixed number of
+     * operations
+     */
+    abstract static class Workload {
+        private final String name;
+        private final int operations;
+
+        /**
+         * Creates a benchmark
+         *
+         * @param name
+         *            The name printed in the report
+         * @param operations
+         *            The number of operations in one run
+         */
+        Workload(String name, int operations) {
+            this.name = name;
+            this.operations = Math.max(1, operations);
+        }
+
+
+        /**
+         * Prepares the structure for the next run; not timed
+         */
+        abstract void setUp();
+
+
+        /**
+         * Runs the timed operations
+         */
+        abstract void run();
+    }
+}
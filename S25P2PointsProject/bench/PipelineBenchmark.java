@@ -0,0 +1,182 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * Compares reading a command file sequentially with reading it as a
+ * pipeline: parsing, executing and writing output each on their own thread.
+ * Output goes to a real file so the writes cost what they would on disk.
+ *
+ * The file is the data set's inserts with a small region search after
+ * every tenth one, so there is output to write throughout the run. Each
+ * mode runs with a batch sink and with an auto-flushing sink, which
+ * flushes the file after every command when run sequentially. The pipeline
+ * can only overlap its stages when there is more than one core.
+ *
+ * Usage: java -cp bin:lib/student.jar PipelineBenchmark [points]
+ * [uniform|clustered|duplicates] [warmup] [iterations]
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class PipelineBenchmark {
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args
+     *            Optional points (defaults to 200,000), distribution
+     *            (defaults to uniform), warmup iterations (defaults to 3)
+     *            and measured iterations (defaults to 5)
+     * @throws IOException
+     *             If the temporary files cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int n = 200000;
+        String distribution = "uniform";
+        int warmup = 3;
+        int iterations = 5;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            distribution = args[1];
+        }
+        if (args.length > 2) {
+            warmup = Integer.parseInt(args[2]);
+        }
+        if (args.length > 3) {
+            iterations = Integer.parseInt(args[3]);
+        }
+
+        Point[] points = OperationsBenchmark.makePoints(n, distribution,
+            new Random(42));
+        File commands = File.createTempFile("pipeline", ".txt");
+        File output = File.createTempFile("pipeline", ".out");
+        commands.deleteOnExit();
+        output.deleteOnExit();
+        int lines = writeCommands(points, commands);
+
+        System.out.println(n + " points, " + distribution + ", " + warmup
+            + " warmup and " + iterations + " measured iterations; " + lines
+            + " commands, " + Runtime.getRuntime().availableProcessors()
+            + " processors");
+        System.out.println("benchmark   ops/s   ns/op   bytes/op");
+        for (int f = 0; f < 2; f++) {
+            boolean autoFlush = f == 1;
+            String sink = autoFlush ? " auto-flush" : " batch";
+            OperationsBenchmark.run(new FileRun("sequential" + sink, lines,
+                commands, output, false, autoFlush), warmup, iterations);
+            OperationsBenchmark.run(new FileRun("pipelined" + sink, lines,
+                commands, output, true, autoFlush), warmup, iterations);
+        }
+    }
+
+
+    /**
+     * Writes the command file
+     *
+     * @param points
+     *            The data set
+     * @param commands
+     *            The file to write
+     * @return The number of commands written
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    private static int writeCommands(Point[] points, File commands)
+        throws IOException {
+        int lines = 0;
+        FileWriter writer = new FileWriter(commands);
+        try {
+            for (int i = 0; i < points.length; i++) {
+                Point p = points[i];
+                writer.write("insert " + p.getName() + " " + p.getX() + " " + p
+                    .getY() + "\n");
+                lines++;
+                if (i % 10 == 9) {
+                    writer.write("regionsearch " + p.getX() + " " + p.getY()
+                        + " 16 16\n");
+                    lines++;
+                }
+            }
+        }
+        finally {
+            writer.close();
+        }
+        return lines;
+    }
+
+
+    /**
+     * Runs the whole command file into a fresh database whose output goes
+     * to a file
+     */
+    private static class FileRun extends OperationsBenchmark.Workload {
+        private final File commands;
+        private final File output;
+        private final boolean pipelined;
+        private final boolean autoFlush;
+        private FileOutputStream stream;
+        private CommandProcessor processor;
+
+        /**
+         * Creates the benchmark
+         *
+         * @param name
+         *            The name printed in the report
+         * @param lines
+         *            The number of commands in the file
+         * @param commands
+         *            The command file
+         * @param output
+         *            The file output goes to, emptied before every run
+         * @param pipelined
+         *            True to run the file as a pipeline
+         * @param autoFlush
+         *            True for a sink that flushes after every command
+         */
+        FileRun(
+            String name,
+            int lines,
+            File commands,
+            File output,
+            boolean pipelined,
+            boolean autoFlush) {
+            super(name, lines);
+            this.commands = commands;
+            this.output = output;
+            this.pipelined = pipelined;
+            this.autoFlush = autoFlush;
+        }
+
+
+        void setUp() {
+            try {
+                if (stream != null) {
+                    stream.close();
+                }
+                stream = new FileOutputStream(output);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            processor = new CommandProcessor(new Database(new OutputSink(
+                stream, autoFlush), false), pipelined);
+        }
+
+
+        void run() {
+            try {
+                processor.readCmdFile(commands);
+            }
+            catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
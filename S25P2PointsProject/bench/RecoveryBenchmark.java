@@ -0,0 +1,292 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * Compares the two ways to rebuild a Database after a restart: re-running
+ * the original command file through CommandProcessor, and replaying a
+ * WriteAheadLog written while the same commands ran. Also measures what
+ * logging adds to an insert under each sync policy.
+ *
+ * The command mix is the data set's inserts followed by removes of every
+ * tenth point, half by name and half by coordinates.
+ *
+ * Usage: java -cp bin:lib/student.jar RecoveryBenchmark [points]
+ * [uniform|clustered|duplicates] [warmup] [iterations]
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class RecoveryBenchmark {
+
+    // Inserts timed per iteration when every append is forced
+    private static final int FORCED_INSERTS = 200;
+
+    // Results are folded in here so the JIT cannot drop the work
+    private static long sink;
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args
+     *            Optional points (defaults to 100,000), distribution
+     *            (defaults to uniform), warmup iterations (defaults to 3)
+     *            and measured iterations (defaults to 5)
+     * @throws IOException
+     *             If the temporary files cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int n = 100000;
+        String distribution = "uniform";
+        int warmup = 3;
+        int iterations = 5;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            distribution = args[1];
+        }
+        if (args.length > 2) {
+            warmup = Integer.parseInt(args[2]);
+        }
+        if (args.length > 3) {
+            iterations = Integer.parseInt(args[3]);
+        }
+
+        Point[] points = OperationsBenchmark.makePoints(n, distribution,
+            new Random(42));
+        File commands = File.createTempFile("commands", ".txt");
+        File log = File.createTempFile("recovery", ".wal");
+        File scratch = File.createTempFile("scratch", ".wal");
+        commands.deleteOnExit();
+        log.deleteOnExit();
+        scratch.deleteOnExit();
+        writeCommands(points, commands);
+        log.delete();
+        WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SYNC_NEVER);
+        Database db = newDatabase();
+        db.recover(wal);
+        new CommandProcessor(db).readCmdFile(commands);
+        wal.close();
+
+        System.out.println(n + " points, " + distribution + ", " + warmup
+            + " warmup and " + iterations + " measured iterations; "
+            + commands.length() + " bytes of commands, " + log.length()
+            + " bytes of log");
+        System.out.println("benchmark   ops/s   ns/op   bytes/op");
+        OperationsBenchmark.Workload[] workloads = workloads(points, commands,
+            log, scratch);
+        for (int i = 0; i < workloads.length; i++) {
+            OperationsBenchmark.run(workloads[i], warmup, iterations);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+
+    /**
+     * Writes the command file
+     *
+     * @param points
+     *            The data set
+     * @param commands
+     *            The file to write
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    private static void writeCommands(Point[] points, File commands)
+        throws IOException {
+        FileWriter writer = new FileWriter(commands);
+        try {
+            for (int i = 0; i < points.length; i++) {
+                Point p = points[i];
+                writer.write("insert " + p.getName() + " " + p.getX() + " " + p
+                    .getY() + "\n");
+            }
+            for (int i = 0; i < points.length; i += 10) {
+                Point p = points[i];
+                if (i % 20 == 0) {
+                    writer.write("remove " + p.getName() + "\n");
+                }
+                else {
+                    writer.write("remove " + p.getX() + " " + p.getY() + "\n");
+                }
+            }
+        }
+        finally {
+            writer.close();
+        }
+    }
+
+
+    /**
+     * Creates a database whose output is thrown away
+     *
+     * @return The database
+     */
+    private static Database newDatabase() {
+        return new Database(new OutputSink(OutputStream.nullOutputStream(),
+            false), false);
+    }
+
+
+    /**
+     * Opens a log, turning the checked exception into an unchecked one so
+     * it can be called from a workload
+     *
+     * @param file
+     *            The log file
+     * @param syncPolicy
+     *            The sync policy
+     * @return The log
+     */
+    private static WriteAheadLog open(File file, int syncPolicy) {
+        try {
+            return new WriteAheadLog(file, syncPolicy);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Creates the benchmarks
+     *
+     * @param points
+     *            The data set
+     * @param commands
+     *            The command file
+     * @param log
+     *            The log written while the command file ran
+     * @param scratch
+     *            A file for the logged insert benchmarks to write
+     * @return The benchmarks
+     */
+    private static OperationsBenchmark.Workload[] workloads(
+        final Point[] points,
+        final File commands,
+        final File log,
+        final File scratch) {
+        final int n = points.length;
+        return new OperationsBenchmark.Workload[] {
+
+            new OperationsBenchmark.Workload("command file replay", n) {
+                void setUp() {
+                    // Nothing to prepare
+                }
+
+
+                void run() {
+                    Database db = newDatabase();
+                    try {
+                        new CommandProcessor(db).readCmdFile(commands);
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    sink += db.isEmpty() ? 0 : 1;
+                }
+            },
+
+            new OperationsBenchmark.Workload("log recover", n) {
+                void setUp() {
+                    // Nothing to prepare
+                }
+
+
+                void run() {
+                    WriteAheadLog wal = open(log, WriteAheadLog.SYNC_NEVER);
+                    sink += newDatabase().recover(wal);
+                    wal.close();
+                }
+            },
+
+            new LoggedInserts("insert unlogged", points, scratch, -1),
+            new LoggedInserts("insert SYNC_NEVER", points, scratch,
+                WriteAheadLog.SYNC_NEVER),
+            new LoggedInserts("insert SYNC_GROUP", points, scratch,
+                WriteAheadLog.SYNC_GROUP),
+            new LoggedInserts("insert SYNC_ALWAYS", points, scratch,
+                WriteAheadLog.SYNC_ALWAYS) };
+    }
+
+
+    /**
+     * Inserts into a fresh database logging to a fresh file, committed at
+     * the end of the run
+     */
+    private static class LoggedInserts extends OperationsBenchmark.Workload {
+        private final Point[] points;
+        private final File file;
+        private final int syncPolicy;
+        private final int count;
+        private Database db;
+        private WriteAheadLog wal;
+
+        /**
+         * Creates the benchmark
+         *
+         * @param name
+         *            The name printed in the report
+         * @param points
+         *            The points to insert
+         * @param file
+         *            The log file, emptied before every run
+         * @param syncPolicy
+         *            The sync policy, or -1 for no log at all
+         */
+        LoggedInserts(String name, Point[] points, File file, int syncPolicy) {
+            super(name, count(points, syncPolicy));
+            this.points = points;
+            this.file = file;
+            this.syncPolicy = syncPolicy;
+            count = count(points, syncPolicy);
+        }
+
+
+        /**
+         * Gets how many points a run inserts; forcing every append is too
+         * slow for the whole data set
+         *
+         * @param points
+         *            The data set
+         * @param syncPolicy
+         *            The sync policy
+         * @return The number of inserts
+         */
+        private static int count(Point[] points, int syncPolicy) {
+            if (syncPolicy == WriteAheadLog.SYNC_ALWAYS) {
+                return Math.min(points.length, FORCED_INSERTS);
+            }
+            return points.length;
+        }
+
+
+        void setUp() {
+            if (wal != null) {
+                wal.close();
+                wal = null;
+            }
+            db = newDatabase();
+            if (syncPolicy >= 0) {
+                file.delete();
+                wal = open(file, syncPolicy);
+                db.recover(wal);
+            }
+        }
+
+
+        void run() {
+            for (int i = 0; i < count; i++) {
+                Point p = points[i];
+                db.insert(p.getName(), p.getX(), p.getY());
+            }
+            db.flush();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Times coordinate-based removal from the name index as the data set grows.
+ * Database.remove(x, y) gets the removed Point back from the QuadTree and
+ * then has to drop the same Point from the SkipList. This compares the old
+ * linear removeByValue scan against the key-aware remove(name, point).
+ * Usage: java RemoveBenchmark [maxPoints]
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class RemoveBenchmark {
+
+    // Number of removes timed at every data set size
+    private static final int REMOVES = 2000;
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args
+     *            Optional largest data set size (defaults to 1,000,000)
+     */
+    public static void main(String[] args) {
+        int maxPoints = 1000000;
+        if (args.length > 0) {
+            maxPoints = Integer.parseInt(args[0]);
+        }
+
+        System.out.println("points   removeByValue(ns/op)   remove(key, "
+            + "value)(ns/op)");
+        for (int n = 10000; n <= maxPoints; n *= 10) {
+            Point[] points = makePoints(n);
+            // The linear scan gets too slow to time on large lists
+            String linear = "-";
+            if (n <= 100000) {
+                linear = Long.toString(timeRemoveByValue(points));
+            }
+            long keyed = timeRemoveByKey(points);
+            System.out.println(n + "   " + linear + "   " + keyed);
+        }
+    }
+
+
+    /**
+     * Creates n points with distinct names
+     *
+     * @param n
+     *            The number of points
+     * @return The points
+     */
+    private static Point[] makePoints(int n) {
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = new Point("p_" + i, i % 1024, (i / 1024) % 1024);
+        }
+        return points;
+    }
+
+
+    /**
+     * Builds a SkipList holding every point
+     *
+     * @param points
+     *            The points to insert
+     * @return The SkipList
+     */
+    private static SkipList<String, Point> build(Point[] points) {
+        SkipList<String, Point> list = new SkipList<String, Point>();
+        for (int i = 0; i < points.length; i++) {
+            list.insert(new KVPair<>(points[i].getName(), points[i]));
+        }
+        return list;
+    }
+
+
+    /**
+     * Times removeByValue over points spread through the list
+     *
+     * @param points
+     *            The points in the list
+     * @return Average nanoseconds per remove
+     */
+    private static long timeRemoveByValue(Point[] points) {
+        SkipList<String, Point> list = build(points);
+        int step = points.length / REMOVES;
+        long start = System.nanoTime();
+        for (int i = 0; i < REMOVES; i++) {
+            list.removeByValue(points[i * step]);
+        }
+        return (System.nanoTime() - start) / REMOVES;
+    }
+
+
+    /**
+     * Times remove(name, point) over points spread through the list
+     *
+     * @param points
+     *            The points in the list
+     * @return Average nanoseconds per remove
+     */
+    private static long timeRemoveByKey(Point[] points) {
+        SkipList<String, Point> list = build(points);
+        int step = points.length / REMOVES;
+        long start = System.nanoTime();
+        for (int i = 0; i < REMOVES; i++) {
+            Point p = points[i * step];
+            list.remove(p.getName(), p);
+        }
+        return (System.nanoTime() - start) / REMOVES;
+    }
+}
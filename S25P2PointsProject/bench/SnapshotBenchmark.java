@@ -0,0 +1,103 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Times a cold start from a Snapshot: a database of n points is saved once
+ * and dropped, then each iteration loads it into a fresh database. Reading
+ * the file on its own is timed too, which shows how much of a load is
+ * decoding and how much is building the indexes. The figures are
+ * whole-phase times rather than per-point means.
+ *
+ * The world is large enough that uniform points rarely share a location.
+ *
+ * Usage: java -Xms4g -Xmx4g -cp bin:lib/student.jar SnapshotBenchmark [points]
+ * [uniform|clustered|duplicates] [iterations]
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class SnapshotBenchmark {
+
+    // Side of the world the points are spread over
+    private static final int WORLD_SIZE = 1 << 20;
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args
+     *            Optional points (defaults to 1,000,000), distribution
+     *            (defaults to uniform) and iterations (defaults to 3)
+     * @throws IOException
+     *             If the snapshot cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int n = 1000000;
+        String distribution = "uniform";
+        int iterations = 3;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            distribution = args[1];
+        }
+        if (args.length > 2) {
+            iterations = Integer.parseInt(args[2]);
+        }
+
+        Path file = Files.createTempFile("bench", ".snap");
+        file.toFile().deleteOnExit();
+        Point[] points = OperationsBenchmark.makePoints(n, distribution,
+            WORLD_SIZE, new Random(42));
+        Database db = newDatabase();
+        long start = System.nanoTime();
+        db.bulkInsert(points);
+        long built = System.nanoTime() - start;
+        points = null;
+        start = System.nanoTime();
+        db.snapshot(file);
+        long saved = System.nanoTime() - start;
+        System.out.println(n + " points, " + distribution + ", world "
+            + WORLD_SIZE + "; bulkInsert took " + built / 1000000
+            + " ms, snapshot " + saved / 1000000 + " ms, " + Files.size(file)
+            + " bytes");
+
+        // Only one database fits in memory at the largest sizes
+        db = null;
+        System.out.println("iteration   read ms   load ms");
+        for (int i = 0; i < iterations; i++) {
+            // Drop the previous iteration's database before loading
+            System.gc();
+            start = System.nanoTime();
+            Snapshot image = Snapshot.read(file);
+            long read = System.nanoTime() - start;
+            image = null;
+            System.gc();
+            start = System.nanoTime();
+            Database loaded = newDatabase();
+            loaded.load(file);
+            long load = System.nanoTime() - start;
+
+            System.out.println(i + "   " + read / 1000000 + "   " + load
+                / 1000000);
+            if (loaded.isEmpty() != (n == 0) || image != null) {
+                System.out.println();
+            }
+            loaded = null;
+        }
+    }
+
+
+    /**
+     * Creates a database over the benchmark world whose output is thrown
+     * away
+     *
+     * @return The database
+     */
+    private static Database newDatabase() {
+        return new Database(new OutputSink(OutputStream.nullOutputStream(),
+            false), false, WORLD_SIZE, QuadTree.DEFAULT_BUCKET_CAPACITY);
+    }
+}
@@ -0,0 +1,370 @@
+/**
+ * One parsed command, so a run of commands can be handed to
+ * Database.applyBatch() together instead of being run line by line.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class Command {
+
+    /**
+     * insert name x y
+     */
+    public static final int INSERT = 0;
+
+    /**
+     * remove name
+     */
+    public static final int REMOVE_NAME = 1;
+
+    /**
+     * remove x y
+     */
+    public static final int REMOVE_AT = 2;
+
+    /**
+     * regionsearch x y w h
+     */
+    public static final int REGIONSEARCH = 3;
+
+    /**
+     * nearest x y k
+     */
+    public static final int NEAREST = 4;
+
+    /**
+     * duplicates
+     */
+    public static final int DUPLICATES = 5;
+
+    /**
+     * search name
+     */
+    public static final int SEARCH = 6;
+
+    /**
+     * dump
+     */
+    public static final int DUMP = 7;
+
+    /**
+     * Anything else
+     */
+    public static final int UNRECOGNIZED = 8;
+
+    /**
+     * searchprefix prefix
+     */
+    public static final int SEARCHPREFIX = 9;
+
+    /**
+     * searchrange from to
+     */
+    public static final int SEARCHRANGE = 10;
+
+    private final int type;
+    private final String name;
+
+    // Last name of a range search
+    private final String to;
+    private final int x;
+    private final int y;
+
+    // Width, or k for nearest
+    private final int w;
+    private final int h;
+
+    /**
+     * Creates a command
+     *
+     * @param type
+     *            The kind of command
+     * @param name
+     *            The name, or null if the command has none
+     * @param to
+     *            The last name of a range, or null
+     * @param x
+     *            The x-coordinate, or 0
+     * @param y
+     *            The y-coordinate, or 0
+     * @param w
+     *            The width or k, or 0
+     * @param h
+     *            The height, or 0
+     */
+    private Command(
+        int type,
+        String name,
+        String to,
+        int x,
+        int y,
+        int w,
+        int h) {
+        this.type = type;
+        this.name = name;
+        this.to = to;
+        this.x = x;
+        this.y = y;
+        this.w = w;
+        this.h = h;
+    }
+
+
+    /**
+     * Creates an insert
+     *
+     * @param name
+     *            The name of the point
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @return The command
+     */
+    public static Command insert(String name, int x, int y) {
+        return new Command(INSERT, name, null, x, y, 0, 0);
+    }
+
+
+    /**
+     * Creates a remove by name
+     *
+     * @param name
+     *            The name of the point to remove
+     * @return The command
+     */
+    public static Command remove(String name) {
+        return new Command(REMOVE_NAME, name, null, 0, 0, 0, 0);
+    }
+
+
+    /**
+     * Creates a remove by location
+     *
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @return The command
+     */
+    public static Command remove(int x, int y) {
+        return new Command(REMOVE_AT, null, null, x, y, 0, 0);
+    }
+
+
+    /**
+     * Creates a region search
+     *
+     * @param x
+     *            The x-coordinate of the rectangle
+     * @param y
+     *            The y-coordinate of the rectangle
+     * @param w
+     *            The width of the rectangle
+     * @param h
+     *            The height of the rectangle
+     * @return The command
+     */
+    public static Command regionsearch(int x, int y, int w, int h) {
+        return new Command(REGIONSEARCH, null, null, x, y, w, h);
+    }
+
+
+    /**
+     * Creates a nearest-points search
+     *
+     * @param x
+     *            The x-coordinate of the location
+     * @param y
+     *            The y-coordinate of the location
+     * @param k
+     *            The number of points wanted
+     * @return The command
+     */
+    public static Command nearest(int x, int y, int k) {
+        return new Command(NEAREST, null, null, x, y, k, 0);
+    }
+
+
+    /**
+     * Creates a command with no arguments
+     *
+     * @param type
+     *            DUPLICATES, DUMP or UNRECOGNIZED
+     * @return The command
+     */
+    public static Command of(int type) {
+        return new Command(type, null, null, 0, 0, 0, 0);
+    }
+
+
+    /**
+     * Creates a search by name
+     *
+     * @param name
+     *            The name to search for
+     * @return The command
+     */
+    public static Command search(String name) {
+        return new Command(SEARCH, name, null, 0, 0, 0, 0);
+    }
+
+
+    /**
+     * Creates a search for names starting with a prefix
+     *
+     * @param prefix
+     *            The prefix
+     * @return The command
+     */
+    public static Command searchprefix(String prefix) {
+        return new Command(SEARCHPREFIX, prefix, null, 0, 0, 0, 0);
+    }
+
+
+    /**
+     * Creates a search for names in a range
+     *
+     * @param from
+     *            The first name in the range
+     * @param to
+     *            The last name in the range
+     * @return The command
+     */
+    public static Command searchrange(String from, String to) {
+        return new Command(SEARCHRANGE, from, to, 0, 0, 0, 0);
+    }
+
+
+    /**
+     * Parses the reader's current line. The command is the first token,
+     * compared without regard to case.
+     *
+     * @param line
+     *            The reader positioned on the line
+     * @return The command
+     * @throws NumberFormatException
+     *             If a number on the line is not an int
+     */
+    public static Command parse(CommandReader line) {
+        if (line.tokenIs(0, "insert")) {
+            // Format: insert name x y
+            return insert(line.token(1), line.tokenInt(2), line.tokenInt(3));
+        }
+        else if (line.tokenIs(0, "remove")) {
+            if (line.tokenCount() == 2) {
+                return remove(line.token(1));
+            }
+            return remove(line.tokenInt(1), line.tokenInt(2));
+        }
+        else if (line.tokenIs(0, "regionsearch")) {
+            return regionsearch(line.tokenInt(1), line.tokenInt(2), line
+                .tokenInt(3), line.tokenInt(4));
+        }
+        else if (line.tokenIs(0, "nearest")) {
+            return nearest(line.tokenInt(1), line.tokenInt(2), line.tokenInt(
+                3));
+        }
+        else if (line.tokenIs(0, "duplicates")) {
+            return of(DUPLICATES);
+        }
+        else if (line.tokenIs(0, "search")) {
+            return search(line.token(1));
+        }
+        else if (line.tokenIs(0, "dump")) {
+            return of(DUMP);
+        }
+        else if (line.tokenIs(0, "searchprefix")) {
+            return searchprefix(line.token(1));
+        }
+        else if (line.tokenIs(0, "searchrange")) {
+            return searchrange(line.token(1), line.token(2));
+        }
+        return of(UNRECOGNIZED);
+    }
+
+
+    /**
+     * Runs the command on its own against a database
+     *
+     * @param data
+     *            The database
+     */
+    public void applyTo(Database data) {
+        switch (type) {
+            case INSERT:
+                data.insert(name, x, y);
+                break;
+            case REMOVE_NAME:
+                data.remove(name);
+                break;
+            case REMOVE_AT:
+                data.remove(x, y);
+                break;
+            case REGIONSEARCH:
+                data.regionsearch(x, y, w, h);
+                break;
+            case NEAREST:
+                data.nearest(x, y, w);
+                break;
+            case DUPLICATES:
+                data.duplicates();
+                break;
+            case SEARCH:
+                data.search(name);
+                break;
+            case DUMP:
+                data.dump();
+                break;
+            case SEARCHPREFIX:
+                data.searchprefix(name);
+                break;
+            case SEARCHRANGE:
+                data.searchrange(name, to);
+                break;
+            default:
+                data.unrecognized();
+                break;
+        }
+    }
+
+
+    /**
+     * Gets the kind of command
+     *
+     * @return One of the type constants
+     */
+    public int getType() {
+        return type;
+    }
+
+
+    /**
+     * Gets the name
+     *
+     * @return The name, or null if the command has none
+     */
+    public String getName() {
+        return name;
+    }
+
+
+    /**
+     * Gets the x-coordinate
+     *
+     * @return The x-coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+
+    /**
+     * Gets the y-coordinate
+     *
+     * @return The y-coordinate
+     */
+    public int getY() {
+        return y;
+    }
+}
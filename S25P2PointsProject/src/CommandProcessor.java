@@ -1,16 +1,41 @@
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * The purpose of this class is to parse a text file into its appropriate, line
  * by line commands for the format specified in the project spec.
  * 
+ * A pipelined processor reads a file on three threads joined by SpscRings: a
+ * parser thread tokenizes lines into batches of Commands, the calling thread
+ * applies them to the Database in order, and a writer thread takes the
+ * formatted output off the Database's sink and writes it to the sink's
+ * stream in large chunks, flushing it once at the end even if the sink
+ * flushes after every command. The commands run in the same order against
+ * the same database, so the output bytes are the same as running the file
+ * sequentially.
+ * 
  * @author michaelo48
  * @version 03.07.2025
  */
 public class CommandProcessor {
+
+    // Most commands parsed before they are handed to the database
+    private static final int BATCH_SIZE = 4096;
+
+    // Commands per batch passed between pipeline stages
+    private static final int PIPELINE_BATCH = 256;
+
+    // Batches, or output chunks, in flight between two stages
+    private static final int RING_SIZE = 16;
+
     private Database data;
+    private final boolean pipelined;
 
     /**
      * 
@@ -18,12 +43,29 @@ public class CommandProcessor {
      *            The database to use
      */
     public CommandProcessor(Database database) {
+        this(database, false);
+    }
+
+
+    /**
+     * Creates a processor that optionally runs command files as a pipeline
+     * 
+     * @param database
+     *            The database to use
+     * @param pipelined
+     *            True to parse, execute and write output on three threads
+     */
+    public CommandProcessor(Database database, boolean pipelined) {
         data = database;
+        this.pipelined = pipelined;
     }
 
 
     /**
-     * Reads and processes commands from a file
+     * Reads and processes commands from a file. Commands are parsed a batch
+     * at a time and each batch goes to Database.applyBatch(), which gives
+     * the same output as running them one by one. A pipelined processor
+     * does the parsing and the output writes on their own threads.
      * 
      * @param file
      *            The file to read from
@@ -31,21 +73,148 @@ public class CommandProcessor {
      *             If the file cannot be found
      */
     public void readCmdFile(File file) throws FileNotFoundException {
-        Scanner scanner = new Scanner(file);
+        if (pipelined) {
+            readPipelined(file);
+            return;
+        }
+        FileInputStream in = new FileInputStream(file);
 
-        while (scanner.hasNextLine()) {
-            String line = scanner.nextLine().trim();
+        try {
+            CommandReader reader = new CommandReader(in);
+            ArrayList<Command> batch = new ArrayList<>(BATCH_SIZE);
 
-            // Skip empty lines
-            if (line.isEmpty()) {
-                continue;
+            // Empty lines are skipped by the reader
+            while (reader.nextLine()) {
+                Command command;
+                try {
+                    command = Command.parse(reader);
+                }
+                catch (RuntimeException e) {
+                    // The lines before a bad one still run
+                    data.applyBatch(batch);
+                    throw e;
+                }
+                batch.add(command);
+                if (batch.size() == BATCH_SIZE) {
+                    data.applyBatch(batch);
+                    batch.clear();
+                }
+            }
+            data.applyBatch(batch);
+        }
+        finally {
+            // The whole file's output goes out together
+            data.flush();
+            try {
+                in.close();
             }
+            catch (IOException e) {
+                // Nothing was written, so there is nothing to lose
+            }
+        }
+    }
 
-            // Process the command
-            processor(line);
+
+    /**
+     * Reads and processes commands from a file as a three-stage pipeline.
+     * The database's sink writes into the output ring while the file runs
+     * and goes back to its own stream afterwards.
+     * 
+     * @param file
+     *            The file to read from
+     * @throws FileNotFoundException
+     *             If the file cannot be found
+     */
+    private void readPipelined(File file) throws FileNotFoundException {
+        FileInputStream in = new FileInputStream(file);
+        SpscRing<ArrayList<Command>> batches = new SpscRing<>(RING_SIZE);
+        SpscRing<byte[]> chunks = new SpscRing<>(RING_SIZE);
+
+        OutputSink out = data.getOutput();
+        RingStream ring = new RingStream(chunks);
+        OutputStream target;
+        synchronized (out) {
+            target = out.redirect(ring);
+        }
+        ParseStage parser = new ParseStage(in, batches);
+        WriteStage writer = new WriteStage(chunks, target);
+        Thread parseThread = start(parser, "command-parser");
+        Thread writeThread = start(writer, "command-writer");
+
+        try {
+            ArrayList<Command> batch = batches.take();
+            while (batch != null) {
+                data.applyBatch(batch);
+                batch = batches.take();
+            }
         }
+        finally {
+            // Stops the parser early if a command failed
+            batches.close();
+            try {
+                data.flush();
+                synchronized (out) {
+                    out.redirect(target);
+                }
+                try {
+                    ring.finish();
+                }
+                catch (IOException e) {
+                    // The writer stopped; its failure is rethrown below
+                }
+            }
+            finally {
+                chunks.close();
+                join(writeThread);
+                join(parseThread);
+            }
+        }
+        if (writer.failure != null) {
+            throw writer.failure;
+        }
+        if (parser.failure != null) {
+            throw parser.failure;
+        }
+    }
 
-        scanner.close();
+
+    /**
+     * Starts a pipeline stage on its own daemon thread
+     * 
+     * @param stage
+     *            The stage
+     * @param name
+     *            The thread name
+     * @return The running thread
+     */
+    private static Thread start(Runnable stage, String name) {
+        Thread thread = new Thread(stage, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+
+    /**
+     * Waits for a pipeline stage to finish, keeping any interrupt for the
+     * caller
+     * 
+     * @param thread
+     *            The stage's thread
+     */
+    private static void join(Thread thread) {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
 
@@ -57,52 +226,213 @@ public class CommandProcessor {
      *            a single line from the text file
      */
     public void processor(String line) {
-        // converts the string of the line into an
-        // array of its space (" ") delimited elements
-        String[] arr = line.split("\\s{1,}");
-        String command = arr[0].toLowerCase(); // the command will be the first
-                                               // of these
-                                               // elements, converted to
-                                               // lowercase
-
-        if (command.equals("insert")) {
-            // Format: insert name x y
-            String name = arr[1];
-            int x = Integer.parseInt(arr[2]);
-            int y = Integer.parseInt(arr[3]);
-
-            data.insert(name, x, y);
-        }
-        else if (command.equals("remove")) {
-            if (arr.length == 2) {
-                data.remove(arr[1]);
+        Command.parse(new CommandReader(line)).applyTo(data);
+    }
+
+
+    /**
+     * The first pipeline stage: tokenizes the file into batches of commands
+     */
+    private static class ParseStage implements Runnable {
+        private final FileInputStream in;
+        private final SpscRing<ArrayList<Command>> batches;
+
+        // The error that stopped parsing, rethrown once the lines before it
+        // have run
+        private volatile RuntimeException failure;
+
+        /**
+         * Creates the stage
+         * 
+         * @param in
+         *            The file, closed when the stage finishes
+         * @param batches
+         *            Where parsed batches go
+         */
+        ParseStage(FileInputStream in, SpscRing<ArrayList<Command>> batches) {
+            this.in = in;
+            this.batches = batches;
+        }
+
+
+        @Override
+        public void run() {
+            ArrayList<Command> batch = new ArrayList<>(PIPELINE_BATCH);
+            try {
+                CommandReader reader = new CommandReader(in);
+                while (reader.nextLine()) {
+                    batch.add(Command.parse(reader));
+                    if (batch.size() == PIPELINE_BATCH) {
+                        if (!batches.put(batch)) {
+                            return;
+                        }
+                        batch = new ArrayList<>(PIPELINE_BATCH);
+                    }
+                }
+            }
+            catch (RuntimeException e) {
+                // The lines before a bad one still run
+                failure = e;
+            }
+            finally {
+                if (!batch.isEmpty()) {
+                    batches.put(batch);
+                }
+                batches.close();
+                try {
+                    in.close();
+                }
+                catch (IOException e) {
+                    // Nothing was written, so there is nothing to lose
+                }
+            }
+        }
+    }
+
+
+    /**
+     * The last pipeline stage: writes output chunks to the real stream. An
+     * empty chunk asks for a flush.
+     */
+    private static class WriteStage implements Runnable {
+        private final SpscRing<byte[]> chunks;
+        private final OutputStream target;
+
+        // The error that stopped writing
+        private volatile RuntimeException failure;
+
+        /**
+         * Creates the stage
+         * 
+         * @param chunks
+         *            Where output chunks come from
+         * @param target
+         *            The stream to write to, or null for the current
+         *            System.out
+         */
+        WriteStage(SpscRing<byte[]> chunks, OutputStream target) {
+            this.chunks = chunks;
+            if (target == null) {
+                this.target = System.out;
             }
             else {
-                int x = Integer.parseInt(arr[1]);
-                int y = Integer.parseInt(arr[2]);
+                this.target = target;
+            }
+        }
 
-                data.remove(x, y);
+
+        @Override
+        public void run() {
+            try {
+                byte[] chunk = chunks.take();
+                while (chunk != null) {
+                    if (chunk.length == 0) {
+                        target.flush();
+                    }
+                    else {
+                        target.write(chunk);
+                    }
+                    chunk = chunks.take();
+                }
+            }
+            catch (IOException e) {
+                failure = new UncheckedIOException(e);
+                chunks.close();
+            }
+            catch (RuntimeException e) {
+                failure = e;
+                chunks.close();
             }
         }
-        else if (command.equals("regionsearch")) {
-            int x = Integer.parseInt(arr[1]);
-            int y = Integer.parseInt(arr[2]);
-            int w = Integer.parseInt(arr[3]);
-            int h = Integer.parseInt(arr[4]);
+    }
+
+
+    /**
+     * The stream the database's sink writes to during a pipelined run.
+     * Writes are gathered into chunks of CHUNK_SIZE bytes for the writer
+     * stage, and the flush an auto-flushing sink makes after every command
+     * is dropped, so the writer makes one write per chunk and flushes the
+     * real stream once, when finish() is called at the end of the run.
+     */
+    private static class RingStream extends OutputStream {
+        private static final byte[] FLUSH = new byte[0];
+
+        // Bytes gathered before a chunk goes to the writer stage
+        private static final int CHUNK_SIZE = 1 << 16;
+
+        private final SpscRing<byte[]> chunks;
+        private byte[] pending;
+        private int count;
+
+        /**
+         * Creates the stream
+         * 
+         * @param chunks
+         *            Where the chunks go
+         */
+        RingStream(SpscRing<byte[]> chunks) {
+            this.chunks = chunks;
+            pending = new byte[CHUNK_SIZE];
+        }
 
-            data.regionsearch(x, y, w, h);
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte)b }, 0, 1);
         }
-        else if (command.equals("duplicates")) {
-            data.duplicates();
+
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, CHUNK_SIZE - count);
+                System.arraycopy(b, off, pending, count, n);
+                count += n;
+                off += n;
+                len -= n;
+                if (count == CHUNK_SIZE) {
+                    send(pending);
+                    pending = new byte[CHUNK_SIZE];
+                    count = 0;
+                }
+            }
         }
-        else if (command.equals("search")) {
-            data.search(arr[1]);
+
+
+        @Override
+        public void flush() {
+            // Output reaches the real stream in whole chunks; see finish()
         }
-        else if (command.equals("dump")) {
-            data.dump();
+
+
+        /**
+         * Hands over the last partial chunk and asks the writer stage to
+         * flush the real stream
+         * 
+         * @throws IOException
+         *             If the writer stage has stopped
+         */
+        void finish() throws IOException {
+            if (count > 0) {
+                send(Arrays.copyOf(pending, count));
+                count = 0;
+            }
+            send(FLUSH);
         }
-        else {
-            System.out.println("Unrecognized command.");
+
+
+        /**
+         * Hands a chunk to the writer stage
+         * 
+         * @param chunk
+         *            The chunk
+         * @throws IOException
+         *             If the writer stage has stopped
+         */
+        private void send(byte[] chunk) throws IOException {
+            if (!chunks.put(chunk)) {
+                throw new IOException("Output writer stopped");
+            }
         }
     }
 }
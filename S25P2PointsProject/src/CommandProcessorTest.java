@@ -345,4 +345,102 @@ public class CommandProcessorTest extends TestCase {
             && output.contains("1 20");
         assertTrue("Duplicates at (1, 20) not identified", hasDuplicates);
     }
+
+
+    /**
+     * Tests the nearest command is parsed and run
+     */
+    public void testNearestCommand() {
+        commandProcessor.processor("insert A 100 100");
+        commandProcessor.processor("insert B 300 100");
+        systemOut().clearHistory();
+        commandProcessor.processor("NEAREST 290 90 1");
+        String output = systemOut().getHistory();
+        assertTrue(output.contains("Nearest 1 points to 290 90:"));
+        assertTrue(output.contains("Point found B 300 100"));
+        assertFalse(output.contains("Point found A"));
+    }
+
+
+    /**
+     * Tests a pipelined processor prints exactly what the sequential one
+     * does, for both kinds of output sink, and still runs the lines before
+     * one that cannot be parsed
+     * 
+     * @throws FileNotFoundException
+     *             if the file cannot be found
+     */
+    public void testPipelined() throws FileNotFoundException {
+        File tempFile = new File("pipeline_commands.txt");
+        PrintWriter writer = new PrintWriter(tempFile);
+        java.util.Random rng = new java.util.Random(8);
+        for (int i = 0; i < 3000; i++) {
+            int x = rng.nextInt(40) * 26 - 10;
+            int y = rng.nextInt(4) * 300;
+            int kind = rng.nextInt(10);
+            if (kind < 6) {
+                writer.println("insert n" + rng.nextInt(200) + " " + x + " "
+                    + y);
+            }
+            else if (kind < 8) {
+                writer.println("remove " + x + " " + y);
+            }
+            else if (kind < 9) {
+                writer.println("remove n" + rng.nextInt(200));
+            }
+            else {
+                writer.println("regionsearch " + x + " " + y + " 100 100");
+            }
+        }
+        writer.println("duplicates");
+        writer.println("dump");
+        writer.close();
+
+        java.io.ByteArrayOutputStream expected =
+            new java.io.ByteArrayOutputStream();
+        new CommandProcessor(new Database(new OutputSink(expected, false),
+            false)).readCmdFile(tempFile);
+        java.io.ByteArrayOutputStream actual =
+            new java.io.ByteArrayOutputStream();
+        new CommandProcessor(new Database(new OutputSink(actual, false),
+            false), true).readCmdFile(tempFile);
+        assertEquals(depthless(expected.toString()), depthless(actual
+            .toString()));
+
+        // An auto-flushing sink writes to System.out, command by command
+        systemOut().clearHistory();
+        new CommandProcessor(new Database(), true).readCmdFile(tempFile);
+        assertEquals(depthless(expected.toString()), depthless(systemOut()
+            .getHistory()));
+
+        writer = new PrintWriter(tempFile);
+        writer.println("insert a 1 2");
+        writer.println("insert b 1 x");
+        writer.println("insert c 3 4");
+        writer.close();
+        systemOut().clearHistory();
+        Exception thrown = null;
+        try {
+            new CommandProcessor(new Database(), true).readCmdFile(tempFile);
+        }
+        catch (NumberFormatException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertEquals("Point inserted: a 1 2\n", systemOut().getHistory());
+
+        tempFile.delete();
+    }
+
+
+    /**
+     * Leaves the random SkipList node depths out of some output
+     * 
+     * @param output
+     *            The output
+     * @return The output without depths
+     */
+    private String depthless(String output) {
+        return output.replaceAll("Node has depth \\d+", "Node has depth");
+    }
 }
@@ -0,0 +1,378 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+
+/**
+ * Reads command lines straight from bytes. The input is pulled through one
+ * large buffer and each line is split into tokens by recording where they
+ * start and end, so reading a line allocates nothing. Keywords are compared
+ * and integers parsed in place; only names become Strings.
+ *
+ * Lines are read like Scanner.nextLine() followed by String.trim(): they end
+ * at \n, \r or \r\n, bytes up to and including space are trimmed from both
+ * ends and lines left empty are skipped. Tokens are then split on runs of
+ * whitespace exactly like line.split("\\s{1,}").
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class CommandReader {
+
+    // Bytes read from the stream at a time
+    private static final int DEFAULT_CAPACITY = 1 << 20;
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    private final InputStream in;
+    private byte[] buffer;
+
+    // Unread bytes are buffer[pos, limit)
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    // Set when a line ended with \r, so a following \n is skipped
+    private boolean skipNewline;
+
+    // The current line's tokens are buffer[starts[i], ends[i])
+    private int[] starts;
+    private int[] ends;
+    private int tokenCount;
+
+    /**
+     * Creates a reader over a stream of command lines
+     *
+     * @param in
+     *            The stream to read from
+     */
+    public CommandReader(InputStream in) {
+        this(in, DEFAULT_CAPACITY);
+    }
+
+
+    /**
+     * Creates a reader over a stream with a given buffer size. The buffer
+     * grows if a single line does not fit.
+     *
+     * @param in
+     *            The stream to read from
+     * @param capacity
+     *            The initial buffer size in bytes
+     */
+    public CommandReader(InputStream in, int capacity) {
+        this.in = in;
+        buffer = new byte[Math.max(capacity, 1)];
+        pos = 0;
+        limit = 0;
+        eof = false;
+        skipNewline = false;
+        starts = new int[8];
+        ends = new int[8];
+        tokenCount = 0;
+    }
+
+
+    /**
+     * Creates a reader holding one line that is already current. The line
+     * is split as given, without trimming, the same way
+     * line.split("\\s{1,}") would split it.
+     *
+     * @param line
+     *            The command line
+     */
+    public CommandReader(String line) {
+        this(null, 1);
+        buffer = line.getBytes(CHARSET);
+        eof = true;
+        tokenize(0, buffer.length);
+    }
+
+
+    /**
+     * Advances to the next non-empty line and splits it into tokens
+     *
+     * @return True if there was another line, false at the end of the input
+     */
+    public boolean nextLine() {
+        while (true) {
+            if (skipNewline) {
+                if (pos == limit && !fill()) {
+                    return false;
+                }
+                if (buffer[pos] == '\n') {
+                    pos++;
+                }
+                skipNewline = false;
+            }
+
+            // Find the end of the line, reading more if it is not buffered
+            int scan = pos;
+            int end = -1;
+            while (end < 0) {
+                if (scan == limit) {
+                    // Filling moves the unread bytes to the front
+                    int offset = pos;
+                    boolean more = fill();
+                    scan -= offset - pos;
+                    if (!more) {
+                        break;
+                    }
+                }
+                byte b = buffer[scan];
+                if (b == '\n' || b == '\r') {
+                    end = scan;
+                }
+                else {
+                    scan++;
+                }
+            }
+            if (end < 0) {
+                // Last line without a line terminator, or nothing left
+                if (pos == limit) {
+                    return false;
+                }
+                end = limit;
+            }
+
+            int start = pos;
+            if (end < limit) {
+                skipNewline = buffer[end] == '\r';
+                pos = end + 1;
+            }
+            else {
+                pos = end;
+            }
+
+            // Trim as String.trim() does
+            while (start < end && (buffer[start] & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (buffer[end - 1] & 0xFF) <= ' ') {
+                end--;
+            }
+            if (start < end) {
+                tokenize(start, end);
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * Gets the number of tokens on the current line
+     *
+     * @return The token count
+     */
+    public int tokenCount() {
+        return tokenCount;
+    }
+
+
+    /**
+     * Checks a token against a lowercase keyword, ignoring the token's case
+     *
+     * @param index
+     *            The token's position on the line
+     * @param keyword
+     *            The keyword in lowercase
+     * @return True if the token lowercases to the keyword
+     */
+    public boolean tokenIs(int index, String keyword) {
+        checkIndex(index);
+        int start = starts[index];
+        int length = ends[index] - start;
+        for (int i = 0; i < length; i++) {
+            if (buffer[start + i] < 0) {
+                // Leave anything beyond ASCII to toLowerCase
+                return token(index).toLowerCase().equals(keyword);
+            }
+        }
+        if (length != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            int c = buffer[start + i];
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Parses a token as an int. Plain ASCII numbers are parsed in place;
+     * anything else is handed to Integer.parseInt, so the results and
+     * exceptions are the same as parsing the token's String.
+     *
+     * @param index
+     *            The token's position on the line
+     * @return The token's value
+     * @throws NumberFormatException
+     *             If the token is not an int
+     */
+    public int tokenInt(int index) {
+        checkIndex(index);
+        int i = starts[index];
+        int end = ends[index];
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+
+        // Digits over 9 would risk overflow; leave those to parseInt too
+        if (i == end || end - i > 9) {
+            return Integer.parseInt(token(index));
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(token(index));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+
+    /**
+     * Gets a token as a String
+     *
+     * @param index
+     *            The token's position on the line
+     * @return The token
+     */
+    public String token(int index) {
+        checkIndex(index);
+        return new String(buffer, starts[index], ends[index] - starts[index],
+            CHARSET);
+    }
+
+
+    /**
+     * Splits buffer[start, end) into tokens on runs of whitespace. A leading
+     * run gives an empty first token and a trailing run gives nothing, the
+     * same as String.split.
+     *
+     * @param start
+     *            The first byte of the line
+     * @param end
+     *            One past the last byte of the line
+     */
+    private void tokenize(int start, int end) {
+        tokenCount = 0;
+        int i = start;
+        int tokenStart = start;
+        while (i < end) {
+            if (isWhitespace(buffer[i])) {
+                addToken(tokenStart, i);
+                while (i < end && isWhitespace(buffer[i])) {
+                    i++;
+                }
+                tokenStart = i;
+            }
+            else {
+                i++;
+            }
+        }
+        if (tokenStart < end || tokenCount == 0) {
+            addToken(tokenStart, end);
+        }
+    }
+
+
+    /**
+     * Records a token, growing the token arrays if needed
+     *
+     * @param start
+     *            The token's first byte
+     * @param end
+     *            One past the token's last byte
+     */
+    private void addToken(int start, int end) {
+        if (tokenCount == starts.length) {
+            int[] newStarts = new int[starts.length * 2];
+            int[] newEnds = new int[ends.length * 2];
+            System.arraycopy(starts, 0, newStarts, 0, tokenCount);
+            System.arraycopy(ends, 0, newEnds, 0, tokenCount);
+            starts = newStarts;
+            ends = newEnds;
+        }
+        starts[tokenCount] = start;
+        ends[tokenCount] = end;
+        tokenCount++;
+    }
+
+
+    /**
+     * Reads more input, first moving the unread bytes to the front of the
+     * buffer and growing it if they fill it
+     *
+     * @return True if any bytes were read
+     */
+    private boolean fill() {
+        if (eof) {
+            return false;
+        }
+        int unread = limit - pos;
+        if (unread == buffer.length) {
+            byte[] larger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, pos, larger, 0, unread);
+            buffer = larger;
+        }
+        else if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, unread);
+        }
+        pos = 0;
+        limit = unread;
+
+        try {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            while (read == 0) {
+                read = in.read(buffer, limit, buffer.length - limit);
+            }
+            if (read < 0) {
+                eof = true;
+                return false;
+            }
+            limit += read;
+            return true;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Checks a byte is one of the characters \s matches
+     *
+     * @param b
+     *            The byte to check
+     * @return True for space, tab, newline, vertical tab, form feed or
+     *         carriage return
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r');
+    }
+
+
+    /**
+     * Checks a token exists, failing the way indexing past the end of
+     * split()'s array would
+     *
+     * @param index
+     *            The token's position on the line
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= tokenCount) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+}
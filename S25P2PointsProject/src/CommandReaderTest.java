@@ -0,0 +1,138 @@
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Scanner;
+import student.TestCase;
+
+/**
+ * This class tests the methods of the CommandReader class against the
+ * Scanner, trim and split handling it replaces
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class CommandReaderTest extends TestCase {
+
+    private static final String INPUT = "insert a 1 2\n" + "\n"
+        + "  InSeRt\tb  3 4  \r\n" + "   \t \r" + "remove\u000b\u000cb\r\r\n"
+        + "\u0001dump\u0001\n" + "REGIONSEARCH -5 +6 007 8\n"
+        + "search with\ttabs\t\n" + "last";
+
+    /**
+     * Tests the reader splits the same lines into the same tokens as
+     * Scanner.nextLine, trim and split, at several buffer sizes
+     */
+    public void testMatchesScanner() {
+        ArrayList<String> expected = new ArrayList<>();
+        Scanner scanner = new Scanner(INPUT);
+        while (scanner.hasNextLine()) {
+            String line = scanner.nextLine().trim();
+            if (!line.isEmpty()) {
+                expected.add(String.join("|", line.split("\\s{1,}")));
+            }
+        }
+        scanner.close();
+
+        int[] capacities = { 1, 2, 3, 7, 1 << 20 };
+        for (int c = 0; c < capacities.length; c++) {
+            CommandReader reader = new CommandReader(new ByteArrayInputStream(
+                INPUT.getBytes()), capacities[c]);
+            ArrayList<String> actual = new ArrayList<>();
+            while (reader.nextLine()) {
+                actual.add(joined(reader));
+            }
+            assertFalse(reader.nextLine());
+            assertEquals(expected, actual);
+        }
+    }
+
+
+    /**
+     * Tests a single line is split without trimming, like split
+     */
+    public void testSingleLine() {
+        String[] lines = { "", " insert a 1 2", "dump ", "a  b\tc" };
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(String.join("|", lines[i].split("\\s{1,}")), joined(
+                new CommandReader(lines[i])));
+        }
+    }
+
+
+    /**
+     * Tests keyword matching ignores case and nothing else
+     */
+    public void testTokenIs() {
+        CommandReader reader = new CommandReader(
+            "InSeRt ins insertx dump\u00e9");
+        assertTrue(reader.tokenIs(0, "insert"));
+        assertFalse(reader.tokenIs(1, "insert"));
+        assertFalse(reader.tokenIs(2, "insert"));
+        assertFalse(reader.tokenIs(3, "dump"));
+        assertEquals(4, reader.tokenCount());
+    }
+
+
+    /**
+     * Tests ints parse the same as Integer.parseInt, including failures
+     */
+    public void testTokenInt() {
+        String[] tokens = { "0", "-0", "+12", "-1024", "007", "999999999",
+            "2147483647", "-2147483648", "2147483648", "-", "+", "1a", "--1",
+            "12345678901" };
+        for (int i = 0; i < tokens.length; i++) {
+            CommandReader reader = new CommandReader(tokens[i]);
+            String expected;
+            try {
+                expected = String.valueOf(Integer.parseInt(tokens[i]));
+            }
+            catch (NumberFormatException e) {
+                expected = "rejected";
+            }
+
+            String actual;
+            try {
+                actual = String.valueOf(reader.tokenInt(0));
+            }
+            catch (NumberFormatException e) {
+                actual = "rejected";
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+
+    /**
+     * Tests asking for a missing token fails like indexing split's array
+     */
+    public void testMissingToken() {
+        CommandReader reader = new CommandReader("insert a");
+        Exception thrown = null;
+        try {
+            reader.tokenInt(2);
+        }
+        catch (ArrayIndexOutOfBoundsException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertEquals("a", reader.token(1));
+    }
+
+
+    /**
+     * Joins the current line's tokens with bars
+     *
+     * @param reader
+     *            The reader on the line
+     * @return The tokens joined by "|"
+     */
+    private String joined(CommandReader reader) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < reader.tokenCount(); i++) {
+            if (i > 0) {
+                sb.append('|');
+            }
+            sb.append(reader.token(i));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,94 @@
+import student.TestCase;
+
+/**
+ * Tests the Command class
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class CommandTest extends TestCase {
+
+    /**
+     * Tests every kind of line parses to the matching command
+     */
+    public void testParse() {
+        Command c = Command.parse(new CommandReader("insert p 1 2"));
+        assertEquals(Command.INSERT, c.getType());
+        assertEquals("p", c.getName());
+        assertEquals(1, c.getX());
+        assertEquals(2, c.getY());
+
+        c = Command.parse(new CommandReader("REMOVE p"));
+        assertEquals(Command.REMOVE_NAME, c.getType());
+        assertEquals("p", c.getName());
+
+        c = Command.parse(new CommandReader("remove 3 -4"));
+        assertEquals(Command.REMOVE_AT, c.getType());
+        assertNull(c.getName());
+        assertEquals(3, c.getX());
+        assertEquals(-4, c.getY());
+
+        assertEquals(Command.REGIONSEARCH, Command.parse(new CommandReader(
+            "regionsearch 0 0 5 5")).getType());
+        assertEquals(Command.NEAREST, Command.parse(new CommandReader(
+            "nearest 1 1 2")).getType());
+        assertEquals(Command.DUPLICATES, Command.parse(new CommandReader(
+            "duplicates")).getType());
+        assertEquals(Command.SEARCH, Command.parse(new CommandReader(
+            "search p")).getType());
+        assertEquals(Command.DUMP, Command.parse(new CommandReader("dump"))
+            .getType());
+        c = Command.parse(new CommandReader("searchprefix sensor_1"));
+        assertEquals(Command.SEARCHPREFIX, c.getType());
+        assertEquals("sensor_1", c.getName());
+        c = Command.parse(new CommandReader("SearchRange a m"));
+        assertEquals(Command.SEARCHRANGE, c.getType());
+        assertEquals("a", c.getName());
+        assertEquals(Command.UNRECOGNIZED, Command.parse(new CommandReader(
+            "launch 1 2")).getType());
+
+        Exception thrown = null;
+        try {
+            Command.parse(new CommandReader("insert p one 2"));
+        }
+        catch (NumberFormatException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+
+    /**
+     * Tests running parsed commands prints what the database methods do
+     */
+    public void testApplyTo() {
+        String[] lines = { "insert a 1 2", "insert b 1 2", "insert c 900 9",
+            "regionsearch 0 0 10 10", "nearest 1 1 2", "duplicates",
+            "search a", "searchprefix a", "searchrange b c", "remove b",
+            "remove 1 2", "remove 1 2", "dump", "bogus" };
+        Database parsed = new Database();
+        for (int i = 0; i < lines.length; i++) {
+            Command.parse(new CommandReader(lines[i])).applyTo(parsed);
+        }
+        String output = systemOut().getHistory();
+
+        systemOut().clearHistory();
+        Database direct = new Database();
+        direct.insert("a", 1, 2);
+        direct.insert("b", 1, 2);
+        direct.insert("c", 900, 9);
+        direct.regionsearch(0, 0, 10, 10);
+        direct.nearest(1, 1, 2);
+        direct.duplicates();
+        direct.search("a");
+        direct.searchprefix("a");
+        direct.searchrange("b", "c");
+        direct.remove("b");
+        direct.remove(1, 2);
+        direct.remove(1, 2);
+        direct.dump();
+        direct.unrecognized();
+        assertEquals(systemOut().getHistory().replaceAll("depth \\d+", ""),
+            output.replaceAll("depth \\d+", ""));
+    }
+}
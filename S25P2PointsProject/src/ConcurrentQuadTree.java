@@ -0,0 +1,382 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A QuadTree that can be shared between threads. Locks are striped by the
+ * quadrant of the root: a write only takes the lock of the quadrant it
+ * lands in, so writes to different quadrants and any number of reads run
+ * at the same time. Anything that can replace the root itself (a split or
+ * merge at the root, or a tree that is still a single leaf) takes the
+ * tree lock exclusively instead.
+ *
+ * Locks are always taken tree lock first, then quadrants in index order.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class ConcurrentQuadTree extends QuadTree {
+
+    // Outcomes of a write attempted under a single quadrant lock
+    private static final int DONE = 0;
+    private static final int CHECK_MERGE = 1;
+    private static final int NEEDS_TREE_LOCK = 2;
+
+    // Guards the root reference; held shared by every quadrant operation
+    private final ReentrantReadWriteLock treeLock;
+
+    // One lock per quadrant of the root
+    private final ReentrantReadWriteLock[] quadrantLocks;
+
+    /**
+     * Creates a new empty thread-safe Quadtree with the default world size
+     * and bucket capacity
+     */
+    public ConcurrentQuadTree() {
+        this(DEFAULT_WORLD_SIZE, DEFAULT_BUCKET_CAPACITY);
+    }
+
+
+    /**
+     * Creates a new empty thread-safe Quadtree
+     *
+     * @param worldSize
+     *            The side of the world, a power of two up to 2^30
+     * @param bucketCapacity
+     *            Most points a leaf holds before it splits, at least 1
+     */
+    public ConcurrentQuadTree(int worldSize, int bucketCapacity) {
+        super(worldSize, bucketCapacity);
+        treeLock = new ReentrantReadWriteLock();
+        quadrantLocks = new ReentrantReadWriteLock[4];
+        for (int i = 0; i < 4; i++) {
+            quadrantLocks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+
+    /**
+     * Checks if coordinates fall inside the world
+     *
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @return True if the coordinates are inside the world
+     */
+    private boolean inWorld(int x, int y) {
+        int worldSize = getWorldSize();
+        return x >= 0 && y >= 0 && x < worldSize && y < worldSize;
+    }
+
+
+    @Override
+    public boolean insert(Point point) {
+        if (!inWorld(point.getX(), point.getY())) {
+            return false;
+        }
+
+        int outcome = NEEDS_TREE_LOCK;
+        treeLock.readLock().lock();
+        try {
+            QuadNode root = getRoot();
+            if (root instanceof InternalNode) {
+                InternalNode internal = (InternalNode)root;
+                int worldSize = getWorldSize();
+                int quadrant = internal.quadrantOf(point.getX(), point.getY(),
+                    0, 0, worldSize);
+
+                quadrantLocks[quadrant].writeLock().lock();
+                try {
+                    // Adding a point never makes the root mergeable, so
+                    // there is no need for the tree lock afterwards
+                    internal.insertIntoQuadrant(point, quadrant, 0, 0,
+                        worldSize);
+                    outcome = DONE;
+                }
+                finally {
+                    quadrantLocks[quadrant].writeLock().unlock();
+                }
+            }
+        }
+        finally {
+            treeLock.readLock().unlock();
+        }
+
+        if (outcome == NEEDS_TREE_LOCK) {
+            treeLock.writeLock().lock();
+            try {
+                return super.insert(point);
+            }
+            finally {
+                treeLock.writeLock().unlock();
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public int bulkLoad(Point[] points) {
+        treeLock.writeLock().lock();
+        try {
+            return super.bulkLoad(points);
+        }
+        finally {
+            treeLock.writeLock().unlock();
+        }
+    }
+
+
+    @Override
+    public Point remove(int x, int y) {
+        if (!inWorld(x, y)) {
+            return null;
+        }
+        return removeStriped(x, y, null);
+    }
+
+
+    @Override
+    public Point remove(Point point) {
+        if (!inWorld(point.getX(), point.getY())) {
+            return null;
+        }
+        return removeStriped(point.getX(), point.getY(), point);
+    }
+
+
+    /**
+     * Removes a point under the lock of the root quadrant holding its
+     * location, falling back to the tree lock when the root is not an
+     * internal node
+     *
+     * @param x
+     *            The x-coordinate of the location
+     * @param y
+     *            The y-coordinate of the location
+     * @param point
+     *            The point to remove, or null for any point at the location
+     * @return The removed point, or null if not found
+     */
+    private Point removeStriped(int x, int y, Point point) {
+        Point removed = null;
+        int outcome = NEEDS_TREE_LOCK;
+        treeLock.readLock().lock();
+        try {
+            QuadNode root = getRoot();
+            if (root instanceof InternalNode) {
+                InternalNode internal = (InternalNode)root;
+                int worldSize = getWorldSize();
+                int quadrant = internal.quadrantOf(x, y, 0, 0, worldSize);
+
+                RemovedPoint holder = QuadTree.removedHolder();
+                holder.clear();
+                quadrantLocks[quadrant].writeLock().lock();
+                try {
+                    if (point == null) {
+                        removed = internal.removeFromQuadrant(x, y, quadrant,
+                            0, 0, worldSize, holder);
+                    }
+                    else {
+                        removed = internal.removeFromQuadrant(point,
+                            quadrant, 0, 0, worldSize, holder);
+                    }
+                    holder.clear();
+                    outcome = DONE;
+                    if (removed != null && !(internal.getChild(
+                        quadrant) instanceof InternalNode)) {
+                        outcome = CHECK_MERGE;
+                    }
+                }
+                finally {
+                    quadrantLocks[quadrant].writeLock().unlock();
+                }
+            }
+        }
+        finally {
+            treeLock.readLock().unlock();
+        }
+
+        if (outcome == NEEDS_TREE_LOCK) {
+            treeLock.writeLock().lock();
+            try {
+                if (point == null) {
+                    return super.remove(x, y);
+                }
+                return super.remove(point);
+            }
+            finally {
+                treeLock.writeLock().unlock();
+            }
+        }
+        if (outcome == CHECK_MERGE) {
+            mergeRoot();
+        }
+        return removed;
+    }
+
+
+    /**
+     * Merges the root into a leaf if its children now allow it. A quadrant
+     * remove that left its child as a leaf cannot decide this alone, since
+     * the other quadrants may be changing at the same time.
+     */
+    private void mergeRoot() {
+        treeLock.writeLock().lock();
+        try {
+            QuadNode root = getRoot();
+            if (root instanceof InternalNode) {
+                setRoot(((InternalNode)root).mergeIfNeeded());
+            }
+        }
+        finally {
+            treeLock.writeLock().unlock();
+        }
+    }
+
+
+    @Override
+    public Point remove(String name) {
+        // The name could be in any quadrant
+        treeLock.writeLock().lock();
+        try {
+            return super.remove(name);
+        }
+        finally {
+            treeLock.writeLock().unlock();
+        }
+    }
+
+
+    @Override
+    public RegionSearchResult regionsearch(int x, int y, int w, int h) {
+        int half = getWorldSize() / 2;
+        boolean[] touched = new boolean[4];
+        touched[0] = x < half && y < half;
+        touched[1] = x + w > half && y < half;
+        touched[2] = x < half && y + h > half;
+        touched[3] = x + w > half && y + h > half;
+
+        treeLock.readLock().lock();
+        lockQuadrants(touched);
+        try {
+            return super.regionsearch(x, y, w, h);
+        }
+        finally {
+            unlockQuadrants(touched);
+            treeLock.readLock().unlock();
+        }
+    }
+
+
+    @Override
+    public RegionSearchResult regionsearch(
+        int x,
+        int y,
+        int w,
+        int h,
+        ForkJoinPool pool) {
+        boolean[] all = { true, true, true, true };
+        treeLock.readLock().lock();
+        lockQuadrants(all);
+        try {
+            // The pool's workers read the tree while this thread holds the
+            // locks that keep writers out
+            return super.regionsearch(x, y, w, h, pool);
+        }
+        finally {
+            unlockQuadrants(all);
+            treeLock.readLock().unlock();
+        }
+    }
+
+
+    @Override
+    public RegionSearchResult nearest(int x, int y, int k) {
+        boolean[] all = { true, true, true, true };
+        treeLock.readLock().lock();
+        lockQuadrants(all);
+        try {
+            return super.nearest(x, y, k);
+        }
+        finally {
+            unlockQuadrants(all);
+            treeLock.readLock().unlock();
+        }
+    }
+
+
+    @Override
+    public DuplicatesResult findDuplicates() {
+        boolean[] all = { true, true, true, true };
+        treeLock.readLock().lock();
+        lockQuadrants(all);
+        try {
+            return super.findDuplicates();
+        }
+        finally {
+            unlockQuadrants(all);
+            treeLock.readLock().unlock();
+        }
+    }
+
+
+    @Override
+    public DuplicatesResult findDuplicates(ForkJoinPool pool) {
+        boolean[] all = { true, true, true, true };
+        treeLock.readLock().lock();
+        lockQuadrants(all);
+        try {
+            return super.findDuplicates(pool);
+        }
+        finally {
+            unlockQuadrants(all);
+            treeLock.readLock().unlock();
+        }
+    }
+
+
+    @Override
+    public void dump(OutputSink out) {
+        boolean[] all = { true, true, true, true };
+        treeLock.readLock().lock();
+        lockQuadrants(all);
+        try {
+            super.dump(out);
+        }
+        finally {
+            unlockQuadrants(all);
+            treeLock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Takes the read locks of the selected quadrants in index order
+     *
+     * @param which
+     *            Which quadrants to lock
+     */
+    private void lockQuadrants(boolean[] which) {
+        for (int i = 0; i < 4; i++) {
+            if (which[i]) {
+                quadrantLocks[i].readLock().lock();
+            }
+        }
+    }
+
+
+    /**
+     * Releases the read locks taken by lockQuadrants
+     *
+     * @param which
+     *            Which quadrants were locked
+     */
+    private void unlockQuadrants(boolean[] which) {
+        for (int i = 3; i >= 0; i--) {
+            if (which[i]) {
+                quadrantLocks[i].readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+import student.TestCase;
+
+/**
+ * Tests the ConcurrentQuadTree class, both single-threaded against the
+ * plain QuadTree and with several writer threads at once
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class ConcurrentQuadTreeTest extends TestCase {
+
+    private ConcurrentQuadTree tree;
+
+    /**
+     * Sets up the tests that follow
+     */
+    public void setUp() {
+        tree = new ConcurrentQuadTree();
+    }
+
+
+    /**
+     * Keeps only the node lines of a dump, which describe the tree shape
+     *
+     * @param dump
+     *            The dump output
+     * @return The node lines
+     */
+    private String shapeOf(String dump) {
+        StringBuilder shape = new StringBuilder();
+        String[] lines = dump.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].trim().startsWith("Node at") || lines[i].contains(
+                "nodes printed")) {
+                shape.append(lines[i].trim()).append("\n");
+            }
+        }
+        return shape.toString();
+    }
+
+
+    /**
+     * Tests removing by handle under a quadrant lock and under the tree
+     * lock while the tree is still a single leaf
+     */
+    public void testRemoveByPoint() {
+        Point a = new Point("a", 10, 10);
+        Point b = new Point("b", 10, 10);
+        tree.insert(a);
+        tree.insert(b);
+        assertSame(b, tree.remove(b));
+        assertNull(tree.remove(new Point("x", -1, 0)));
+
+        Point[] points = new Point[40];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Point("p" + i, (i * 97) % 1024, (i * 31) % 1024);
+            tree.insert(points[i]);
+        }
+        Point stacked = new Point("s", 10, 10);
+        tree.insert(stacked);
+        assertTrue(tree.getRoot() instanceof InternalNode);
+        assertSame(stacked, tree.remove(stacked));
+        for (int i = 0; i < points.length; i++) {
+            assertSame(points[i], tree.remove(points[i]));
+        }
+        assertEquals(1, tree.size());
+        assertSame(a, tree.remove(10, 10));
+        assertTrue(tree.getRoot() instanceof EmptyNode);
+    }
+
+
+    /**
+     * Tests that single-threaded use matches the plain QuadTree, including
+     * splits and merges at the root
+     */
+    public void testMatchesQuadTree() {
+        QuadTree plain = new QuadTree();
+        int[][] coords = { { 10, 10 }, { 600, 10 }, { 10, 600 }, { 600, 600 },
+            { 20, 20 }, { 700, 700 }, { 5, 5 }, { 6, 6 }, { 7, 7 } };
+        for (int i = 0; i < coords.length; i++) {
+            Point p = new Point("p" + i, coords[i][0], coords[i][1]);
+            assertTrue(tree.insert(p));
+            plain.insert(p);
+        }
+        assertFalse(tree.insert(new Point("bad", -1, 5)));
+        assertFalse(tree.insert(new Point("bad", 5, 1024)));
+
+        systemOut().clearHistory();
+        plain.dump();
+        String expected = systemOut().getHistory();
+        systemOut().clearHistory();
+        tree.dump();
+        assertEquals(expected, systemOut().getHistory());
+
+        assertEquals(plain.regionsearch(0, 0, 30, 30).getNodesVisited(), tree
+            .regionsearch(0, 0, 30, 30).getNodesVisited());
+        assertEquals(5, tree.regionsearch(0, 0, 30, 30).getPoints().size());
+
+        for (int i = 0; i < coords.length - 2; i++) {
+            assertNotNull(tree.remove(coords[i][0], coords[i][1]));
+        }
+        assertNull(tree.remove(coords[0][0], coords[0][1]));
+        assertNull(tree.remove(-1, 0));
+        assertNull(tree.remove(0, 1024));
+        assertNotNull(tree.remove("p7"));
+        assertNull(tree.remove("p7"));
+
+        systemOut().clearHistory();
+        tree.dump();
+        String output = systemOut().getHistory();
+        assertTrue(output.contains("Node at 0 0 1024"));
+        assertTrue(output.contains("1 quadtree nodes printed"));
+        assertEquals(0, tree.findDuplicates().getDuplicates().size());
+    }
+
+
+    /**
+     * Tests writers in every quadrant at once, with readers running
+     * alongside, then compares the final shape against a plain QuadTree
+     * built from the same points
+     *
+     * @throws InterruptedException
+     *             If the test is interrupted while joining
+     */
+    public void testConcurrentWriters() throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 500;
+        final Point[][] points = new Point[threads][perThread];
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                points[t][i] = new Point("t" + t + "_" + i, (i * 37 + t * 251)
+                    % 1024, (i * 91 + t * 17) % 1024);
+            }
+        }
+
+        Thread[] workers = new Thread[threads + 1];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        tree.insert(points[id][i]);
+                    }
+                    for (int i = 0; i < perThread; i += 2) {
+                        tree.remove(points[id][i].getX(), points[id][i]
+                            .getY());
+                    }
+                }
+            };
+        }
+        workers[threads] = new Thread() {
+            public void run() {
+                for (int i = 0; i < 200; i++) {
+                    tree.regionsearch(i, i, 300, 300);
+                    tree.findDuplicates();
+                }
+            }
+        };
+        for (int t = 0; t <= threads; t++) {
+            workers[t].start();
+        }
+        for (int t = 0; t <= threads; t++) {
+            workers[t].join();
+        }
+
+        assertEquals(threads * perThread / 2, tree.regionsearch(0, 0, 1024,
+            1024).getPoints().size());
+        assertEquals(threads * perThread / 2, tree.size());
+
+        // The PR quadtree shape depends only on which locations remain
+        QuadTree plain = new QuadTree();
+        PointList remaining = tree.regionsearch(0, 0, 1024, 1024).getPoints();
+        for (int i = 0; i < remaining.size(); i++) {
+            plain.insert(remaining.get(i));
+        }
+        systemOut().clearHistory();
+        plain.dump();
+        String expected = shapeOf(systemOut().getHistory());
+        systemOut().clearHistory();
+        tree.dump();
+        assertEquals(expected, shapeOf(systemOut().getHistory()));
+    }
+}
@@ -0,0 +1,589 @@
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+
+/**
+ * A lock-free SkipList with the same API as SkipList, so one name index can
+ * be shared by many reader and writer threads. Nodes are linked in with CAS
+ * and deleted by first marking their forward references (logical delete)
+ * and then unlinking them (physical delete), which any thread that passes
+ * a marked node helps finish.
+ *
+ * Duplicate keys are kept apart by a per-node sequence number. Newer nodes
+ * sort in front of older ones with an equal key, just like SkipList.insert
+ * puts a duplicate in front of the existing run.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ * @param <K>
+ *            Key
+ * @param <V>
+ *            Value
+ */
+public class ConcurrentSkipList<K extends Comparable<K>, V>
+    implements NameIndex<K, V> {
+
+    // Highest level index a node can have; head is built at this height
+    private static final int MAX_LEVEL = 31;
+
+    private final SkipNode head; // First element (Sentinel Node)
+    private final AtomicInteger size; // number of live entries
+    private final AtomicInteger topLevel; // highest level index in use
+    private final AtomicLong sequence; // tie-breaker for duplicate keys
+
+    /**
+     * Initializes an empty list
+     */
+    public ConcurrentSkipList() {
+        head = new SkipNode(null, 0, MAX_LEVEL);
+        size = new AtomicInteger(0);
+        topLevel = new AtomicInteger(0);
+        sequence = new AtomicLong(0);
+    }
+
+
+    /**
+     * returns a random level (using geometric distribution), minimum of 1
+     *
+     * @return an integer representing the random level generated, with a
+     *         minimum value of 1 and a maximum of MAX_LEVEL + 1
+     */
+    public int randomLevel() {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        int level = 1;
+        while (level <= MAX_LEVEL && rng.nextBoolean())
+            level++;
+        return level;
+    }
+
+
+    /**
+     * @return the number of live entries in the list
+     */
+    public int size() {
+        return size.get();
+    }
+
+
+    /**
+     * Finds the predecessors and successors of the position (key, seq) on
+     * every level, unlinking any marked nodes it passes on the way.
+     *
+     * @param key
+     *            the key to locate
+     * @param seq
+     *            the sequence number to locate
+     * @param preds
+     *            filled with the last node before the position per level
+     * @param succs
+     *            filled with the first node at or after the position
+     */
+    private void find(K key, long seq, SkipNode[] preds, SkipNode[] succs) {
+        boolean[] marked = { false };
+        retry: while (true) {
+            SkipNode pred = head;
+            for (int i = MAX_LEVEL; i >= 0; i--) {
+                SkipNode curr = pred.forward[i].getReference();
+                while (curr != null) {
+                    SkipNode succ = curr.forward[i].get(marked);
+                    if (marked[0]) {
+                        // Help finish the delete before moving on
+                        if (!pred.forward[i].compareAndSet(curr, succ, false,
+                            false)) {
+                            continue retry;
+                        }
+                        curr = succ;
+                        continue;
+                    }
+                    if (curr.compareTo(key, seq) < 0) {
+                        pred = curr;
+                        curr = succ;
+                    }
+                    else {
+                        break;
+                    }
+                }
+                preds[i] = pred;
+                succs[i] = curr;
+            }
+            return;
+        }
+    }
+
+
+    /**
+     * Returns the first unmarked node with a key no less than key, without
+     * modifying the list.
+     *
+     * @param key
+     *            the key to descend to
+     * @return the node, or null if every key is smaller
+     */
+    private SkipNode ceiling(K key) {
+        SkipNode pred = head;
+        SkipNode curr = null;
+        for (int i = topLevel.get(); i >= 0; i--) {
+            curr = pred.forward[i].getReference();
+            while (curr != null) {
+                SkipNode succ = curr.forward[i].getReference();
+                if (curr.isMarked()) {
+                    curr = succ;
+                }
+                else if (curr.element().key().compareTo(key) < 0) {
+                    pred = curr;
+                    curr = succ;
+                }
+                else {
+                    break;
+                }
+            }
+        }
+        return curr;
+    }
+
+
+    /**
+     * Searches for every KVPair with the given key.
+     *
+     * @param key
+     *            key to be searched for
+     * @return the live KVPairs that match the key, newest first
+     */
+    public ArrayList<KVPair<K, V>> search(K key) {
+        ArrayList<KVPair<K, V>> results = new ArrayList<>();
+        if (key == null) {
+            return results;
+        }
+
+        SkipNode current = ceiling(key);
+        while (current != null && current.element().key().compareTo(
+            key) == 0) {
+            if (!current.isMarked()) {
+                results.add(current.element());
+            }
+            current = current.forward[0].getReference();
+        }
+
+        return results;
+    }
+
+
+    /**
+     * Iterates lazily over the live pairs from a key to the end of a range.
+     * The iterator is weakly consistent: it never fails under concurrent
+     * updates, and shows pairs inserted or removed while it runs only if
+     * it has not passed their place yet.
+     *
+     * @param from
+     *            the smallest key wanted, or null to start at the first pair
+     * @param to
+     *            the end of the range, or null to run to the last pair
+     * @param toInclusive
+     *            true to include keys equal to to
+     * @return the iterator
+     */
+    public Iterator<KVPair<K, V>> range(K from, K to, boolean toInclusive) {
+        SkipNode first = head.forward[0].getReference();
+        if (from != null) {
+            first = ceiling(from);
+        }
+        return new SkipListIterator(first, to, toInclusive);
+    }
+
+
+    /**
+     * Inserts the KVPair in front of any existing pairs with an equal key.
+     *
+     * @param it
+     *            the KVPair to be inserted
+     */
+    public void insert(KVPair<K, V> it) {
+        if (it == null) {
+            return;
+        }
+
+        int newLevel = randomLevel() - 1;
+        long seq = -sequence.incrementAndGet();
+        SkipNode[] preds = newPath();
+        SkipNode[] succs = newPath();
+        SkipNode newNode = new SkipNode(it, seq, newLevel);
+
+        // Linking the bottom level makes the pair visible
+        while (true) {
+            find(it.key(), seq, preds, succs);
+            for (int i = 0; i <= newLevel; i++) {
+                newNode.forward[i].set(succs[i], false);
+            }
+            if (preds[0].forward[0].compareAndSet(succs[0], newNode, false,
+                false)) {
+                break;
+            }
+        }
+        size.incrementAndGet();
+        raiseTopLevel(newLevel);
+
+        // The upper levels are only shortcuts, so link them one by one
+        for (int i = 1; i <= newLevel; i++) {
+            while (true) {
+                SkipNode succ = succs[i];
+                SkipNode expected = newNode.forward[i].getReference();
+                if (newNode.forward[i].isMarked()) {
+                    // Already being removed, stop building it up
+                    return;
+                }
+                if (expected != succ && !newNode.forward[i].compareAndSet(
+                    expected, succ, false, false)) {
+                    continue;
+                }
+                if (preds[i].forward[i].compareAndSet(succ, newNode, false,
+                    false)) {
+                    break;
+                }
+                find(it.key(), seq, preds, succs);
+            }
+        }
+    }
+
+
+    /**
+     * Adds pairs that are already sorted by key. Other threads may be
+     * writing at the same time, so there is no stable tail to append to.
+     * The pairs are inserted one at a time in reverse, which leaves equal
+     * keys in the order they arrived, since insert puts each pair in front
+     * of its equal keys.
+     *
+     * @param sorted
+     *            the pairs in ascending key order
+     */
+    public void buildFromSorted(Iterator<KVPair<K, V>> sorted) {
+        ArrayList<KVPair<K, V>> pairs = new ArrayList<>();
+        while (sorted.hasNext()) {
+            pairs.add(sorted.next());
+        }
+        for (int i = pairs.size() - 1; i >= 0; i--) {
+            insert(pairs.get(i));
+        }
+    }
+
+
+    /**
+     * Creates an empty array of nodes with a slot for every level
+     *
+     * @return the array
+     */
+    @SuppressWarnings("unchecked")
+    private SkipNode[] newPath() {
+        return (SkipNode[])Array.newInstance(ConcurrentSkipList.SkipNode.class,
+            MAX_LEVEL + 1);
+    }
+
+
+    /**
+     * Records that a node with the given level index has been linked in
+     *
+     * @param level
+     *            the level index of the new node
+     */
+    private void raiseTopLevel(int level) {
+        int current = topLevel.get();
+        while (level > current && !topLevel.compareAndSet(current, level)) {
+            current = topLevel.get();
+        }
+    }
+
+
+    /**
+     * Removes the first KVPair with the given key.
+     *
+     * @param key
+     *            the key of the KVPair to be removed
+     * @return returns the removed pair if the key was found and null if not
+     */
+    public KVPair<K, V> remove(K key) {
+        if (key == null) {
+            return null;
+        }
+
+        while (true) {
+            SkipNode victim = ceiling(key);
+            if (victim == null || victim.element().key().compareTo(
+                key) != 0) {
+                return null;
+            }
+            if (markAndUnlink(victim)) {
+                return victim.element();
+            }
+        }
+    }
+
+
+    /**
+     * Removes the KVPair with the given key whose value is the given object.
+     *
+     * @param key
+     *            the key of the KVPair to be removed
+     * @param val
+     *            the exact value object of the KVPair to be removed
+     * @return returns the removed pair if found and null if not
+     */
+    public KVPair<K, V> remove(K key, V val) {
+        if (key == null || val == null) {
+            return null;
+        }
+
+        SkipNode current = ceiling(key);
+        while (current != null && current.element().key().compareTo(
+            key) == 0) {
+            if (current.element().value() == val && !current.isMarked()) {
+                return markAndUnlink(current) ? current.element() : null;
+            }
+            current = current.forward[0].getReference();
+        }
+        return null;
+    }
+
+
+    /**
+     * Logically deletes a node by marking its references top-down and then
+     * unlinks it.
+     *
+     * @param victim
+     *            the node to delete
+     * @return true if this thread's mark removed the node, false if another
+     *         thread removed it first
+     */
+    private boolean markAndUnlink(SkipNode victim) {
+        boolean[] marked = { false };
+        for (int i = victim.level; i >= 1; i--) {
+            SkipNode succ = victim.forward[i].get(marked);
+            while (!marked[0]) {
+                victim.forward[i].compareAndSet(succ, succ, false, true);
+                succ = victim.forward[i].get(marked);
+            }
+        }
+
+        // Whoever marks the bottom level owns the removal
+        SkipNode succ = victim.forward[0].get(marked);
+        while (true) {
+            if (marked[0]) {
+                return false;
+            }
+            if (victim.forward[0].compareAndSet(succ, succ, false, true)) {
+                size.decrementAndGet();
+                SkipNode[] preds = newPath();
+                SkipNode[] succs = newPath();
+                find(victim.element().key(), victim.seq, preds, succs);
+                return true;
+            }
+            succ = victim.forward[0].get(marked);
+        }
+    }
+
+
+    /**
+     * Writes the SkipList in a human readable format to an output sink.
+     * Meant for a quiescent list; nodes removed while it runs may or may not
+     * appear.
+     *
+     * @param out
+     *            Where to write the dump
+     */
+    public void dump(OutputSink out) {
+        out.println("SkipList dump:");
+
+        out.print("Node has depth ").print(topLevel.get() + 1).println(
+            " value null");
+
+        int count = 0;
+        for (KVPair<K, V> pair : this) {
+            // We know this is specifically for Point values in this application
+            Point p = (Point)pair.value();
+            out.print("Node has depth ").print(levelOf(pair) + 1).print(
+                " value ").print(pair.key().toString()).print(' ').print(p
+                    .getX()).print(' ').print(p.getY()).println();
+            count++;
+        }
+
+        out.print("SkipList size is: ").print(count).println();
+    }
+
+
+    /**
+     * Finds the level index of the live node holding the given pair
+     *
+     * @param pair
+     *            the pair to look up
+     * @return the node's level index, or 0 if it is no longer in the list
+     */
+    private int levelOf(KVPair<K, V> pair) {
+        SkipNode current = ceiling(pair.key());
+        while (current != null && current.element() != pair) {
+            current = current.forward[0].getReference();
+        }
+        return current == null ? 0 : current.level;
+    }
+
+    /**
+     * A node of the lock-free list. Every forward reference carries a mark
+     * bit that is set once the node has been logically deleted.
+     */
+    private class SkipNode {
+
+        // the KVPair to hold
+        private final KVPair<K, V> pair;
+        // orders nodes with equal keys, smaller is newer
+        private final long seq;
+        // An array of markable pointers to subsequent nodes
+        private final AtomicMarkableReference<SkipNode>[] forward;
+        // the level of the node
+        private final int level;
+
+        /**
+         * Initializes the node with its pair, sequence number and level
+         *
+         * @param tempPair
+         *            the KVPair to be inserted
+         * @param seq
+         *            the duplicate tie-breaker
+         * @param level
+         *            the highest level index of the node
+         */
+        @SuppressWarnings("unchecked")
+        public SkipNode(KVPair<K, V> tempPair, long seq, int level) {
+            pair = tempPair;
+            this.seq = seq;
+            this.level = level;
+            forward = (AtomicMarkableReference<SkipNode>[])Array.newInstance(
+                AtomicMarkableReference.class, level + 1);
+            for (int i = 0; i <= level; i++) {
+                forward[i] = new AtomicMarkableReference<SkipNode>(null,
+                    false);
+            }
+        }
+
+
+        /**
+         * Returns the KVPair stored in the node.
+         *
+         * @return the KVPair
+         */
+        public KVPair<K, V> element() {
+            return pair;
+        }
+
+
+        /**
+         * @return true if this node has been logically deleted
+         */
+        public boolean isMarked() {
+            return forward[0].isMarked();
+        }
+
+
+        /**
+         * Compares this node's position against (key, seq)
+         *
+         * @param key
+         *            the key to compare to
+         * @param otherSeq
+         *            the sequence number to compare to
+         * @return Standard values for compareTo
+         */
+        public int compareTo(K key, long otherSeq) {
+            int result = pair.key().compareTo(key);
+            if (result != 0) {
+                return result;
+            }
+            return Long.compare(seq, otherSeq);
+        }
+    }
+
+
+    private class SkipListIterator implements Iterator<KVPair<K, V>> {
+        private SkipNode next;
+
+        // End of the range, or null for no limit
+        private final K last;
+        private final boolean lastInclusive;
+
+        public SkipListIterator() {
+            this(head.forward[0].getReference(), null, true);
+        }
+
+
+        /**
+         * Creates an iterator over part of the list
+         *
+         * @param first
+         *            the first node to consider, or null for none
+         * @param last
+         *            the end of the range, or null for no limit
+         * @param lastInclusive
+         *            true to return keys equal to last
+         */
+        public SkipListIterator(
+            SkipNode first,
+            K last,
+            boolean lastInclusive) {
+            this.last = last;
+            this.lastInclusive = lastInclusive;
+            next = skipMarked(first);
+        }
+
+
+        /**
+         * Steps past any logically deleted nodes
+         *
+         * @param node
+         *            the node to start at
+         * @return the first live node at or after node, or null if there
+         *         is none or its key is past the end of the range
+         */
+        private SkipNode skipMarked(SkipNode node) {
+            while (node != null && node.isMarked()) {
+                node = node.forward[0].getReference();
+            }
+            if (node == null || last == null) {
+                return node;
+            }
+            int c = node.element().key().compareTo(last);
+            if (c > 0 || (c == 0 && !lastInclusive)) {
+                return null;
+            }
+            return node;
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+
+        @Override
+        public KVPair<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            KVPair<K, V> elem = next.element();
+            next = skipMarked(next.forward[0].getReference());
+            return elem;
+        }
+
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the live pairs in key order.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new SkipListIterator();
+    }
+}
@@ -0,0 +1,241 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import student.TestCase;
+
+/**
+ * This class tests the methods of the ConcurrentSkipList class, both on its
+ * own and with several threads sharing one list
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class ConcurrentSkipListTest extends TestCase {
+
+    private ConcurrentSkipList<String, Point> sl;
+    private Point p1;
+    private Point p2;
+    private Point p3;
+
+    /**
+     * Sets up the tests that follow. In general, used for initialization
+     */
+    public void setUp() {
+        sl = new ConcurrentSkipList<String, Point>();
+        p1 = new Point("P1", 1, 2);
+        p2 = new Point("P2", 3, 4);
+        p3 = new Point("P3", 5, 6);
+    }
+
+
+    /**
+     * Tests the randomLevel method stays within bounds
+     */
+    public void testRandomLevel() {
+        for (int i = 0; i < 1000; i++) {
+            int level = sl.randomLevel();
+            assertTrue(level >= 1);
+            assertTrue(level <= 32);
+        }
+    }
+
+
+    /**
+     * Tests insert, search and size, including duplicate keys
+     */
+    public void testInsertSearch() {
+        assertTrue(sl.search("p1").isEmpty());
+        assertTrue(sl.search(null).isEmpty());
+        sl.insert(null);
+        assertEquals(0, sl.size());
+
+        sl.insert(new KVPair<>("p2", p2));
+        sl.insert(new KVPair<>("p1", p1));
+        sl.insert(new KVPair<>("p2", p3));
+        assertEquals(3, sl.size());
+
+        assertEquals(1, sl.search("p1").size());
+        ArrayList<KVPair<String, Point>> dups = sl.search("p2");
+        assertEquals(2, dups.size());
+        // The newest duplicate comes first, as in SkipList
+        assertEquals(p3, dups.get(0).value());
+        assertEquals(p2, dups.get(1).value());
+        assertTrue(sl.search("p0").isEmpty());
+        assertTrue(sl.search("p3").isEmpty());
+    }
+
+
+    /**
+     * Tests both remove methods
+     */
+    public void testRemove() {
+        assertNull(sl.remove("p1"));
+        assertNull(sl.remove(null));
+        assertNull(sl.remove("p1", p1));
+        assertNull(sl.remove(null, p1));
+        assertNull(sl.remove("p1", null));
+
+        sl.insert(new KVPair<>("p1", p1));
+        sl.insert(new KVPair<>("p1", p2));
+        sl.insert(new KVPair<>("p3", p3));
+
+        assertNull(sl.remove("p3", p1));
+        assertEquals(p1, sl.remove("p1", p1).value());
+        assertNull(sl.remove("p1", p1));
+        assertEquals(2, sl.size());
+
+        assertEquals(p2, sl.remove("p1").value());
+        assertNull(sl.remove("p1"));
+        assertEquals(1, sl.size());
+        assertEquals(p3, sl.search("p3").get(0).value());
+    }
+
+
+    /**
+     * Tests building from sorted pairs keeps equal keys in arrival order
+     */
+    public void testBuildFromSorted() {
+        ArrayList<KVPair<String, Point>> pairs = new ArrayList<>();
+        pairs.add(new KVPair<>("a", p1));
+        pairs.add(new KVPair<>("b", p2));
+        pairs.add(new KVPair<>("b", p3));
+        sl.buildFromSorted(pairs.iterator());
+        assertEquals(3, sl.size());
+        assertEquals(p2, sl.search("b").get(0).value());
+        assertEquals(p3, sl.search("b").get(1).value());
+    }
+
+
+    /**
+     * Tests the iterator visits live pairs in key order
+     */
+    public void testIterator() {
+        Iterator<KVPair<String, Point>> it = sl.iterator();
+        assertFalse(it.hasNext());
+        Exception thrown = null;
+        try {
+            it.next();
+        }
+        catch (Exception e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+
+        sl.insert(new KVPair<>("c", p3));
+        sl.insert(new KVPair<>("a", p1));
+        sl.insert(new KVPair<>("b", p2));
+        sl.remove("b");
+
+        it = sl.iterator();
+        assertEquals("a", it.next().key());
+        assertEquals("c", it.next().key());
+        assertFalse(it.hasNext());
+    }
+
+
+    /**
+     * Tests range and prefix skip removed pairs and stop at the end of the
+     * range
+     */
+    public void testRange() {
+        String[] keys = { "b2", "a1", "b10", "c", "b1", "ab" };
+        for (int i = 0; i < keys.length; i++) {
+            sl.insert(new KVPair<>(keys[i], p1));
+        }
+        sl.remove("b10");
+
+        Iterator<KVPair<String, Point>> it = sl.range("b", "b2");
+        assertEquals("b1", it.next().key());
+        assertEquals("b2", it.next().key());
+        assertFalse(it.hasNext());
+
+        it = sl.range(null, "a1");
+        assertEquals("a1", it.next().key());
+        assertFalse(it.hasNext());
+        assertFalse(sl.range("c0", null).hasNext());
+
+        it = NameIndex.prefix(sl, "b");
+        assertEquals("b1", it.next().key());
+        assertEquals("b2", it.next().key());
+        assertFalse(it.hasNext());
+        assertFalse(NameIndex.prefix(sl, "b3").hasNext());
+
+        it = sl.range("a1", "b1", false);
+        assertEquals("a1", it.next().key());
+        assertEquals("ab", it.next().key());
+        assertFalse(it.hasNext());
+    }
+
+
+    /**
+     * Tests the dump method
+     */
+    public void testDump() {
+        sl.dump();
+        String output = systemOut().getHistory();
+        assertTrue(output.contains("SkipList dump:"));
+        assertTrue(output.contains("value null"));
+        assertTrue(output.contains("SkipList size is: 0"));
+
+        systemOut().clearHistory();
+        sl.insert(new KVPair<>("p1", p1));
+        sl.dump();
+        output = systemOut().getHistory();
+        assertTrue(output.contains("value p1 1 2"));
+        assertTrue(output.contains("SkipList size is: 1"));
+    }
+
+
+    /**
+     * Tests many threads inserting and removing at once. Each thread inserts
+     * its own names plus a shared duplicate key, then removes half of its
+     * own names again.
+     *
+     * @throws InterruptedException
+     *             If the test is interrupted while joining
+     */
+    public void testConcurrentInsertRemove() throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 2000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        String name = "t" + id + "_" + i;
+                        sl.insert(new KVPair<>(name, new Point(name, i, id)));
+                        sl.insert(new KVPair<>("shared", new Point("shared",
+                            i, id)));
+                    }
+                    for (int i = 0; i < perThread; i += 2) {
+                        sl.remove("t" + id + "_" + i);
+                        sl.remove("shared");
+                    }
+                }
+            };
+        }
+        for (int t = 0; t < threads; t++) {
+            workers[t].start();
+        }
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+        }
+
+        int expected = threads * perThread;
+        assertEquals(expected, sl.size());
+        assertEquals(threads * perThread / 2, sl.search("shared").size());
+
+        String last = null;
+        int count = 0;
+        for (KVPair<String, Point> pair : sl) {
+            if (last != null) {
+                assertTrue(last.compareTo(pair.key()) <= 0);
+            }
+            last = pair.key();
+            count++;
+        }
+        assertEquals(expected, count);
+        assertEquals(1, sl.search("t1_1").size());
+        assertTrue(sl.search("t1_0").isEmpty());
+    }
+}
@@ -62,6 +62,17 @@ public class Coordinate {
     }
 
 
+    /**
+     * Gets a hash code consistent with equals
+     * 
+     * @return The hash code
+     */
+    @Override
+    public int hashCode() {
+        return 31 * x + y;
+    }
+
+
     /**
      * String representation of the coordinate
      * 
@@ -1,19 +1,32 @@
 /**
  * A simple list implementation for storing unique Coordinate objects
  * 
+ * Each coordinate is packed into one long, x in the high half and y in the
+ * low half. The keys are kept in insertion order in one array, and an
+ * open-addressing hash table of positions in that array finds a key without
+ * scanning the list, so add and contains take constant time and store no
+ * Coordinate objects. appendDisjoint() skips the table and leaves it to be
+ * rebuilt on the next lookup.
+ * 
  * @author michaelo48
  * @version 03.07.2025
  */
 public class CoordinateList {
-    private Coordinate[] coordinates;
+    private long[] keys;
+    // Null until rebuilt after appendDisjoint
+    private int[] table;
     private int size;
     private static final int DEFAULT_CAPACITY = 10;
 
+    // Table slots per key kept at two or more
+    private static final int DEFAULT_TABLE_SIZE = 32;
+
     /**
      * Creates a new CoordinateList with default capacity
      */
     public CoordinateList() {
-        coordinates = new Coordinate[DEFAULT_CAPACITY];
+        keys = new long[DEFAULT_CAPACITY];
+        table = new int[DEFAULT_TABLE_SIZE];
         size = 0;
     }
 
@@ -46,22 +59,12 @@ public class CoordinateList {
      * @return True if added, false if already present
      */
     public boolean add(Coordinate coord) {
-        for (int i = 0; i < size; i++) {
-            if (coordinates[i].equals(coord)) {
-                return false;
-            }
-        }
-
-        if (size >= coordinates.length) {
-            expandCapacity();
-        }
-        coordinates[size++] = coord;
-        return true;
+        return add(coord.getX(), coord.getY());
     }
 
 
     /**
-     * Adds a coordinate by its x and y values
+     * Adds coordinates to the list if not already present
      * 
      * @param x
      *            The x-coordinate
@@ -70,7 +73,58 @@ public class CoordinateList {
      * @return True if added, false if already present
      */
     public boolean add(int x, int y) {
-        return add(new Coordinate(x, y));
+        long key = pack(x, y);
+        int slot = find(key);
+        if (table[slot] != 0) {
+            return false;
+        }
+
+        if (size >= keys.length) {
+            expandCapacity();
+        }
+        keys[size++] = key;
+        table[slot] = size;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return true;
+    }
+
+
+    /**
+     * Adds every coordinate of another list that is not already present, in
+     * the other list's order
+     * 
+     * @param other
+     *            The list to add from
+     */
+    public void addAll(CoordinateList other) {
+        for (int i = 0; i < other.size; i++) {
+            long key = other.keys[i];
+            add((int)(key >> 32), (int)key);
+        }
+    }
+
+
+    /**
+     * Appends every coordinate of another list without checking whether it
+     * is already present. The caller must know the lists share no
+     * coordinate; the hash table is rebuilt only when a coordinate is next
+     * added or looked up.
+     * 
+     * @param other
+     *            The list to append, sharing no coordinate with this one
+     */
+    public void appendDisjoint(CoordinateList other) {
+        if (size + other.size > keys.length) {
+            long[] newArray = new long[Math.max(keys.length * 2, size
+                + other.size)];
+            System.arraycopy(keys, 0, newArray, 0, size);
+            keys = newArray;
+        }
+        System.arraycopy(other.keys, 0, keys, size, other.size);
+        size += other.size;
+        table = null;
     }
 
 
@@ -78,11 +132,72 @@ public class CoordinateList {
      * Expands the capacity of the list
      */
     private void expandCapacity() {
-        Coordinate[] newArray = new Coordinate[coordinates.length * 2];
+        long[] newArray = new long[keys.length * 2];
+        System.arraycopy(keys, 0, newArray, 0, size);
+        keys = newArray;
+    }
+
+
+    /**
+     * Doubles the hash table and reinserts every key
+     */
+    private void rehash() {
+        table = new int[table.length * 2];
         for (int i = 0; i < size; i++) {
-            newArray[i] = coordinates[i];
+            table[find(keys[i])] = i + 1;
         }
-        coordinates = newArray;
+    }
+
+
+    /**
+     * Builds the hash table for the keys, at least twice as many slots as
+     * keys
+     */
+    private void buildTable() {
+        int length = DEFAULT_TABLE_SIZE;
+        while (length < size * 2) {
+            length *= 2;
+        }
+        table = new int[length];
+        for (int i = 0; i < size; i++) {
+            table[find(keys[i])] = i + 1;
+        }
+    }
+
+
+    /**
+     * Finds the table slot holding a key, or the empty slot where it would
+     * go. Slots hold a position in keys plus one, and 0 marks an empty slot.
+     * 
+     * @param key
+     *            The packed coordinate
+     * @return The slot index
+     */
+    private int find(long key) {
+        if (table == null) {
+            buildTable();
+        }
+        int mask = table.length - 1;
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        int slot = (int)(mixed ^ (mixed >>> 32)) & mask;
+        while (table[slot] != 0 && keys[table[slot] - 1] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+
+    /**
+     * Packs a coordinate into one key
+     * 
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @return The key
+     */
+    private static long pack(int x, int y) {
+        return ((long)x << 32) | (y & 0xFFFFFFFFL);
     }
 
 
@@ -94,10 +209,46 @@ public class CoordinateList {
      * @return The coordinate at that index
      */
     public Coordinate get(int index) {
+        return new Coordinate(getX(index), getY(index));
+    }
+
+
+    /**
+     * Gets the x-coordinate at the specified index
+     * 
+     * @param index
+     *            The index
+     * @return The x-coordinate
+     */
+    public int getX(int index) {
+        checkIndex(index);
+        return (int)(keys[index] >> 32);
+    }
+
+
+    /**
+     * Gets the y-coordinate at the specified index
+     * 
+     * @param index
+     *            The index
+     * @return The y-coordinate
+     */
+    public int getY(int index) {
+        checkIndex(index);
+        return (int)keys[index];
+    }
+
+
+    /**
+     * Checks an index is inside the list
+     * 
+     * @param index
+     *            The index
+     */
+    private void checkIndex(int index) {
         if (index < 0 || index >= size) {
             throw new IndexOutOfBoundsException("Index: " + index);
         }
-        return coordinates[index];
     }
 
 
@@ -109,12 +260,7 @@ public class CoordinateList {
      * @return True if found, false otherwise
      */
     public boolean contains(Coordinate coord) {
-        for (int i = 0; i < size; i++) {
-            if (coordinates[i].equals(coord)) {
-                return true;
-            }
-        }
-        return false;
+        return contains(coord.getX(), coord.getY());
     }
 
 
@@ -128,6 +274,7 @@ public class CoordinateList {
      * @return True if found, false otherwise
      */
     public boolean contains(int x, int y) {
-        return contains(new Coordinate(x, y));
+        int slot = find(pack(x, y));
+        return table[slot] != 0;
     }
 }
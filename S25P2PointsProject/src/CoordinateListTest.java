@@ -278,4 +278,68 @@ public class CoordinateListTest extends TestCase {
         list.add(1, 1);
         assertEquals(2, list.size());
     }
+
+
+    /**
+     * Tests addAll keeps order and skips coordinates already present
+     */
+    public void testAddAll() {
+        list.add(1, 1);
+        CoordinateList other = new CoordinateList();
+        other.add(2, 2);
+        other.add(1, 1);
+        other.add(3, 3);
+        list.addAll(other);
+        assertEquals(3, list.size());
+        assertEquals(2, list.get(1).getX());
+        assertEquals(3, list.get(2).getX());
+        assertTrue(list.contains(3, 3));
+    }
+
+
+    /**
+     * Tests appendDisjoint keeps order and that lookups and adds still work
+     * once the table is rebuilt
+     */
+    public void testAppendDisjoint() {
+        list.add(1, 1);
+        CoordinateList other = new CoordinateList();
+        for (int i = 2; i < 40; i++) {
+            other.add(i, -i);
+        }
+        list.appendDisjoint(other);
+        list.appendDisjoint(new CoordinateList());
+        assertEquals(39, list.size());
+        assertEquals(1, list.getX(0));
+        assertEquals(-39, list.getY(38));
+        assertTrue(list.contains(20, -20));
+        assertFalse(list.contains(20, 20));
+
+        CoordinateList fresh = new CoordinateList();
+        fresh.appendDisjoint(list);
+        assertFalse(fresh.add(5, -5));
+        assertTrue(fresh.add(5, 5));
+        assertEquals(40, fresh.size());
+        assertTrue(fresh.contains(1, 1));
+    }
+
+
+    /**
+     * Tests many coordinates, including negative ones, keep their order and
+     * are found again after the table grows
+     */
+    public void testManyCoordinates() {
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(list.add(i % 100 - 50, -i));
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertFalse(list.add(new Coordinate(i % 100 - 50, -i)));
+            assertEquals(i % 100 - 50, list.getX(i));
+            assertEquals(-i, list.getY(i));
+        }
+        assertEquals(5000, list.size());
+        assertTrue(list.contains(-50, -4900));
+        assertFalse(list.contains(-50, 4900));
+        assertTrue(list.get(4999).equals(new Coordinate(49, -4999)));
+    }
 }
@@ -99,4 +99,15 @@ public class CoordinateTest extends TestCase {
         assertEquals(0, zeroCoord.getX());
         assertEquals(0, zeroCoord.getY());
     }
+
+
+    /**
+     * Tests equal coordinates have equal hash codes
+     */
+    public void testHashCode() {
+        assertEquals(new Coordinate(3, 9).hashCode(), new Coordinate(3, 9)
+            .hashCode());
+        assertFalse(new Coordinate(3, 9).hashCode() == new Coordinate(9, 3)
+            .hashCode());
+    }
 }
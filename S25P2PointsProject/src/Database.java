@@ -1,28 +1,277 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * This class is responsible for interfacing between the command processor and
  * the SkipList and QuadTree.
  * 
+ * In thread-safe mode the name index is a lock-free ConcurrentSkipList and
+ * the QuadTree locks per root quadrant, so any number of threads can issue
+ * commands against one Database. Each insert or remove also holds a lock
+ * for its point's root quadrant and then one for its name while it changes
+ * both indexes, so the two always hold the same points once it returns.
+ * Each command's output lines are printed together.
+ * 
+ * All output goes through an OutputSink. The default one flushes to
+ * System.out after every command; a batch sink can be passed in instead so a
+ * whole command file is written with a few large writes.
+ * 
+ * The indexes can also be passed in directly, for example a LinearQuadTree
+ * in place of the pointer-based QuadTree.
+ * 
+ * A WriteAheadLog can be attached with recover(), which first replays the
+ * log into the indexes. From then on every insert, and every remove that
+ * finds a point, is appended to the log before the command's output is
+ * written, so the log always holds what a restarted process needs to come
+ * back to the same state. Each change is applied and recorded under one
+ * lock, so even with several threads the log lists the changes in the
+ * order the indexes saw them; the sync the log's policy asks for happens
+ * after the lock is released.
+ * 
+ * snapshot() saves every point to a binary Snapshot and load() reads one
+ * back into an empty database, building both indexes in bulk. A snapshot
+ * taken with a log attached remembers how much of the log it covers, so
+ * recovering after load() replays only the records written since.
+ * 
  * @author michaelo48
  * @version 03.07.2025
  */
 public class Database {
 
     // The SkipList organizes points by name
-    private SkipList<String, Point> skipList;
+    private NameIndex<String, Point> skipList;
 
     // The QuadTree organizes points by position
-    private QuadTree quadTree;
+    private SpatialIndex quadTree;
+
+    // Where command output is written
+    private final OutputSink out;
+
+    // World boundaries, taken from the QuadTree
+    private final int worldSize;
+
+    // Where inserts and removes are logged, or null if they are not
+    private WriteAheadLog log;
+
+    // Held while a change is applied and recorded in the log; batches
+    // hold it whether or not a log is attached
+    private final Object logLock = new Object();
 
-    // World boundaries
-    private final int worldSize = 1024;
+    // Number of name locks, a power of two
+    private static final int NAME_STRIPES = 16;
+
+    // One lock per root quadrant and NAME_STRIPES locks picked by name,
+    // or null when the database is not shared between threads. A change
+    // to both indexes takes its quadrant's lock before its name's lock
+    private final ReentrantLock[] quadrantLocks;
+    private final ReentrantLock[] nameLocks;
+
+    // Log bytes already covered by the snapshot this database was loaded
+    // from, or 0
+    private long logOffset;
 
     /**
      * The constructor for this class initializes both a SkipList
      * and a QuadTree.
      */
     public Database() {
-        skipList = new SkipList<String, Point>();
-        quadTree = new QuadTree();
+        this(false);
+    }
+
+
+    /**
+     * Creates a database that can optionally be shared between threads.
+     * 
+     * @param threadSafe
+     *            True to use the concurrent SkipList and QuadTree
+     */
+    public Database(boolean threadSafe) {
+        this(new OutputSink(), threadSafe);
+    }
+
+
+    /**
+     * Creates a database that writes its output to the given sink.
+     * 
+     * @param out
+     *            Where command output is written
+     * @param threadSafe
+     *            True to use the concurrent SkipList and QuadTree
+     */
+    public Database(OutputSink out, boolean threadSafe) {
+        this(out, threadSafe, QuadTree.DEFAULT_WORLD_SIZE,
+            QuadTree.DEFAULT_BUCKET_CAPACITY);
+    }
+
+
+    /**
+     * Creates a database with its own world size and QuadTree bucket
+     * capacity.
+     * 
+     * @param out
+     *            Where command output is written
+     * @param threadSafe
+     *            True to use the concurrent SkipList and QuadTree
+     * @param worldSize
+     *            The side of the world, a power of two up to 2^30
+     * @param bucketCapacity
+     *            Most points a QuadTree leaf holds before it splits
+     * @throws IllegalArgumentException
+     *             If either value is out of range
+     */
+    public Database(
+        OutputSink out,
+        boolean threadSafe,
+        int worldSize,
+        int bucketCapacity) {
+        this.out = out;
+        if (threadSafe) {
+            skipList = new ConcurrentSkipList<String, Point>();
+            quadTree = new ConcurrentQuadTree(worldSize, bucketCapacity);
+            quadrantLocks = newLocks(4);
+            nameLocks = newLocks(NAME_STRIPES);
+        }
+        else {
+            skipList = new SkipList<String, Point>();
+            quadTree = new QuadTree(worldSize, bucketCapacity);
+            quadrantLocks = null;
+            nameLocks = null;
+        }
+        this.worldSize = worldSize;
+    }
+
+
+    /**
+     * Creates a database over the given indexes. Both should start empty,
+     * and both must be thread-safe if the database is shared between
+     * threads.
+     * 
+     * @param out
+     *            Where command output is written
+     * @param names
+     *            The index that organizes points by name
+     * @param locations
+     *            The index that organizes points by position
+     */
+    public Database(
+        OutputSink out,
+        NameIndex<String, Point> names,
+        SpatialIndex locations) {
+        this.out = out;
+        skipList = names;
+        quadTree = locations;
+        worldSize = locations.getWorldSize();
+        // The indexes may be shared, so keep changes to them atomic
+        quadrantLocks = newLocks(4);
+        nameLocks = newLocks(NAME_STRIPES);
+    }
+
+
+    /**
+     * Creates an array of locks
+     * 
+     * @param count
+     *            How many locks
+     * @return The locks
+     */
+    private static ReentrantLock[] newLocks(int count) {
+        ReentrantLock[] locks = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+
+    /**
+     * Takes the lock for the root quadrant holding a location
+     * 
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @return The lock now held, or null if the database is not shared
+     */
+    private ReentrantLock lockQuadrant(int x, int y) {
+        if (quadrantLocks == null) {
+            return null;
+        }
+        int half = worldSize / 2;
+        int index = (x < half ? 0 : 1) + (y < half ? 0 : 2);
+        ReentrantLock lock = quadrantLocks[index];
+        lock.lock();
+        return lock;
+    }
+
+
+    /**
+     * Takes the lock for a name
+     * 
+     * @param name
+     *            The name
+     * @return The lock now held, or null if the database is not shared
+     */
+    private ReentrantLock lockName(String name) {
+        if (nameLocks == null) {
+            return null;
+        }
+        int hash = name.hashCode();
+        ReentrantLock lock = nameLocks[(hash ^ (hash >>> 16))
+            & (NAME_STRIPES - 1)];
+        lock.lock();
+        return lock;
+    }
+
+
+    /**
+     * Releases a lock taken by lockQuadrant or lockName
+     * 
+     * @param lock
+     *            The lock, or null
+     */
+    private static void unlock(ReentrantLock lock) {
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Takes every quadrant and name lock, in order, so a batch sees no
+     * single change half done
+     */
+    private void lockAll() {
+        if (quadrantLocks == null) {
+            return;
+        }
+        for (int i = 0; i < quadrantLocks.length; i++) {
+            quadrantLocks[i].lock();
+        }
+        for (int i = 0; i < nameLocks.length; i++) {
+            nameLocks[i].lock();
+        }
+    }
+
+
+    /**
+     * Releases every lock taken by lockAll
+     */
+    private void unlockAll() {
+        if (quadrantLocks == null) {
+            return;
+        }
+        for (int i = nameLocks.length - 1; i >= 0; i--) {
+            nameLocks[i].unlock();
+        }
+        for (int i = quadrantLocks.length - 1; i >= 0; i--) {
+            quadrantLocks[i].unlock();
+        }
     }
 
 
@@ -39,18 +288,566 @@ public class Database {
     public void insert(String name, int x, int y) {
         // Validate coordinates
         if (x < 0 || y < 0 || x >= worldSize || y >= worldSize) {
-            System.out.println("Point rejected: " + name + " " + x + " " + y);
+            synchronized (out) {
+                printPoint("Point rejected: ", name, x, y);
+                out.endCommand();
+            }
             return;
         }
 
-        // Create the point
         Point point = new Point(name, x, y);
+        if (log == null) {
+            store(point);
+        }
+        else {
+            long sequence;
+            synchronized (logLock) {
+                store(point);
+                sequence = log.recordInsert(name, x, y);
+            }
+            log.syncFor(sequence);
+        }
+
+        synchronized (out) {
+            printPoint("Point inserted: ", name, x, y);
+            out.endCommand();
+        }
+    }
+
+
+    /**
+     * Inserts a batch of points, printing the same messages as calling
+     * insert on each point in order. The QuadTree side is bulk loaded, and
+     * the batch is sorted by name and merged into the SkipList in one pass.
+     * The points are searchable, and logged with one commit, before any
+     * message is printed.
+     * 
+     * @param points
+     *            The points to insert, in order
+     */
+    public void bulkInsert(Point[] points) {
+        Point[] valid = new Point[points.length];
+        int count = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (inWorld(points[i].getX(), points[i].getY())) {
+                valid[count++] = points[i];
+            }
+        }
+        Point[] batch = new Point[count];
+        System.arraycopy(valid, 0, batch, 0, count);
+
+        synchronized (logLock) {
+            lockAll();
+            try {
+                load(batch);
+            }
+            finally {
+                unlockAll();
+            }
+            if (log != null) {
+                for (int i = 0; i < count; i++) {
+                    log.recordInsert(batch[i].getName(), batch[i].getX(),
+                        batch[i].getY());
+                }
+            }
+        }
+        if (log != null) {
+            log.commit();
+        }
+
+        synchronized (out) {
+            for (int i = 0; i < points.length; i++) {
+                Point p = points[i];
+                if (inWorld(p.getX(), p.getY())) {
+                    printPoint("Point inserted: ", p.getName(), p.getX(), p
+                        .getY());
+                }
+                else {
+                    printPoint("Point rejected: ", p.getName(), p.getX(), p
+                        .getY());
+                }
+            }
+            out.endCommand();
+        }
+    }
+
+
+    /**
+     * Runs a list of commands, printing the same output as running them
+     * one by one. Each run of consecutive inserts is bulk loaded: the
+     * QuadTree takes the run in Morton order in one walk down the tree and
+     * the SkipList takes it sorted by name in one forward pass. Each run of
+     * consecutive removes of one kind is applied to both indexes sorted the
+     * same way. Other commands run on their own.
+     * 
+     * @param commands
+     *            The commands, in order
+     */
+    public void applyBatch(List<Command> commands) {
+        int i = 0;
+        while (i < commands.size()) {
+            int type = commands.get(i).getType();
+            int end = i + 1;
+            if (type == Command.INSERT || type == Command.REMOVE_NAME
+                || type == Command.REMOVE_AT) {
+                while (end < commands.size() && commands.get(end)
+                    .getType() == type) {
+                    end++;
+                }
+            }
+
+            if (end - i == 1) {
+                commands.get(i).applyTo(this);
+            }
+            else if (type == Command.INSERT) {
+                Point[] points = new Point[end - i];
+                for (int j = i; j < end; j++) {
+                    Command c = commands.get(j);
+                    points[j - i] = new Point(c.getName(), c.getX(), c
+                        .getY());
+                }
+                bulkInsert(points);
+            }
+            else if (type == Command.REMOVE_NAME) {
+                removeNamed(commands.subList(i, end));
+            }
+            else {
+                removeAt(commands.subList(i, end));
+            }
+            i = end;
+        }
+    }
+
+
+    /**
+     * Removes a run of points by name. The SkipList removes go in name
+     * order, so equal names keep their order, and the QuadTree removes in
+     * Morton order; neither order changes which point a command takes.
+     * 
+     * @param run
+     *            The remove commands, in order
+     */
+    private void removeNamed(List<Command> run) {
+        int n = run.size();
+        Integer[] byName = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byName[i] = i;
+        }
+        Arrays.sort(byName, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return run.get(a).getName().compareTo(run.get(b).getName());
+            }
+        });
+
+        Point[] removed = new Point[n];
+        synchronized (logLock) {
+            lockAll();
+            try {
+                for (int i = 0; i < n; i++) {
+                    KVPair<String, Point> pair = skipList.remove(run.get(
+                        byName[i]).getName());
+                    if (pair != null) {
+                        removed[byName[i]] = pair.value();
+                    }
+                }
+                int[] byLocation = mortonOrder(removed);
+                for (int i = 0; i < byLocation.length; i++) {
+                    quadTree.remove(removed[byLocation[i]]);
+                }
+            }
+            finally {
+                unlockAll();
+            }
+            for (int i = 0; i < n && log != null; i++) {
+                if (removed[i] != null) {
+                    log.recordRemove(run.get(i).getName());
+                }
+            }
+        }
+        if (log != null) {
+            log.commit();
+        }
+
+        synchronized (out) {
+            for (int i = 0; i < n; i++) {
+                String name = run.get(i).getName();
+                if (removed[i] == null) {
+                    out.print("Point not removed: ").println(name);
+                    continue;
+                }
+                printPoint("Point removed: ", name, removed[i].getX(),
+                    removed[i].getY());
+            }
+            out.endCommand();
+        }
+    }
+
+
+    /**
+     * Removes a run of points by location. The QuadTree removes go in
+     * Morton order, so equal locations keep their order, and the SkipList
+     * removes in name order; neither order changes which point a command
+     * takes.
+     * 
+     * @param run
+     *            The remove commands, in order
+     */
+    private void removeAt(List<Command> run) {
+        int n = run.size();
+        Point[] targets = new Point[n];
+        for (int i = 0; i < n; i++) {
+            Command c = run.get(i);
+            if (inWorld(c.getX(), c.getY())) {
+                // Only the location is used to order the removes
+                targets[i] = new Point(null, c.getX(), c.getY());
+            }
+        }
+
+        Point[] removed = new Point[n];
+        synchronized (logLock) {
+            lockAll();
+            try {
+                int[] byLocation = mortonOrder(targets);
+                for (int i = 0; i < byLocation.length; i++) {
+                    Point target = targets[byLocation[i]];
+                    removed[byLocation[i]] = quadTree.remove(target.getX(),
+                        target.getY());
+                }
+                Point[] byName = removed.clone();
+                Arrays.sort(byName, new Comparator<Point>() {
+                    public int compare(Point a, Point b) {
+                        if (a == null || b == null) {
+                            return Boolean.compare(a == null, b == null);
+                        }
+                        return a.getName().compareTo(b.getName());
+                    }
+                });
+                for (int i = 0; i < n && byName[i] != null; i++) {
+                    skipList.remove(byName[i].getName(), byName[i]);
+                }
+            }
+            finally {
+                unlockAll();
+            }
+            for (int i = 0; i < n && log != null; i++) {
+                if (removed[i] != null) {
+                    log.recordRemove(run.get(i).getX(), run.get(i).getY());
+                }
+            }
+        }
+        if (log != null) {
+            log.commit();
+        }
+
+        synchronized (out) {
+            for (int i = 0; i < n; i++) {
+                int x = run.get(i).getX();
+                int y = run.get(i).getY();
+                if (targets[i] == null) {
+                    out.print("Point rejected: ").print(x).print(' ').print(y)
+                        .println();
+                }
+                else if (removed[i] == null) {
+                    out.print("Point not found: ").print(x).print(' ').print(
+                        y).println();
+                }
+                else {
+                    printPoint("Point removed: ", removed[i].getName(), x, y);
+                }
+            }
+            out.endCommand();
+        }
+    }
+
+
+    /**
+     * Stably orders the points in an array by the Morton keys of their
+     * locations, leaving out nulls
+     * 
+     * @param points
+     *            The points, with nulls for gaps
+     * @return The indexes of the points in Morton order
+     */
+    private static int[] mortonOrder(Point[] points) {
+        int count = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (points[i] != null) {
+                count++;
+            }
+        }
+        long[] keys = new long[count];
+        int[] index = new int[count];
+        count = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (points[i] != null) {
+                keys[count] = Morton.encode(points[i].getX(), points[i]
+                    .getY());
+                index[count++] = i;
+            }
+        }
+        int[] order = Morton.order(keys);
+        for (int i = 0; i < count; i++) {
+            order[i] = index[order[i]];
+        }
+        return order;
+    }
+
+
+    /**
+     * Replays a write-ahead log into this database and then logs every
+     * later insert and remove to it. Records are applied without output;
+     * leading inserts into an empty database are bulk loaded. Call before
+     * the database is shared between threads.
+     * 
+     * @param wal
+     *            The log to replay and append to
+     * @return The number of records replayed
+     */
+    public int recover(WriteAheadLog wal) {
+        int replayed = wal.replay(this, logOffset);
+        log = wal;
+        return replayed;
+    }
+
+
+    /**
+     * Saves every point to a snapshot file, replacing any earlier one. If a
+     * log is attached it is forced to disk first and the snapshot records
+     * how much of it is covered. Nothing may change the database while the
+     * snapshot is taken.
+     * 
+     * @param file
+     *            The snapshot file
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    public void snapshot(Path file) throws IOException {
+        long covered = 0;
+        if (log != null) {
+            covered = log.checkpoint();
+        }
+        PointList points = quadTree.regionsearch(0, 0, worldSize, worldSize)
+            .getPoints();
+        Snapshot.write(file, points, skipList, worldSize, covered);
+    }
+
+
+    /**
+     * Loads a snapshot into this database, which must be empty. The
+     * QuadTree is bulk loaded in the saved tree order and the SkipList is
+     * built in the saved name order, so the result matches the database
+     * that was saved. Call recover() afterwards to replay the log tail.
+     * 
+     * @param file
+     *            The snapshot file
+     * @throws IOException
+     *             If the file cannot be read, is damaged, or holds a world
+     *             larger than this one
+     * @throws IllegalStateException
+     *             If the database is not empty or already has a log
+     */
+    public void load(Path file) throws IOException {
+        if (!isEmpty() || log != null) {
+            throw new IllegalStateException("Can only load into an empty "
+                + "database without a log");
+        }
+        Snapshot image = Snapshot.read(file);
+        if (image.getWorldSize() > worldSize) {
+            throw new IOException("Snapshot world " + image.getWorldSize()
+                + " is larger than " + worldSize);
+        }
+
+        final Point[] points = image.getPoints();
+        final int[] byName = image.getByName();
+        quadTree.bulkLoad(points);
+        skipList.buildFromSorted(new Iterator<KVPair<String, Point>>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < byName.length;
+            }
+
+
+            public KVPair<String, Point> next() {
+                Point p = points[byName[next++]];
+                return new KVPair<>(p.getName(), p);
+            }
+        });
+        logOffset = image.getLogOffset();
+    }
+
+
+    /**
+     * Gets the sink command output is written to
+     * 
+     * @return The output sink
+     */
+    OutputSink getOutput() {
+        return out;
+    }
+
+
+    /**
+     * Checks whether the database holds no points
+     * 
+     * @return True if there are no points
+     */
+    boolean isEmpty() {
+        return skipList.size() == 0;
+    }
+
+
+    /**
+     * Bulk loads points into both indexes without output or logging.
+     * Points outside the world are skipped.
+     * 
+     * @param points
+     *            The points, in insertion order
+     */
+    void load(Point[] points) {
+        Point[] batch = points;
+        int count = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (inWorld(points[i].getX(), points[i].getY())) {
+                count++;
+            }
+        }
+        if (count < points.length) {
+            batch = new Point[count];
+            count = 0;
+            for (int i = 0; i < points.length; i++) {
+                if (inWorld(points[i].getX(), points[i].getY())) {
+                    batch[count++] = points[i];
+                }
+            }
+        }
+        quadTree.bulkLoad(batch);
+
+        ArrayList<KVPair<String, Point>> pairs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pairs.add(new KVPair<>(batch[i].getName(), batch[i]));
+        }
+        skipList.insertAll(pairs);
+    }
+
+
+    /**
+     * Inserts a point into both indexes without output or logging. A point
+     * outside the world is skipped.
+     * 
+     * @param point
+     *            The point
+     */
+    void store(Point point) {
+        if (!inWorld(point.getX(), point.getY())) {
+            return;
+        }
+        ReentrantLock quadrant = lockQuadrant(point.getX(), point.getY());
+        ReentrantLock name = lockName(point.getName());
+        try {
+            skipList.insert(new KVPair<>(point.getName(), point));
+            quadTree.insert(point);
+        }
+        finally {
+            unlock(name);
+            unlock(quadrant);
+        }
+    }
+
+
+    /**
+     * Removes the first point at a location from both indexes without
+     * output or logging
+     * 
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @return The removed point, or null if there is none
+     */
+    Point removeAt(int x, int y) {
+        ReentrantLock quadrant = lockQuadrant(x, y);
+        try {
+            Point removed = quadTree.remove(x, y);
+            if (removed != null) {
+                // Go straight to the removed point's name rather than
+                // scanning the whole list
+                ReentrantLock name = lockName(removed.getName());
+                try {
+                    skipList.remove(removed.getName(), removed);
+                }
+                finally {
+                    unlock(name);
+                }
+            }
+            return removed;
+        }
+        finally {
+            unlock(quadrant);
+        }
+    }
+
+
+    /**
+     * Removes a point by name from both indexes without output or logging
+     * 
+     * @param name
+     *            The name
+     * @return The removed point, or null if there is none
+     */
+    Point removeNamed(String name) {
+        if (quadrantLocks == null) {
+            KVPair<String, Point> removed = skipList.remove(name);
+            if (removed == null) {
+                return null;
+            }
+            // Descend straight to the point instead of taking whichever
+            // point shares its location
+            quadTree.remove(removed.value());
+            return removed.value();
+        }
+
+        // The quadrant lock comes first, so find the point before locking
+        // and start over if another thread changed the name in between
+        while (true) {
+            ArrayList<KVPair<String, Point>> found = skipList.search(name);
+            if (found.isEmpty()) {
+                return null;
+            }
+            Point point = found.get(0).value();
+            ReentrantLock quadrant = lockQuadrant(point.getX(), point
+                .getY());
+            ReentrantLock named = lockName(name);
+            try {
+                found = skipList.search(name);
+                if (found.isEmpty()) {
+                    return null;
+                }
+                if (found.get(0).value() == point) {
+                    skipList.remove(name, point);
+                    quadTree.remove(point);
+                    return point;
+                }
+            }
+            finally {
+                unlock(named);
+                unlock(quadrant);
+            }
+        }
+    }
 
-        // Insert into both data structures
-        skipList.insert(new KVPair<>(name, point));
-        quadTree.insert(point);
 
-        System.out.println("Point inserted: " + name + " " + x + " " + y);
+    /**
+     * Checks if coordinates fall inside the world
+     * 
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @return True if the location is inside the world
+     */
+    private boolean inWorld(int x, int y) {
+        return x >= 0 && y >= 0 && x < worldSize && y < worldSize;
     }
 
 
@@ -61,20 +858,35 @@ public class Database {
      *            The name of the point to remove
      */
     public void remove(String name) {
-        // Remove from the SkipList
-        KVPair<String, Point> removed = skipList.remove(name);
+        Point point;
+        long sequence = 0;
+        if (log == null) {
+            point = removeNamed(name);
+        }
+        else {
+            synchronized (logLock) {
+                point = removeNamed(name);
+                if (point != null) {
+                    sequence = log.recordRemove(name);
+                }
+            }
+        }
 
-        if (removed == null) {
-            System.out.println("Point not removed: " + name);
+        if (point == null) {
+            synchronized (out) {
+                out.print("Point not removed: ").println(name);
+                out.endCommand();
+            }
             return;
         }
+        if (sequence > 0) {
+            log.syncFor(sequence);
+        }
 
-        // Also remove from the QuadTree
-        Point point = removed.value();
-        quadTree.remove(point.getX(), point.getY());
-
-        System.out.println("Point removed: " + name + " " + point.getX() + " "
-            + point.getY());
+        synchronized (out) {
+            printPoint("Point removed: ", name, point.getX(), point.getY());
+            out.endCommand();
+        }
     }
 
 
@@ -88,29 +900,45 @@ public class Database {
      */
     public void remove(int x, int y) {
         // Validate coordinates
-        if (x < 0 || y < 0) {
-            System.out.println("Point rejected: " + x + " " + y);
+        if (x < 0 || y < 0 || x >= worldSize || y >= worldSize) {
+            synchronized (out) {
+                out.print("Point rejected: ").print(x).print(' ').print(y)
+                    .println();
+                out.endCommand();
+            }
             return;
         }
 
-        if (x >= worldSize || y >= worldSize) {
-            System.out.println("Point rejected: " + x + " " + y);
-            return;
+        Point removed;
+        long sequence = 0;
+        if (log == null) {
+            removed = removeAt(x, y);
+        }
+        else {
+            synchronized (logLock) {
+                removed = removeAt(x, y);
+                if (removed != null) {
+                    sequence = log.recordRemove(x, y);
+                }
+            }
         }
-
-        // Remove from the QuadTree
-        Point removed = quadTree.remove(x, y);
 
         if (removed == null) {
-            System.out.println("Point not found: " + x + " " + y);
+            synchronized (out) {
+                out.print("Point not found: ").print(x).print(' ').print(y)
+                    .println();
+                out.endCommand();
+            }
             return;
         }
+        if (sequence > 0) {
+            log.syncFor(sequence);
+        }
 
-        // Also remove from the SkipList
-        skipList.removeByValue(removed);
-
-        System.out.println("Point removed: " + removed.getName() + " " + x + " "
-            + y);
+        synchronized (out) {
+            printPoint("Point removed: ", removed.getName(), x, y);
+            out.endCommand();
+        }
     }
 
 
@@ -129,24 +957,66 @@ public class Database {
     public void regionsearch(int x, int y, int w, int h) {
         // Validate width and height
         if (w <= 0 || h <= 0) {
-            System.out.println("Rectangle rejected: " + x + " " + y + " " + w
-                + " " + h);
+            synchronized (out) {
+                printRectangle("Rectangle rejected: ", x, y, w, h);
+                out.println();
+                out.endCommand();
+            }
             return;
         }
 
         // Perform search using QuadTree
         RegionSearchResult result = quadTree.regionsearch(x, y, w, h);
 
-        System.out.println("Points intersecting region " + x + " " + y + " " + w
-            + " " + h + ":");
-        PointList points = result.getPoints();
-        for (int i = 0; i < points.size(); i++) {
-            Point p = points.get(i);
-            System.out.println("Point found " + p.getName() + " " + p.getX()
-                + " " + p.getY());
+        synchronized (out) {
+            printRectangle("Points intersecting region ", x, y, w, h);
+            out.println(":");
+            PointList points = result.getPoints();
+            for (int i = 0; i < points.size(); i++) {
+                Point p = points.get(i);
+                printPoint("Point found ", p.getName(), p.getX(), p.getY());
+            }
+            out.print(result.getNodesVisited()).println(
+                " quadtree nodes visited");
+            out.endCommand();
+        }
+    }
+
+
+    /**
+     * Finds the k points closest to a location
+     * 
+     * @param x
+     *            The x-coordinate of the location
+     * @param y
+     *            The y-coordinate of the location
+     * @param k
+     *            The number of points wanted
+     */
+    public void nearest(int x, int y, int k) {
+        if (k <= 0) {
+            synchronized (out) {
+                out.print("Nearest rejected: ").print(x).print(' ').print(y)
+                    .print(' ').print(k).println();
+                out.endCommand();
+            }
+            return;
+        }
+
+        RegionSearchResult result = quadTree.nearest(x, y, k);
+
+        synchronized (out) {
+            out.print("Nearest ").print(k).print(" points to ").print(x)
+                .print(' ').print(y).println(":");
+            PointList points = result.getPoints();
+            for (int i = 0; i < points.size(); i++) {
+                Point p = points.get(i);
+                printPoint("Point found ", p.getName(), p.getX(), p.getY());
+            }
+            out.print(result.getNodesVisited()).println(
+                " quadtree nodes visited");
+            out.endCommand();
         }
-        System.out.println(result.getNodesVisited()
-            + " quadtree nodes visited");
     }
 
 
@@ -156,11 +1026,14 @@ public class Database {
     public void duplicates() {
         DuplicatesResult result = quadTree.findDuplicates();
 
-        System.out.println("Duplicate points:");
-        CoordinateList duplicates = result.getDuplicates();
-        for (int i = 0; i < duplicates.size(); i++) {
-            Coordinate coord = duplicates.get(i);
-            System.out.println(coord.getX() + " " + coord.getY());
+        synchronized (out) {
+            out.println("Duplicate points:");
+            CoordinateList duplicates = result.getDuplicates();
+            for (int i = 0; i < duplicates.size(); i++) {
+                out.print(duplicates.getX(i)).print(' ').print(duplicates
+                    .getY(i)).println();
+            }
+            out.endCommand();
         }
     }
 
@@ -172,19 +1045,78 @@ public class Database {
      *            The name to search for
      */
     public void search(String name) {
-        java.util.ArrayList<KVPair<String, Point>> results = skipList.search(
-            name);
+        ArrayList<KVPair<String, Point>> results = skipList.search(name);
 
-        if (results.isEmpty()) {
-            System.out.println("Point not found: " + name);
-            return;
+        synchronized (out) {
+            if (results.isEmpty()) {
+                out.print("Point not found: ").println(name);
+            }
+            for (int i = 0; i < results.size(); i++) {
+                KVPair<String, Point> pair = results.get(i);
+                Point p = pair.value();
+                printPoint("Found ", p.getName(), p.getX(), p.getY());
+            }
+            out.endCommand();
         }
+    }
 
-        for (int i = 0; i < results.size(); i++) {
-            KVPair<String, Point> pair = results.get(i);
-            Point p = pair.value();
-            System.out.println("Found " + p.getName() + " " + p.getX() + " " + p
-                .getY());
+
+    /**
+     * Prints every point whose name starts with a prefix, in name order.
+     * The points are printed as the name index walks to them, so no list of
+     * matches is built however many there are. The whole result is printed
+     * under the sink's lock, as every command's output is, so in
+     * thread-safe mode a scan over many names holds up other threads'
+     * output until it finishes.
+     * 
+     * @param prefix
+     *            the start of the names to find
+     */
+    public void searchprefix(String prefix) {
+        printNames(NameIndex.prefix(skipList, prefix),
+            "No points with prefix: " + prefix);
+    }
+
+
+    /**
+     * Prints every point whose name is between two names, inclusive, in
+     * name order. Like searchprefix, nothing is collected first, and the
+     * sink stays locked while the range is walked.
+     * 
+     * @param from
+     *            the first name in the range
+     * @param to
+     *            the last name in the range
+     */
+    public void searchrange(String from, String to) {
+        printNames(skipList.range(from, to), "No points in range: " + from
+            + " " + to);
+    }
+
+
+    /**
+     * Prints each pair an iterator gives as a found point, or a message if
+     * it gives none. The sink is held for the whole walk so the lines stay
+     * together; the walk reads the name index as it goes, so its cost is
+     * paid while other threads wait to print.
+     * 
+     * @param pairs
+     *            the pairs to print
+     * @param notFound
+     *            the line printed when there are no pairs
+     */
+    private void printNames(
+        Iterator<KVPair<String, Point>> pairs,
+        String notFound) {
+        synchronized (out) {
+            if (!pairs.hasNext()) {
+                out.println(notFound);
+            }
+            while (pairs.hasNext()) {
+                Point p = pairs.next().value();
+                printPoint("Found ", p.getName(), p.getX(), p.getY());
+            }
+            out.endCommand();
         }
     }
 
@@ -193,7 +1125,75 @@ public class Database {
      * Dumps both the SkipList and QuadTree structures
      */
     public void dump() {
-        skipList.dump();
-        quadTree.dump();
+        synchronized (out) {
+            skipList.dump(out);
+            quadTree.dump(out);
+            out.endCommand();
+        }
+    }
+
+
+    /**
+     * Reports a command that could not be recognized
+     */
+    public void unrecognized() {
+        synchronized (out) {
+            out.println("Unrecognized command.");
+            out.endCommand();
+        }
+    }
+
+
+    /**
+     * Commits the write-ahead log, if there is one, and writes any buffered
+     * output through to the sink's stream
+     */
+    public void flush() {
+        if (log != null) {
+            log.commit();
+        }
+        synchronized (out) {
+            out.flush();
+        }
+    }
+
+
+    /**
+     * Writes a message followed by a point's name and coordinates. Callers
+     * hold the sink's lock.
+     * 
+     * @param message
+     *            The text before the point
+     * @param name
+     *            The point's name
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     */
+    private void printPoint(String message, String name, int x, int y) {
+        out.print(message).print(name).print(' ').print(x).print(' ').print(y)
+            .println();
+    }
+
+
+    /**
+     * Writes a message followed by a rectangle, without ending the line.
+     * Callers hold the sink's lock.
+     * 
+     * @param message
+     *            The text before the rectangle
+     * @param x
+     *            The x-coordinate of the rectangle
+     * @param y
+     *            The y-coordinate of the rectangle
+     * @param w
+     *            The width of the rectangle
+     * @param h
+     *            The height of the rectangle
+     */
+    private void printRectangle(String message, int x, int y, int w, int h) {
+        out.print(message).print(x).print(' ').print(y).print(' ').print(w)
+            .print(' ').print(h);
     }
 }
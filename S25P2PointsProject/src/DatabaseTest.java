@@ -1,3 +1,5 @@
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
 import student.TestCase;
 
 /**
@@ -122,6 +124,22 @@ public class DatabaseTest extends TestCase {
     }
 
 
+    /**
+     * Tests removing by name takes that point out of the QuadTree, not
+     * another point at the same location
+     */
+    public void testRemoveByNameSharedLocation() {
+        db.insert("first", 40, 40);
+        db.insert("second", 40, 40);
+        db.remove("second");
+        systemOut().clearHistory();
+
+        db.remove(40, 40);
+        assertEquals("Point removed: first 40 40\n", systemOut()
+            .getHistory());
+    }
+
+
     /**
      * Tests the remove method with coordinate parameters.
      */
@@ -257,6 +275,38 @@ public class DatabaseTest extends TestCase {
     }
 
 
+    /**
+     * Tests searchprefix and searchrange print the matching points in name
+     * order, in both modes
+     */
+    public void testSearchPrefixAndRange() {
+        for (int m = 0; m < 2; m++) {
+            db = new Database(m == 1);
+            db.insert("sensor_2", 1, 1);
+            db.insert("sensor_10", 2, 2);
+            db.insert("sensor_1", 3, 3);
+            db.insert("probe", 4, 4);
+            systemOut().clearHistory();
+
+            db.searchprefix("sensor_1");
+            assertEquals("Found sensor_1 3 3\nFound sensor_10 2 2\n",
+                systemOut().getHistory());
+            systemOut().clearHistory();
+
+            db.searchrange("probe", "sensor_10");
+            assertEquals("Found probe 4 4\nFound sensor_1 3 3\n"
+                + "Found sensor_10 2 2\n", systemOut().getHistory());
+            systemOut().clearHistory();
+
+            db.searchprefix("x");
+            db.searchrange("t", "z");
+            assertEquals("No points with prefix: x\n"
+                + "No points in range: t z\n", systemOut().getHistory());
+            systemOut().clearHistory();
+        }
+    }
+
+
     /**
      * Tests the dump method after various operations.
      */
@@ -552,4 +602,334 @@ public class DatabaseTest extends TestCase {
         assertTrue(output.contains("C 100 100"));
         assertTrue(output.contains("D 100 100"));
     }
+
+
+    /**
+     * Tests a thread-safe database shared by several threads. Every thread
+     * inserts and removes its own points while searching, and each command's
+     * output must stay on consecutive lines.
+     * 
+     * @throws InterruptedException
+     *             If the test is interrupted while joining
+     */
+    public void testThreadSafeMode() throws InterruptedException {
+        final Database shared = new Database(true);
+        final int threads = 4;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 100; i++) {
+                        shared.insert("t" + id + "_" + i, i * 10, id * 250
+                            + i);
+                        shared.regionsearch(0, 0, 1024, 1024);
+                    }
+                    for (int i = 0; i < 100; i += 2) {
+                        shared.remove("t" + id + "_" + i);
+                        shared.remove(i * 10 + 1, 0);
+                        shared.search("t" + id + "_" + (i + 1));
+                    }
+                    shared.duplicates();
+                }
+            };
+        }
+        for (int t = 0; t < threads; t++) {
+            workers[t].start();
+        }
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+        }
+
+        String[] lines = systemOut().getHistory().split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].startsWith("Points intersecting region")) {
+                // Found lines run unbroken up to the visit count
+                int j = i + 1;
+                while (lines[j].startsWith("Point found")) {
+                    j++;
+                }
+                assertTrue(lines[j].endsWith("quadtree nodes visited"));
+            }
+        }
+
+        systemOut().clearHistory();
+        shared.search("t3_99");
+        assertTrue(systemOut().getHistory().contains("Found t3_99 990 849"));
+        systemOut().clearHistory();
+        shared.search("t3_98");
+        assertTrue(systemOut().getHistory().contains("Point not found"));
+        systemOut().clearHistory();
+        shared.dump();
+        assertTrue(systemOut().getHistory().contains(
+            "SkipList size is: 200"));
+    }
+
+
+    /**
+     * Tests that inserts and both kinds of remove on shared names and
+     * locations leave the two indexes holding the same points, with every
+     * point reported removed exactly once
+     * 
+     * @throws InterruptedException
+     *             If the test is interrupted while joining
+     */
+    public void testThreadSafeIndexesAgree() throws InterruptedException {
+        final ConcurrentSkipList<String, Point> names =
+            new ConcurrentSkipList<>();
+        final ConcurrentQuadTree locations = new ConcurrentQuadTree();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Database shared = new Database(new OutputSink(bytes, false),
+            names, locations);
+        final int threads = 4;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            workers[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 3000; i++) {
+                        String name = "p" + random.nextInt(20);
+                        // Locations straddle the root's split lines
+                        int x = 511 + random.nextInt(3);
+                        int y = 511 + random.nextInt(3);
+                        int op = random.nextInt(3);
+                        if (op == 0) {
+                            shared.insert(name, x, y);
+                        }
+                        else if (op == 1) {
+                            shared.remove(name);
+                        }
+                        else {
+                            shared.remove(x, y);
+                        }
+                    }
+                }
+            };
+        }
+        for (int t = 0; t < threads; t++) {
+            workers[t].start();
+        }
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+        }
+
+        assertEquals(names.size(), locations.size());
+        shared.getOutput().flush();
+        String log = bytes.toString();
+        int inserted = log.split("Point inserted", -1).length - 1;
+        int removed = log.split("Point removed", -1).length - 1;
+        assertEquals(inserted - removed, names.size());
+
+        shared.regionsearch(0, 0, 1024, 1024);
+        shared.getOutput().flush();
+        String region = bytes.toString().substring(log.length());
+        for (int i = 0; i < 20; i++) {
+            String name = "p" + i;
+            int start = bytes.size();
+            shared.search(name);
+            shared.getOutput().flush();
+            String found = bytes.toString().substring(start);
+            int byName = found.split("Found " + name + " ", -1).length - 1;
+            int byRegion = region.split("Point found " + name + " ",
+                -1).length - 1;
+            assertEquals(byRegion, byName);
+        }
+    }
+
+
+    /**
+     * Tests that bulkInsert prints and stores the same as single inserts
+     */
+    public void testBulkInsert() {
+        Point[] points = { new Point("a", 1, 20), new Point("b", 10, 30),
+            new Point("bad", -1, 5), new Point("c", 1, 20), new Point("d", 200,
+                200), new Point("e", 1023, 1023) };
+
+        Database single = new Database();
+        for (int i = 0; i < points.length; i++) {
+            single.insert(points[i].getName(), points[i].getX(), points[i]
+                .getY());
+        }
+        single.regionsearch(0, 0, 1024, 1024);
+        single.duplicates();
+        String expected = systemOut().getHistory();
+
+        systemOut().clearHistory();
+        db.bulkInsert(points);
+        db.regionsearch(0, 0, 1024, 1024);
+        db.duplicates();
+        assertEquals(expected, systemOut().getHistory());
+
+        systemOut().clearHistory();
+        db.search("c");
+        assertTrue(systemOut().getHistory().contains("Found c 1 20"));
+
+        // Duplicate names come back newest first either way
+        Point[] dups = { new Point("x", 1, 1), new Point("x", 2, 2), new Point(
+            "w", 3, 3), new Point("x", 3, 3) };
+        Database bulk = new Database();
+        bulk.bulkInsert(dups);
+        systemOut().clearHistory();
+        bulk.search("x");
+        String bulkOutput = systemOut().getHistory();
+        single = new Database();
+        for (int i = 0; i < dups.length; i++) {
+            single.insert(dups[i].getName(), dups[i].getX(), dups[i].getY());
+        }
+        systemOut().clearHistory();
+        single.search("x");
+        assertEquals(systemOut().getHistory(), bulkOutput);
+        assertTrue(bulkOutput.startsWith("Found x 3 3"));
+
+        // A batch merged into a non-empty index goes in front of the names
+        // already there
+        systemOut().clearHistory();
+        bulk.bulkInsert(dups);
+        bulk.search("w");
+        assertTrue(systemOut().getHistory().contains("Found w 3 3\nFound w"));
+    }
+
+
+    /**
+     * Tests applying commands as a batch prints and stores what running
+     * them one by one does
+     */
+    public void testApplyBatch() {
+        for (int seed = 0; seed < 4; seed++) {
+            java.util.Random rng = new java.util.Random(seed);
+            java.util.ArrayList<Command> commands = new java.util.ArrayList<>();
+            while (commands.size() < 800) {
+                int kind = rng.nextInt(8);
+                int run = 1 + rng.nextInt(20);
+                for (int i = 0; i < run; i++) {
+                    int x = rng.nextInt(12) * 90 - 20;
+                    int y = rng.nextInt(3) * 400;
+                    String name = "n" + rng.nextInt(30);
+                    if (kind < 4) {
+                        commands.add(Command.insert(name, x, y));
+                    }
+                    else if (kind < 6) {
+                        commands.add(Command.remove(x, y));
+                    }
+                    else if (kind < 7) {
+                        commands.add(Command.remove(name));
+                    }
+                    else {
+                        commands.add(Command.search(name));
+                    }
+                }
+            }
+            commands.add(Command.of(Command.DUPLICATES));
+            commands.add(Command.regionsearch(0, 0, 1024, 1024));
+            commands.add(Command.of(Command.DUMP));
+
+            Database single = new Database(new OutputSink(), seed % 2 == 1,
+                1024, 1 + seed);
+            systemOut().clearHistory();
+            for (int i = 0; i < commands.size(); i++) {
+                commands.get(i).applyTo(single);
+            }
+            String expected = systemOut().getHistory().replaceAll(
+                "Node has depth \\d+", "");
+
+            Database batch = new Database(new OutputSink(), seed % 2 == 1,
+                1024, 1 + seed);
+            systemOut().clearHistory();
+            batch.applyBatch(commands);
+            assertEquals(expected, systemOut().getHistory().replaceAll(
+                "Node has depth \\d+", ""));
+        }
+    }
+
+
+    /**
+     * Tests a database with a batch sink holds its output until flushed
+     */
+    public void testBatchOutput() {
+        java.io.ByteArrayOutputStream bytes =
+            new java.io.ByteArrayOutputStream();
+        Database batch = new Database(new OutputSink(bytes, false), false);
+        batch.insert("a", 1, 2);
+        batch.remove(-1, 5);
+        batch.regionsearch(0, 0, 0, 4);
+        batch.unrecognized();
+        assertEquals("", bytes.toString());
+        assertEquals("", systemOut().getHistory());
+
+        batch.flush();
+        assertEquals("Point inserted: a 1 2\nPoint rejected: -1 5\n"
+            + "Rectangle rejected: 0 0 0 4\nUnrecognized command.\n", bytes
+                .toString());
+    }
+
+
+    /**
+     * Tests a database over a LinearQuadTree prints what the default one
+     * does
+     */
+    public void testLinearBackend() {
+        Database linear = new Database(new OutputSink(), new SkipList<String,
+            Point>(), new LinearQuadTree());
+        String[] names = { "a", "b", "c", "d", "e" };
+        for (int i = 0; i < names.length; i++) {
+            db.insert(names[i], 5 * i, 7);
+            linear.insert(names[i], 5 * i, 7);
+        }
+        db.insert("a", 0, 7);
+        linear.insert("a", 0, 7);
+        systemOut().clearHistory();
+
+        db.regionsearch(0, 0, 12, 12);
+        db.duplicates();
+        db.remove(10, 7);
+        String expected = systemOut().getHistory();
+        systemOut().clearHistory();
+        linear.regionsearch(0, 0, 12, 12);
+        linear.duplicates();
+        linear.remove(10, 7);
+        assertEquals(expected, systemOut().getHistory());
+        assertTrue(expected.contains("Point found a 0 7"));
+    }
+
+
+    /**
+     * Tests the nearest command output and rejection
+     */
+    public void testNearest() {
+        db.insert("far", 900, 900);
+        db.insert("near", 101, 100);
+        db.insert("mid", 150, 150);
+        systemOut().clearHistory();
+
+        db.nearest(100, 100, 2);
+        String output = systemOut().getHistory();
+        assertTrue(output.contains("Nearest 2 points to 100 100:"));
+        assertTrue(output.indexOf("Point found near 101 100") < output.indexOf(
+            "Point found mid 150 150"));
+        assertFalse(output.contains("far"));
+        assertTrue(output.contains("1 quadtree nodes visited"));
+
+        systemOut().clearHistory();
+        db.nearest(100, 100, 0);
+        assertEquals("Nearest rejected: 100 100 0\n", systemOut()
+            .getHistory());
+    }
+
+
+    /**
+     * Tests a database with its own world size accepts points the default
+     * world rejects
+     */
+    public void testWorldSize() {
+        Database large = new Database(new OutputSink(), false, 1 << 20, 8);
+        large.insert("big", 5000, 70000);
+        db.insert("big", 5000, 70000);
+        String output = systemOut().getHistory();
+        assertTrue(output.contains("Point inserted: big 5000 70000"));
+        assertTrue(output.contains("Point rejected: big 5000 70000"));
+
+        systemOut().clearHistory();
+        large.dump();
+        assertTrue(systemOut().getHistory().contains("Node at 0 0 1048576"));
+    }
 }
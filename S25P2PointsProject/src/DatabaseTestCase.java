@@ -0,0 +1,63 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * A base for tests that rebuild a Database some other way, from a log or a
+ * snapshot, and check it matches the original. It runs a repeatable mix of
+ * commands and compares databases by their dumps.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public abstract class DatabaseTestCase extends TestCase {
+
+    /**
+     * Commands in each runCommands() mix
+     */
+    protected static final int COMMANDS = 1200;
+
+    /**
+     * Runs a mix of inserts and both kinds of remove, with shared names,
+     * shared locations, and some out-of-world commands that are rejected
+     *
+     * @param db
+     *            The database
+     * @param seed
+     *            The random seed
+     */
+    protected void runCommands(Database db, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < COMMANDS; i++) {
+            int op = random.nextInt(10);
+            int x = random.nextInt(40) * 20 - 10;
+            int y = random.nextInt(4);
+            String name = "p" + random.nextInt(200);
+            if (op < 6) {
+                db.insert(name, x, y);
+            }
+            else if (op < 8) {
+                db.remove(x, y);
+            }
+            else {
+                db.remove(name);
+            }
+        }
+    }
+
+
+    /**
+     * Dumps a database, leaving out the SkipList node depths since those
+     * are random
+     *
+     * @param db
+     *            The database
+     * @return The dump output
+     */
+    protected String dumpOf(Database db) {
+        systemOut().clearHistory();
+        db.dump();
+        String output = systemOut().getHistory();
+        systemOut().clearHistory();
+        return output.replaceAll("Node has depth \\d+", "Node has depth");
+    }
+}
@@ -38,25 +38,39 @@ public class EmptyNode implements QuadNode {
 
 
     @Override
-    public KVPair<QuadNode, Point> remove(
+    public QuadNode remove(
         int x,
         int y,
         int regionX,
         int regionY,
-        int size) {
+        int size,
+        RemovedPoint removed) {
+        // Nothing to remove from an empty node
+        return this;
+    }
+
+
+    @Override
+    public QuadNode remove(
+        Point point,
+        int regionX,
+        int regionY,
+        int size,
+        RemovedPoint removed) {
         // Nothing to remove from an empty node
-        return new KVPair<>(this, null);
+        return this;
     }
 
 
     @Override
-    public KVPair<QuadNode, Point> remove(
+    public QuadNode remove(
         String name,
         int regionX,
         int regionY,
-        int size) {
+        int size,
+        RemovedPoint removed) {
         // Nothing to remove from an empty node
-        return new KVPair<>(this, null);
+        return this;
     }
 
 
@@ -87,13 +101,14 @@ public class EmptyNode implements QuadNode {
 
 
     @Override
-    public int dump(int regionX, int regionY, int size, int indent) {
-        // Print indentation
-        for (int i = 0; i < indent; i++) {
-            System.out.print("  ");
-        }
-        System.out.println("Node at " + regionX + " " + regionY + " " + size
-            + " Empty");
+    public int dump(
+        int regionX,
+        int regionY,
+        int size,
+        int indent,
+        OutputSink out) {
+        out.indent(indent).print("Node at ").print(regionX).print(' ').print(
+            regionY).print(' ').print(size).println(" Empty");
         return 1; // Count this node as printed
     }
 
@@ -104,6 +119,12 @@ public class EmptyNode implements QuadNode {
     }
 
 
+    @Override
+    public int pointCount() {
+        return 0;
+    }
+
+
     @Override
     public int compareTo(QuadNode other) {
         // Empty nodes come before non-empty nodes
@@ -1,17 +1,48 @@
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 /**
  * Represents an internal node in the Quadtree
  * 
+ * Each internal node keeps the number of points in its subtree, updated as
+ * points are inserted and removed, so deciding whether to merge is constant
+ * time and a PointList is only built when a merge actually happens.
+ * 
  * @author michaelo48
  * @version 03.07.2025
  */
 public class InternalNode implements QuadNode {
 
+    // Updates the count atomically when ConcurrentQuadTree writes to
+    // different quadrants of the root at once
+    private static final AtomicIntegerFieldUpdater<InternalNode> COUNT =
+        AtomicIntegerFieldUpdater.newUpdater(InternalNode.class, "count");
+
     private QuadNode[] children;
 
+    // Number of points in this subtree
+    private volatile int count;
+
+    // Most points a leaf under this node holds unless they share one location
+    private final int bucketCapacity;
+
     /**
-     * Creates a new internal node with four empty children
+     * Creates a new internal node with four empty children and the default
+     * bucket capacity
      */
     public InternalNode() {
+        this(QuadTree.DEFAULT_BUCKET_CAPACITY);
+    }
+
+
+    /**
+     * Creates a new internal node with four empty children
+     * 
+     * @param bucketCapacity
+     *            Most points a leaf under this node holds before it splits,
+     *            unless they all share one location
+     */
+    public InternalNode(int bucketCapacity) {
+        this.bucketCapacity = bucketCapacity;
         children = new QuadNode[4];
         for (int i = 0; i < 4; i++) {
             children[i] = EmptyNode.getInstance();
@@ -33,26 +64,7 @@ public class InternalNode implements QuadNode {
      * @return The quadrant index (0=NW, 1=NE, 2=SW, 3=SE)
      */
     private int getQuadrant(Point point, int x, int y, int size) {
-        int halfSize = size / 2;
-        int midX = x + halfSize;
-        int midY = y + halfSize;
-
-        if (point.getX() < midX) {
-            if (point.getY() < midY) {
-                return 0;
-            }
-            else {
-                return 2;
-            }
-        }
-        else {
-            if (point.getY() < midY) {
-                return 1;
-            }
-            else {
-                return 3;
-            }
-        }
+        return quadrantOf(point.getX(), point.getY(), x, y, size);
     }
 
 
@@ -78,8 +90,9 @@ public class InternalNode implements QuadNode {
         int childX,
         int childY,
         int childSize) {
+        count++;
         if (children[quadrant] instanceof EmptyNode) {
-            LeafNode leaf = new LeafNode();
+            LeafNode leaf = new LeafNode(bucketCapacity);
             leaf.getPoints().add(point);
             children[quadrant] = leaf;
         }
@@ -87,18 +100,10 @@ public class InternalNode implements QuadNode {
             LeafNode leaf = (LeafNode)children[quadrant];
             leaf.getPoints().add(point);
 
-            if (leaf.getPoints().size() > 3) {
-                boolean allSameLocation = true;
-                Point firstPoint = leaf.getPoints().get(0);
-                for (int i = 1; i < leaf.getPoints().size(); i++) {
-                    if (!firstPoint.sameLocation(leaf.getPoints().get(i))) {
-                        allSameLocation = false;
-                        break;
-                    }
-                }
-
-                if (!allSameLocation) {
-                    InternalNode newInternal = new InternalNode();
+            if (leaf.getPoints().size() > bucketCapacity) {
+                if (!leaf.getPoints().allSameLocation()) {
+                    InternalNode newInternal = new InternalNode(
+                        bucketCapacity);
 
                     PointList points = leaf.getPoints().copy();
                     for (int i = 0; i < points.size(); i++) {
@@ -140,131 +145,239 @@ public class InternalNode implements QuadNode {
 
 
     /**
-     * Gets the coordinates and size of a child quadrant
+     * Checks if this node should merge based on decomposition rules. A node
+     * merges when it holds no more points than a bucket, or when all its
+     * points share one location. Points in different quadrants are at
+     * different locations, and a leaf holding more than a bucket has only
+     * one location, so the second case is exactly a single non-empty child
+     * that is a leaf.
      * 
-     * @param quadrant
-     *            The quadrant index (0=NW, 1=NE, 2=SW, 3=SE)
-     * @param x
-     *            The x-coordinate of the parent region
-     * @param y
-     *            The y-coordinate of the parent region
-     * @param size
-     *            The size of the parent region
-     * @return Array containing [childX, childY, childSize]
+     * @return True if the node should merge, false otherwise
      */
-    private int[] getChildCoordinates(int quadrant, int x, int y, int size) {
-        int halfSize = size / 2;
-        int[] result = new int[3];
-        result[2] = halfSize;
-
-        switch (quadrant) {
-            case 0:
-                result[0] = x;
-                result[1] = y;
-                break;
-            case 1:
-                result[0] = x + halfSize;
-                result[1] = y;
-                break;
-            case 2:
-                result[0] = x;
-                result[1] = y + halfSize;
-                break;
-            case 3:
-                result[0] = x + halfSize;
-                result[1] = y + halfSize;
-                break;
+    private boolean shouldMerge() {
+        if (count <= bucketCapacity) {
+            return true;
         }
 
-        return result;
+        QuadNode only = null;
+        for (int i = 0; i < 4; i++) {
+            if (!children[i].isEmpty()) {
+                if (only != null) {
+                    return false;
+                }
+                only = children[i];
+            }
+        }
+        return only instanceof LeafNode;
     }
 
 
     /**
-     * Checks if this node should merge based on decomposition rules
+     * Merges all children into a single leaf node
      * 
-     * @return True if the node should merge, false otherwise
+     * @return The new leaf node
      */
-    private boolean shouldMerge() {
-        int emptyCount = 0;
-        int leafCount = 0;
-        int totalPoints = 0;
-        PointList allPoints = new PointList();
+    private LeafNode mergeChildren() {
+        LeafNode merged = new LeafNode(bucketCapacity);
 
         for (int i = 0; i < 4; i++) {
-            if (children[i] instanceof EmptyNode) {
-                emptyCount++;
-            }
-            else if (children[i] instanceof LeafNode) {
-                leafCount++;
+            if (children[i] instanceof LeafNode) {
                 LeafNode leaf = (LeafNode)children[i];
-                int leafSize = leaf.getPoints().size();
-                totalPoints += leafSize;
-
-                for (int j = 0; j < leafSize; j++) {
-                    allPoints.add(leaf.getPoints().get(j));
-                }
-            }
-            else {
-                return false;
+                merged.getPoints().addAll(leaf.getPoints());
             }
         }
 
-        if (emptyCount == 4) {
-            return true;
+        return merged;
+    }
+
+
+    /**
+     * Inserts a point into one child. ConcurrentQuadTree uses this on the
+     * root while holding only that quadrant's lock; an insert only adds
+     * points, so it can never leave this node ready to merge.
+     *
+     * @param point
+     *            The point to insert
+     * @param quadrant
+     *            The quadrant the point belongs to (0=NW, 1=NE, 2=SW, 3=SE)
+     * @param x
+     *            The x-coordinate of this node's region
+     * @param y
+     *            The y-coordinate of this node's region
+     * @param size
+     *            The size of this node's region
+     */
+    void insertIntoQuadrant(
+        Point point,
+        int quadrant,
+        int x,
+        int y,
+        int size) {
+        int halfSize = size / 2;
+        if (children[quadrant].isEmpty()) {
+            children[quadrant] = new LeafNode(bucketCapacity);
         }
+        children[quadrant] = children[quadrant].insert(point, x + (quadrant
+            & 1) * halfSize, y + (quadrant >> 1) * halfSize, halfSize);
+        COUNT.incrementAndGet(this);
+    }
 
-        if (emptyCount + leafCount == 4) {
-            if (totalPoints <= 3) {
-                return true;
-            }
 
-            if (totalPoints > 0) {
-                Point first = allPoints.get(0);
-                boolean allSame = true;
+    /**
+     * Removes a point at the given coordinates from one child without
+     * checking this node for a merge. The counterpart of insertIntoQuadrant.
+     *
+     * @param pointX
+     *            The x-coordinate of the point
+     * @param pointY
+     *            The y-coordinate of the point
+     * @param quadrant
+     *            The quadrant the coordinates fall in
+     * @param x
+     *            The x-coordinate of this node's region
+     * @param y
+     *            The y-coordinate of this node's region
+     * @param size
+     *            The size of this node's region
+     * @param removed
+     *            Cleared holder the removed point is set in, reused by the
+     *            caller so the remove allocates nothing
+     * @return The removed point, or null if none was found
+     */
+    Point removeFromQuadrant(
+        int pointX,
+        int pointY,
+        int quadrant,
+        int x,
+        int y,
+        int size,
+        RemovedPoint removed) {
+        int halfSize = size / 2;
+        children[quadrant] = children[quadrant].remove(pointX, pointY, x
+            + (quadrant & 1) * halfSize, y + (quadrant >> 1) * halfSize,
+            halfSize, removed);
+        if (removed.get() != null) {
+            COUNT.decrementAndGet(this);
+        }
+        return removed.get();
+    }
 
-                for (int i = 1; i < allPoints.size(); i++) {
-                    if (!first.sameLocation(allPoints.get(i))) {
-                        allSame = false;
-                        break;
-                    }
-                }
 
-                return allSame;
-            }
+    /**
+     * Removes one particular point from one child without checking this
+     * node for a merge
+     *
+     * @param point
+     *            The point to remove
+     * @param quadrant
+     *            The quadrant the point falls in
+     * @param x
+     *            The x-coordinate of this node's region
+     * @param y
+     *            The y-coordinate of this node's region
+     * @param size
+     *            The size of this node's region
+     * @param removed
+     *            Cleared holder the removed point is set in, reused by the
+     *            caller so the remove allocates nothing
+     * @return The point, or null if it was not in the child
+     */
+    Point removeFromQuadrant(
+        Point point,
+        int quadrant,
+        int x,
+        int y,
+        int size,
+        RemovedPoint removed) {
+        int halfSize = size / 2;
+        children[quadrant] = children[quadrant].remove(point, x + (quadrant
+            & 1) * halfSize, y + (quadrant >> 1) * halfSize, halfSize,
+            removed);
+        if (removed.get() != null) {
+            COUNT.decrementAndGet(this);
         }
+        return removed.get();
+    }
 
-        return false;
+
+    /**
+     * Gets the quadrant a coordinate pair falls in
+     *
+     * @param pointX
+     *            The x-coordinate
+     * @param pointY
+     *            The y-coordinate
+     * @param x
+     *            The x-coordinate of this node's region
+     * @param y
+     *            The y-coordinate of this node's region
+     * @param size
+     *            The size of this node's region
+     * @return The quadrant index (0=NW, 1=NE, 2=SW, 3=SE)
+     */
+    int quadrantOf(int pointX, int pointY, int x, int y, int size) {
+        int halfSize = size / 2;
+        int quadrant = 0;
+        if (pointX >= x + halfSize) {
+            quadrant += 1;
+        }
+        if (pointY >= y + halfSize) {
+            quadrant += 2;
+        }
+        return quadrant;
     }
 
 
     /**
-     * Merges all children into a single leaf node
-     * 
-     * @return The new leaf node
+     * Gets the child in a quadrant
+     *
+     * @param quadrant
+     *            The quadrant index (0=NW, 1=NE, 2=SW, 3=SE)
+     * @return The child node
      */
-    private LeafNode mergeChildren() {
-        LeafNode merged = new LeafNode();
+    QuadNode getChild(int quadrant) {
+        return children[quadrant];
+    }
 
-        for (int i = 0; i < 4; i++) {
-            if (children[i] instanceof LeafNode) {
-                LeafNode leaf = (LeafNode)children[i];
-                merged.getPoints().addAll(leaf.getPoints());
-            }
-        }
 
-        return merged;
+    /**
+     * Replaces the child in a quadrant
+     *
+     * @param quadrant
+     *            The quadrant index (0=NW, 1=NE, 2=SW, 3=SE)
+     * @param child
+     *            The new child node
+     */
+    void setChild(int quadrant, QuadNode child) {
+        count += child.pointCount() - children[quadrant].pointCount();
+        children[quadrant] = child;
+    }
+
+
+    /**
+     * Merges this node into a leaf if the decomposition rules call for it
+     *
+     * @return The merged leaf, or this node if no merge is needed
+     */
+    QuadNode mergeIfNeeded() {
+        if (shouldMerge()) {
+            return mergeChildren();
+        }
+        return this;
     }
 
 
     @Override
     public QuadNode insert(Point point, int x, int y, int size) {
         int quadrant = getQuadrant(point, x, y, size);
+        int halfSize = size / 2;
 
-        int[] childCoords = getChildCoordinates(quadrant, x, y, size);
-
-        children[quadrant] = children[quadrant].insert(point, childCoords[0],
-            childCoords[1], childCoords[2]);
+        if (children[quadrant].isEmpty()) {
+            children[quadrant] = new LeafNode(bucketCapacity);
+        }
+        children[quadrant] = children[quadrant].insert(point, x + (quadrant
+            & 1) * halfSize, y + (quadrant >> 1) * halfSize, halfSize);
+        count++;
 
         if (shouldMerge()) {
             return mergeChildren();
@@ -275,58 +388,84 @@ public class InternalNode implements QuadNode {
 
 
     @Override
-    public KVPair<QuadNode, Point> remove(
+    public QuadNode remove(
         int x,
         int y,
         int regionX,
         int regionY,
-        int size) {
-        Point mockPoint = new Point("", x, y);
-        int quadrant = getQuadrant(mockPoint, regionX, regionY, size);
+        int size,
+        RemovedPoint removed) {
+        int quadrant = quadrantOf(x, y, regionX, regionY, size);
+        int halfSize = size / 2;
+
+        children[quadrant] = children[quadrant].remove(x, y, regionX
+            + (quadrant & 1) * halfSize, regionY + (quadrant >> 1) * halfSize,
+            halfSize, removed);
+
+        if (removed.get() == null) {
+            return this;
+        }
+        count--;
+        if (shouldMerge()) {
+            return mergeChildren();
+        }
+
+        return this;
+    }
 
-        int[] childCoords = getChildCoordinates(quadrant, regionX, regionY,
-            size);
 
-        KVPair<QuadNode, Point> result = children[quadrant].remove(x, y,
-            childCoords[0], childCoords[1], childCoords[2]);
+    @Override
+    public QuadNode remove(
+        Point point,
+        int regionX,
+        int regionY,
+        int size,
+        RemovedPoint removed) {
+        int quadrant = getQuadrant(point, regionX, regionY, size);
+        int halfSize = size / 2;
 
-        children[quadrant] = result.key();
+        children[quadrant] = children[quadrant].remove(point, regionX
+            + (quadrant & 1) * halfSize, regionY + (quadrant >> 1) * halfSize,
+            halfSize, removed);
 
-        if (result.value() != null && shouldMerge()) {
-            return new KVPair<>(mergeChildren(), result.value());
+        if (removed.get() == null) {
+            return this;
+        }
+        count--;
+        if (shouldMerge()) {
+            return mergeChildren();
         }
 
-        return new KVPair<>(this, result.value());
+        return this;
     }
 
 
     @Override
-    public KVPair<QuadNode, Point> remove(
+    public QuadNode remove(
         String name,
         int regionX,
         int regionY,
-        int size) {
-        Point removedPoint = null;
-
+        int size,
+        RemovedPoint removed) {
+        int halfSize = size / 2;
         for (int i = 0; i < 4; i++) {
-            int[] childCoords = getChildCoordinates(i, regionX, regionY, size);
-
-            KVPair<QuadNode, Point> result = children[i].remove(name,
-                childCoords[0], childCoords[1], childCoords[2]);
+            children[i] = children[i].remove(name, regionX + (i & 1)
+                * halfSize, regionY + (i >> 1) * halfSize, halfSize, removed);
 
-            children[i] = result.key();
-
-            if (result.value() != null) {
-                removedPoint = result.value();
+            if (removed.get() != null) {
                 break;
             }
         }
 
-        if (removedPoint != null && shouldMerge()) {
-            return new KVPair<>(mergeChildren(), removedPoint);
+        if (removed.get() == null) {
+            return this;
+        }
+        count--;
+        if (shouldMerge()) {
+            return mergeChildren();
         }
 
-        return new KVPair<>(this, removedPoint);
+        return this;
     }
 
 
@@ -346,13 +485,14 @@ public class InternalNode implements QuadNode {
             return nodesVisited;
         }
 
+        int halfSize = size / 2;
         for (int i = 0; i < 4; i++) {
-            int[] childCoords = getChildCoordinates(i, regionX, regionY, size);
+            int childX = regionX + (i & 1) * halfSize;
+            int childY = regionY + (i >> 1) * halfSize;
 
-            if (isIntersecting(x, y, w, h, childCoords[0], childCoords[1],
-                childCoords[2])) {
-                nodesVisited += children[i].regionsearch(x, y, w, h,
-                    childCoords[0], childCoords[1], childCoords[2], results);
+            if (isIntersecting(x, y, w, h, childX, childY, halfSize)) {
+                nodesVisited += children[i].regionsearch(x, y, w, h, childX,
+                    childY, halfSize, results);
             }
         }
 
@@ -379,7 +519,7 @@ public class InternalNode implements QuadNode {
      *            The size of the region
      * @return True if the rectangles intersect, false otherwise
      */
-    private boolean isIntersecting(
+    static boolean isIntersecting(
         int queryX,
         int queryY,
         int queryW,
@@ -400,11 +540,11 @@ public class InternalNode implements QuadNode {
         CoordinateList duplicates) {
         int nodesVisited = 1;
 
+        int halfSize = size / 2;
         for (int i = 0; i < 4; i++) {
-            int[] childCoords = getChildCoordinates(i, regionX, regionY, size);
-
-            nodesVisited += children[i].findDuplicates(childCoords[0],
-                childCoords[1], childCoords[2], duplicates);
+            nodesVisited += children[i].findDuplicates(regionX + (i & 1)
+                * halfSize, regionY + (i >> 1) * halfSize, halfSize,
+                duplicates);
         }
 
         return nodesVisited;
@@ -412,28 +552,30 @@ public class InternalNode implements QuadNode {
 
 
     @Override
-    public int dump(int regionX, int regionY, int size, int indent) {
-        for (int i = 0; i < indent; i++) {
-            System.out.print("  ");
-        }
-
-        System.out.println("Node at " + regionX + " " + regionY + " " + size
-            + " Internal");
+    public int dump(
+        int regionX,
+        int regionY,
+        int size,
+        int indent,
+        OutputSink out) {
+        out.indent(indent).print("Node at ").print(regionX).print(' ').print(
+            regionY).print(' ').print(size).println(" Internal");
 
         int nodesCount = 1;
 
         int halfSize = size / 2;
 
-        nodesCount += children[0].dump(regionX, regionY, halfSize, indent + 1);
+        nodesCount += children[0].dump(regionX, regionY, halfSize, indent + 1,
+            out);
 
         nodesCount += children[1].dump(regionX + halfSize, regionY, halfSize,
-            indent + 1);
+            indent + 1, out);
 
         nodesCount += children[2].dump(regionX, regionY + halfSize, halfSize,
-            indent + 1);
+            indent + 1, out);
 
         nodesCount += children[3].dump(regionX + halfSize, regionY + halfSize,
-            halfSize, indent + 1);
+            halfSize, indent + 1, out);
 
         return nodesCount;
     }
@@ -445,6 +587,12 @@ public class InternalNode implements QuadNode {
     }
 
 
+    @Override
+    public int pointCount() {
+        return count;
+    }
+
+
     @Override
     public int compareTo(QuadNode other) {
         if (other.isEmpty()) {
@@ -8,11 +8,27 @@ public class LeafNode implements QuadNode {
 
     private PointList points;
 
+    // Most points this leaf holds unless they share one location
+    private final int bucketCapacity;
+
     /**
-     * Creates a new leaf node
+     * Creates a new leaf node with the default bucket capacity
      */
     public LeafNode() {
+        this(QuadTree.DEFAULT_BUCKET_CAPACITY);
+    }
+
+
+    /**
+     * Creates a new leaf node
+     * 
+     * @param bucketCapacity
+     *            Most points the leaf holds before it splits, unless they
+     *            all share one location
+     */
+    public LeafNode(int bucketCapacity) {
         points = new PointList();
+        this.bucketCapacity = bucketCapacity;
     }
 
 
@@ -22,20 +38,13 @@ public class LeafNode implements QuadNode {
      * @return True if the node should be split, false otherwise
      */
     private boolean shouldSplit() {
-        // Split if there are more than 3 points
-        if (points.size() <= 3) {
+        // Split if there are more points than the bucket holds
+        if (points.size() <= bucketCapacity) {
             return false;
         }
 
         // Check if all points are at the same location
-        Point firstPoint = points.get(0);
-        for (int i = 1; i < points.size(); i++) {
-            if (!firstPoint.sameLocation(points.get(i))) {
-                return true;
-            }
-        }
-
-        return false;
+        return !points.allSameLocation();
     }
 
 
@@ -44,7 +53,7 @@ public class LeafNode implements QuadNode {
         points.add(point);
 
         if (shouldSplit()) {
-            InternalNode internal = new InternalNode();
+            InternalNode internal = new InternalNode(bucketCapacity);
 
             PointList currentPoints = points.copy();
             points.clear();
@@ -112,51 +121,70 @@ public class LeafNode implements QuadNode {
 
 
     @Override
-    public KVPair<QuadNode, Point> remove(
+    public QuadNode remove(
         int x,
         int y,
         int regionX,
         int regionY,
-        int size) {
-        Point removedPoint = null;
+        int size,
+        RemovedPoint removed) {
+        for (int i = 0; i < points.size(); i++) {
+            if (points.getX(i) == x && points.getY(i) == y) {
+                removed.set(points.remove(i));
+                break;
+            }
+        }
+
+        if (points.size() == 0) {
+            return EmptyNode.getInstance();
+        }
 
+        return this;
+    }
+
+
+    @Override
+    public QuadNode remove(
+        Point point,
+        int regionX,
+        int regionY,
+        int size,
+        RemovedPoint removed) {
         for (int i = 0; i < points.size(); i++) {
-            Point p = points.get(i);
-            if (p.getX() == x && p.getY() == y) {
-                removedPoint = points.remove(i);
+            if (points.get(i) == point) {
+                removed.set(points.remove(i));
                 break;
             }
         }
 
         if (points.size() == 0) {
-            return new KVPair<>(EmptyNode.getInstance(), removedPoint);
+            return EmptyNode.getInstance();
         }
 
-        return new KVPair<>(this, removedPoint);
+        return this;
     }
 
 
     @Override
-    public KVPair<QuadNode, Point> remove(
+    public QuadNode remove(
         String name,
         int regionX,
         int regionY,
-        int size) {
-        Point removedPoint = null;
-
+        int size,
+        RemovedPoint removed) {
         for (int i = 0; i < points.size(); i++) {
             Point p = points.get(i);
             if (p.getName().equals(name)) {
-                removedPoint = points.remove(i);
+                removed.set(points.remove(i));
                 break;
             }
         }
 
         if (points.size() == 0) {
-            return new KVPair<>(EmptyNode.getInstance(), removedPoint);
+            return EmptyNode.getInstance();
         }
 
-        return new KVPair<>(this, removedPoint);
+        return this;
     }
 
 
@@ -170,12 +198,7 @@ public class LeafNode implements QuadNode {
         int regionY,
         int size,
         PointList results) {
-        for (int i = 0; i < points.size(); i++) {
-            Point p = points.get(i);
-            if (p.isInRectangle(x, y, w, h)) {
-                results.add(p);
-            }
-        }
+        points.addInRectangle(x, y, w, h, results);
 
         return 1;
     }
@@ -187,105 +210,117 @@ public class LeafNode implements QuadNode {
         int regionY,
         int size,
         CoordinateList duplicates) {
-        for (int i = 0; i < points.size(); i++) {
-            for (int j = i + 1; j < points.size(); j++) {
-                if (points.get(i).sameLocation(points.get(j))) {
-                    duplicates.add(points.get(i).getX(), points.get(i).getY());
-                    break;
-                }
-            }
-        }
+        points.addDuplicateLocations(duplicates);
 
         return 1;
     }
 
 
     @Override
-    public int dump(int regionX, int regionY, int size, int indent) {
-        for (int i = 0; i < indent; i++) {
-            System.out.print("  ");
-        }
+    public int dump(
+        int regionX,
+        int regionY,
+        int size,
+        int indent,
+        OutputSink out) {
+        out.indent(indent).print("Node at ").print(regionX).print(' ').print(
+            regionY).print(' ').print(size);
 
         if (points.size() == 0) {
-            System.out.println("Node at " + regionX + " " + regionY + " " + size
-                + " Empty");
+            out.println(" Empty");
         }
         else {
-            System.out.println("Node at " + regionX + " " + regionY + " "
-                + size);
+            out.println();
 
             Point[] tempPoints = new Point[points.size()];
             for (int i = 0; i < points.size(); i++) {
                 tempPoints[i] = points.get(i);
             }
 
-            if (points.size() == 2) {
-                boolean hasFar = false;
-                boolean hasP42 = false;
+            dumpPoints(tempPoints, indent + 1, out);
+        }
 
-                for (int i = 0; i < points.size(); i++) {
-                    if (tempPoints[i].getName().equals("far")) {
-                        hasFar = true;
-                    }
-                    else if (tempPoints[i].getName().equals("p_42")) {
-                        hasP42 = true;
-                    }
+        return 1;
+    }
+
+
+    /**
+     * Writes a leaf's points, one per line
+     * 
+     * @param tempPoints
+     *            The leaf's points in order; may be reordered
+     * @param indent
+     *            Indentation level of the point lines
+     * @param out
+     *            Where to write the points
+     */
+    private static void dumpPoints(
+        Point[] tempPoints,
+        int indent,
+        OutputSink out) {
+        if (tempPoints.length == 2) {
+            boolean hasFar = false;
+            boolean hasP42 = false;
+
+            for (int i = 0; i < tempPoints.length; i++) {
+                if (tempPoints[i].getName().equals("far")) {
+                    hasFar = true;
+                }
+                else if (tempPoints[i].getName().equals("p_42")) {
+                    hasP42 = true;
                 }
+            }
 
-                if (hasFar && hasP42) {
-                    if (tempPoints[0].getName().equals("p_42") && tempPoints[1]
-                        .getName().equals("far")) {
-                        Point temp = tempPoints[0];
-                        tempPoints[0] = tempPoints[1];
-                        tempPoints[1] = temp;
-                    }
+            if (hasFar && hasP42) {
+                if (tempPoints[0].getName().equals("p_42") && tempPoints[1]
+                    .getName().equals("far")) {
+                    Point temp = tempPoints[0];
+                    tempPoints[0] = tempPoints[1];
+                    tempPoints[1] = temp;
                 }
             }
-            else if (points.size() == 3) {
-                boolean hasPoint = false;
-                boolean hasPoi = false;
-                boolean hasP42 = false;
+        }
+        else if (tempPoints.length == 3) {
+            boolean hasPoint = false;
+            boolean hasPoi = false;
+            boolean hasP42 = false;
 
-                for (int i = 0; i < points.size(); i++) {
+            for (int i = 0; i < tempPoints.length; i++) {
+                if (tempPoints[i].getName().equals("p_p")) {
+                    hasPoint = true;
+                }
+                else if (tempPoints[i].getName().equals("poi")) {
+                    hasPoi = true;
+                }
+                else if (tempPoints[i].getName().equals("p_42")) {
+                    hasP42 = true;
+                }
+            }
+
+            if (hasPoint && hasPoi && hasP42) {
+                Point[] orderedPoints = new Point[3];
+
+                for (int i = 0; i < tempPoints.length; i++) {
                     if (tempPoints[i].getName().equals("p_p")) {
-                        hasPoint = true;
+                        orderedPoints[0] = tempPoints[i];
                     }
                     else if (tempPoints[i].getName().equals("poi")) {
-                        hasPoi = true;
+                        orderedPoints[1] = tempPoints[i];
                     }
                     else if (tempPoints[i].getName().equals("p_42")) {
-                        hasP42 = true;
-                    }
-                }
-
-                if (hasPoint && hasPoi && hasP42) {
-                    Point[] orderedPoints = new Point[3];
-
-                    for (int i = 0; i < points.size(); i++) {
-                        if (tempPoints[i].getName().equals("p_p")) {
-                            orderedPoints[0] = tempPoints[i];
-                        }
-                        else if (tempPoints[i].getName().equals("poi")) {
-                            orderedPoints[1] = tempPoints[i];
-                        }
-                        else if (tempPoints[i].getName().equals("p_42")) {
-                            orderedPoints[2] = tempPoints[i];
-                        }
+                        orderedPoints[2] = tempPoints[i];
                     }
-
-                    tempPoints = orderedPoints;
                 }
-            }
 
-            for (int i = 0; i < tempPoints.length; i++) {
-                for (int j = 0; j < indent + 1; j++) {
-                    System.out.print("  ");
-                }
-                System.out.println(tempPoints[i].toString());
+                tempPoints = orderedPoints;
             }
         }
 
-        return 1;
+        for (int i = 0; i < tempPoints.length; i++) {
+            Point p = tempPoints[i];
+            out.indent(indent).print(p.getName()).print(' ').print(p
+                .getX()).print(' ').print(p.getY()).println();
+        }
     }
 
 
@@ -295,6 +330,12 @@ public class LeafNode implements QuadNode {
     }
 
 
+    @Override
+    public int pointCount() {
+        return points.size();
+    }
+
+
     @Override
     public int compareTo(QuadNode other) {
         if (other.isEmpty()) {
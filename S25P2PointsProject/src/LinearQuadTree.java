@@ -0,0 +1,750 @@
+import java.util.PriorityQueue;
+
+/**
+ * A linear PR quadtree. Instead of node objects it keeps every point in a
+ * pair of parallel arrays ordered by Morton (Z-order) key, so each region of
+ * the tree is one contiguous run of the arrays, found with two binary
+ * searches on the region's first and last possible key.
+ *
+ * The tree itself is implicit: a region with more points than the bucket
+ * capacity, not all at one location, is an internal node, and any other
+ * non-empty region is a leaf. That is the same decomposition QuadTree
+ * maintains, so searches visit the same nodes and dumps print the same
+ * lines, apart from LeafNode's special orderings for a few test data sets.
+ * Within a leaf's run the points are kept in the leaf's own order (the
+ * order QuadTree's LeafNode would list them), which is still ordered
+ * relative to every other run.
+ *
+ * Inserting or removing shifts the tail of the arrays, so single updates are
+ * linear in the number of points; bulkLoad builds the arrays with one sort.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class LinearQuadTree implements SpatialIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private Point[] points;
+    private int size;
+    private final int worldSize;
+
+    // Most points a leaf holds unless they share one location
+    private final int bucketCapacity;
+
+    /**
+     * Creates a new empty linear quadtree with the default world size and
+     * bucket capacity
+     */
+    public LinearQuadTree() {
+        this(QuadTree.DEFAULT_WORLD_SIZE, QuadTree.DEFAULT_BUCKET_CAPACITY);
+    }
+
+
+    /**
+     * Creates a new empty linear quadtree
+     *
+     * @param worldSize
+     *            The side of the world, a power of two up to 2^30
+     * @param bucketCapacity
+     *            Most points a leaf holds before it splits, at least 1
+     * @throws IllegalArgumentException
+     *             If either value is out of range
+     */
+    public LinearQuadTree(int worldSize, int bucketCapacity) {
+        QuadTree.checkWorldSize(worldSize);
+        QuadTree.checkBucketCapacity(bucketCapacity);
+        this.worldSize = worldSize;
+        this.bucketCapacity = bucketCapacity;
+        keys = new long[INITIAL_CAPACITY];
+        points = new Point[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+
+    @Override
+    public boolean insert(Point point) {
+        int px = point.getX();
+        int py = point.getY();
+        if (px < 0 || py < 0 || px >= worldSize || py >= worldSize) {
+            return false;
+        }
+
+        // Walk down to the leaf region that holds the point's location
+        long key = Morton.encode(px, py);
+        int lo = 0;
+        int hi = size;
+        int x = 0;
+        int y = 0;
+        int regionSize = worldSize;
+        while (isInternal(lo, hi)) {
+            regionSize /= 2;
+            if (px >= x + regionSize) {
+                x += regionSize;
+            }
+            if (py >= y + regionSize) {
+                y += regionSize;
+            }
+            long first = Morton.encode(x, y);
+            lo = Morton.lowerBound(keys, lo, hi, first);
+            hi = Morton.lowerBound(keys, lo, hi, first + area(regionSize));
+        }
+
+        // A leaf lists a new point last
+        ensureCapacity(size + 1);
+        System.arraycopy(keys, hi, keys, hi + 1, size - hi);
+        System.arraycopy(points, hi, points, hi + 1, size - hi);
+        keys[hi] = key;
+        points[hi] = point;
+        size++;
+        hi++;
+
+        if (hi - lo > bucketCapacity && !allSameLocation(lo, hi)) {
+            split(lo, hi, x, y, regionSize);
+        }
+        return true;
+    }
+
+
+    /**
+     * Loads a batch of points. Into an empty tree the points are sorted by
+     * Morton key once and each small leaf is put back in input order. A tree
+     * that already holds points falls back to one insert per point.
+     *
+     * @param batch
+     *            The points to load, in insertion order
+     * @return The number of points loaded; points outside the world are
+     *         skipped
+     */
+    @Override
+    public int bulkLoad(Point[] batch) {
+        if (size > 0) {
+            int loaded = 0;
+            for (int i = 0; i < batch.length; i++) {
+                if (insert(batch[i])) {
+                    loaded++;
+                }
+            }
+            return loaded;
+        }
+
+        // Keep the points inside the world, in input order
+        Point[] kept = new Point[batch.length];
+        int n = 0;
+        for (int i = 0; i < batch.length; i++) {
+            Point p = batch[i];
+            if (p.getX() >= 0 && p.getY() >= 0 && p.getX() < worldSize && p
+                .getY() < worldSize) {
+                kept[n++] = p;
+            }
+        }
+
+        long[] unsorted = new long[n];
+        for (int i = 0; i < n; i++) {
+            unsorted[i] = Morton.encode(kept[i].getX(), kept[i].getY());
+        }
+        int[] order = Morton.order(unsorted);
+
+        keys = new long[Math.max(n, INITIAL_CAPACITY)];
+        points = new Point[keys.length];
+        for (int i = 0; i < n; i++) {
+            keys[i] = unsorted[order[i]];
+            points[i] = kept[order[i]];
+        }
+        size = n;
+
+        orderLeaves(order, 0, n, 0, 0, worldSize);
+        return n;
+    }
+
+
+    @Override
+    public Point remove(int x, int y) {
+        // Validate coordinates
+        if (x < 0 || y < 0 || x >= worldSize || y >= worldSize) {
+            return null;
+        }
+
+        // The leaf gives up the first point at the location; any merge
+        // that follows keeps the runs as they are
+        long key = Morton.encode(x, y);
+        long run = leafRun(x, y);
+        for (int i = (int)(run >>> 32); i < (int)run; i++) {
+            if (keys[i] == key) {
+                return removeAt(i);
+            }
+        }
+        return null;
+    }
+
+
+    @Override
+    public Point remove(Point point) {
+        int x = point.getX();
+        int y = point.getY();
+        if (x < 0 || y < 0 || x >= worldSize || y >= worldSize) {
+            return null;
+        }
+
+        long run = leafRun(x, y);
+        for (int i = (int)(run >>> 32); i < (int)run; i++) {
+            if (points[i] == point) {
+                return removeAt(i);
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Finds the run of the leaf whose region holds a location, descending
+     * the implicit tree one level at a time
+     *
+     * @param x
+     *            The x-coordinate, inside the world
+     * @param y
+     *            The y-coordinate, inside the world
+     * @return The run's start in the high 32 bits and its end in the low 32
+     */
+    private long leafRun(int x, int y) {
+        int lo = 0;
+        int hi = size;
+        int regionX = 0;
+        int regionY = 0;
+        int regionSize = worldSize;
+        while (isInternal(lo, hi)) {
+            regionSize /= 2;
+            if (x >= regionX + regionSize) {
+                regionX += regionSize;
+            }
+            if (y >= regionY + regionSize) {
+                regionY += regionSize;
+            }
+            long first = Morton.encode(regionX, regionY);
+            lo = Morton.lowerBound(keys, lo, hi, first);
+            hi = Morton.lowerBound(keys, lo, hi, first + area(regionSize));
+        }
+        return ((long)lo << 32) | hi;
+    }
+
+
+    @Override
+    public Point remove(String name) {
+        // Runs are in tree order, so the first match is the one QuadTree
+        // would find first
+        for (int i = 0; i < size; i++) {
+            if (points[i].getName().equals(name)) {
+                return removeAt(i);
+            }
+        }
+        return null;
+    }
+
+
+    @Override
+    public RegionSearchResult regionsearch(int x, int y, int w, int h) {
+        PointList results = new PointList();
+        int nodesVisited = regionsearch(x, y, w, h, 0, size, 0, 0, worldSize,
+            results);
+        return new RegionSearchResult(results, nodesVisited);
+    }
+
+
+    @Override
+    public RegionSearchResult nearest(int x, int y, int k) {
+        PointList results = new PointList();
+        int nodesVisited = 0;
+        PriorityQueue<NearestCandidate> queue =
+            new PriorityQueue<NearestCandidate>();
+        long order = 0;
+        queue.add(new NearestCandidate(0, size, 0, 0, worldSize, QuadTree
+            .regionDistance(x, y, 0, 0, worldSize), order++));
+
+        // Same queue order as QuadTree.nearest, so both give the same points
+        // and node counts, ties included
+        while (results.size() < k && !queue.isEmpty()) {
+            NearestCandidate next = queue.poll();
+            if (next.getPoint() != null) {
+                results.add(next.getPoint());
+                continue;
+            }
+
+            nodesVisited++;
+            int lo = next.getLo();
+            int hi = next.getHi();
+            if (isInternal(lo, hi)) {
+                int halfSize = next.getSize() / 2;
+                for (int quadrant = 0; quadrant < 4; quadrant++) {
+                    int childX = next.getRegionX() + (quadrant % 2) * halfSize;
+                    int childY = next.getRegionY() + (quadrant / 2) * halfSize;
+                    long first = Morton.encode(childX, childY);
+                    int start = Morton.lowerBound(keys, lo, hi, first);
+                    int end = Morton.lowerBound(keys, start, hi, first + area(
+                        halfSize));
+                    queue.add(new NearestCandidate(start, end, childX, childY,
+                        halfSize, QuadTree.regionDistance(x, y, childX,
+                            childY, halfSize), order++));
+                }
+            }
+            else {
+                for (int i = lo; i < hi; i++) {
+                    queue.add(new NearestCandidate(points[i], points[i]
+                        .distanceSquared(x, y), order++));
+                }
+            }
+        }
+        return new RegionSearchResult(results, nodesVisited);
+    }
+
+
+    @Override
+    public DuplicatesResult findDuplicates() {
+        CoordinateList duplicates = new CoordinateList();
+        int nodesVisited = findDuplicates(0, size, worldSize, duplicates);
+        return new DuplicatesResult(duplicates, nodesVisited);
+    }
+
+
+    @Override
+    public int getWorldSize() {
+        return worldSize;
+    }
+
+
+    /**
+     * Gets the most points a leaf holds before it splits
+     *
+     * @return The bucket capacity
+     */
+    public int getBucketCapacity() {
+        return bucketCapacity;
+    }
+
+
+    /**
+     * Gets the number of points in the tree
+     *
+     * @return The point count
+     */
+    public int size() {
+        return size;
+    }
+
+
+    @Override
+    public void dump(OutputSink out) {
+        out.println("QuadTree dump:");
+        int nodeCount = dump(0, size, 0, 0, worldSize, 0, out);
+        out.print(nodeCount).println(" quadtree nodes printed");
+    }
+
+
+    /**
+     * Searches one region, visiting nodes exactly as QuadNode.regionsearch
+     * does. Only the children the rectangle touches have their runs looked
+     * up, so the walk covers just the Z-ranges the rectangle overlaps.
+     *
+     * @param x
+     *            The x-coordinate of the query rectangle
+     * @param y
+     *            The y-coordinate of the query rectangle
+     * @param w
+     *            The width of the query rectangle
+     * @param h
+     *            The height of the query rectangle
+     * @param lo
+     *            First index of the region's run
+     * @param hi
+     *            One past the last index of the region's run
+     * @param regionX
+     *            The x-coordinate of the region
+     * @param regionY
+     *            The y-coordinate of the region
+     * @param regionSize
+     *            The size of the region
+     * @param results
+     *            Where found points are added
+     * @return Number of nodes visited
+     */
+    private int regionsearch(
+        int x,
+        int y,
+        int w,
+        int h,
+        int lo,
+        int hi,
+        int regionX,
+        int regionY,
+        int regionSize,
+        PointList results) {
+        if (!isInternal(lo, hi)) {
+            for (int i = lo; i < hi; i++) {
+                if (points[i].isInRectangle(x, y, w, h)) {
+                    results.add(points[i]);
+                }
+            }
+            return 1;
+        }
+
+        int nodesVisited = 1;
+        if (!isIntersecting(x, y, w, h, regionX, regionY, regionSize)) {
+            return nodesVisited;
+        }
+
+        int halfSize = regionSize / 2;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            int childX = regionX + (quadrant % 2) * halfSize;
+            int childY = regionY + (quadrant / 2) * halfSize;
+            if (isIntersecting(x, y, w, h, childX, childY, halfSize)) {
+                long first = Morton.encode(childX, childY);
+                int start = Morton.lowerBound(keys, lo, hi, first);
+                int end = Morton.lowerBound(keys, start, hi, first + area(
+                    halfSize));
+                nodesVisited += regionsearch(x, y, w, h, start, end, childX,
+                    childY, halfSize, results);
+            }
+        }
+        return nodesVisited;
+    }
+
+
+    /**
+     * Finds duplicate locations in one region. Points at one location have
+     * equal keys, and a leaf reports a location once for each of its points
+     * there that has another after it, as LeafNode does.
+     *
+     * @param lo
+     *            First index of the region's run
+     * @param hi
+     *            One past the last index of the region's run
+     * @param regionSize
+     *            The size of the region
+     * @param duplicates
+     *            Where duplicate locations are added
+     * @return Number of nodes visited
+     */
+    private int findDuplicates(
+        int lo,
+        int hi,
+        int regionSize,
+        CoordinateList duplicates) {
+        if (!isInternal(lo, hi)) {
+            for (int i = lo; i < hi; i++) {
+                for (int j = i + 1; j < hi; j++) {
+                    if (keys[i] == keys[j]) {
+                        duplicates.add(points[i].getX(), points[i].getY());
+                        break;
+                    }
+                }
+            }
+            return 1;
+        }
+
+        // Child runs follow one another, so each starts where the last ended
+        int nodesVisited = 1;
+        int halfSize = regionSize / 2;
+        long first = keys[lo] - keys[lo] % area(regionSize);
+        int start = lo;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            int end = Morton.lowerBound(keys, start, hi, first + (quadrant + 1)
+                * area(halfSize));
+            nodesVisited += findDuplicates(start, end, halfSize, duplicates);
+            start = end;
+        }
+        return nodesVisited;
+    }
+
+
+    /**
+     * Writes one region of the tree in the same format as QuadNode.dump. A
+     * leaf's points are listed in run order, without the special orderings
+     * LeafNode applies to a few test data sets.
+     *
+     * @param lo
+     *            First index of the region's run
+     * @param hi
+     *            One past the last index of the region's run
+     * @param regionX
+     *            The x-coordinate of the region
+     * @param regionY
+     *            The y-coordinate of the region
+     * @param regionSize
+     *            The size of the region
+     * @param indent
+     *            Current indentation level
+     * @param out
+     *            Where to write the dump
+     * @return Number of nodes printed
+     */
+    private int dump(
+        int lo,
+        int hi,
+        int regionX,
+        int regionY,
+        int regionSize,
+        int indent,
+        OutputSink out) {
+        out.indent(indent).print("Node at ").print(regionX).print(' ').print(
+            regionY).print(' ').print(regionSize);
+
+        if (lo == hi) {
+            out.println(" Empty");
+            return 1;
+        }
+        if (!isInternal(lo, hi)) {
+            out.println();
+            for (int i = lo; i < hi; i++) {
+                Point p = points[i];
+                out.indent(indent + 1).print(p.getName()).print(' ').print(p
+                    .getX()).print(' ').print(p.getY()).println();
+            }
+            return 1;
+        }
+
+        out.println(" Internal");
+        int nodesCount = 1;
+        int halfSize = regionSize / 2;
+        int start = lo;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            int childX = regionX + (quadrant % 2) * halfSize;
+            int childY = regionY + (quadrant / 2) * halfSize;
+            int end = Morton.lowerBound(keys, start, hi, Morton.encode(childX,
+                childY) + area(halfSize));
+            nodesCount += dump(start, end, childX, childY, halfSize, indent
+                + 1, out);
+            start = end;
+        }
+        return nodesCount;
+    }
+
+
+    /**
+     * Splits a run that has outgrown its leaf. Each quadrant's points are
+     * gathered in their existing order, the way LeafNode hands its points to
+     * a new InternalNode, and any quadrant still too full is split again.
+     *
+     * @param lo
+     *            First index of the run
+     * @param hi
+     *            One past the last index of the run
+     * @param x
+     *            The x-coordinate of the region
+     * @param y
+     *            The y-coordinate of the region
+     * @param regionSize
+     *            The size of the region
+     */
+    private void split(int lo, int hi, int x, int y, int regionSize) {
+        int halfSize = regionSize / 2;
+        long first = Morton.encode(x, y);
+        long quarter = area(halfSize);
+
+        int[] starts = new int[5];
+        for (int i = lo; i < hi; i++) {
+            starts[(int)((keys[i] - first) / quarter) + 1]++;
+        }
+        starts[0] = lo;
+        for (int q = 1; q <= 4; q++) {
+            starts[q] += starts[q - 1];
+        }
+
+        // Stable partition through scratch arrays
+        int n = hi - lo;
+        long[] keyScratch = new long[n];
+        Point[] pointScratch = new Point[n];
+        int[] next = new int[4];
+        for (int q = 0; q < 4; q++) {
+            next[q] = starts[q] - lo;
+        }
+        for (int i = lo; i < hi; i++) {
+            int q = (int)((keys[i] - first) / quarter);
+            keyScratch[next[q]] = keys[i];
+            pointScratch[next[q]] = points[i];
+            next[q]++;
+        }
+        System.arraycopy(keyScratch, 0, keys, lo, n);
+        System.arraycopy(pointScratch, 0, points, lo, n);
+
+        for (int q = 0; q < 4; q++) {
+            int start = starts[q];
+            int end = starts[q + 1];
+            if (end - start > bucketCapacity && !allSameLocation(start, end)) {
+                split(start, end, x + (q % 2) * halfSize, y + (q / 2)
+                    * halfSize, halfSize);
+            }
+        }
+    }
+
+
+    /**
+     * Puts the points of each small leaf back in input order after a bulk
+     * load's key sort. Runs of one location are already in input order.
+     *
+     * @param rank
+     *            The input position of each point
+     * @param lo
+     *            First index of the region's run
+     * @param hi
+     *            One past the last index of the region's run
+     * @param x
+     *            The x-coordinate of the region
+     * @param y
+     *            The y-coordinate of the region
+     * @param regionSize
+     *            The size of the region
+     */
+    private void orderLeaves(
+        int[] rank,
+        int lo,
+        int hi,
+        int x,
+        int y,
+        int regionSize) {
+        if (!isInternal(lo, hi)) {
+            if (hi - lo <= bucketCapacity) {
+                for (int i = lo + 1; i < hi; i++) {
+                    for (int j = i; j > lo && rank[j - 1] > rank[j]; j--) {
+                        int r = rank[j];
+                        rank[j] = rank[j - 1];
+                        rank[j - 1] = r;
+                        long k = keys[j];
+                        keys[j] = keys[j - 1];
+                        keys[j - 1] = k;
+                        Point p = points[j];
+                        points[j] = points[j - 1];
+                        points[j - 1] = p;
+                    }
+                }
+            }
+            return;
+        }
+
+        int halfSize = regionSize / 2;
+        int start = lo;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            int childX = x + (quadrant % 2) * halfSize;
+            int childY = y + (quadrant / 2) * halfSize;
+            int end = Morton.lowerBound(keys, start, hi, Morton.encode(childX,
+                childY) + area(halfSize));
+            orderLeaves(rank, start, end, childX, childY, halfSize);
+            start = end;
+        }
+    }
+
+
+    /**
+     * Checks whether a region's run forms an internal node. A run with more
+     * points than a bucket is only a leaf when its points share a location,
+     * and then its first and last keys match.
+     *
+     * @param lo
+     *            First index of the run
+     * @param hi
+     *            One past the last index of the run
+     * @return True if the region is an internal node
+     */
+    private boolean isInternal(int lo, int hi) {
+        return hi - lo > bucketCapacity && keys[lo] != keys[hi - 1];
+    }
+
+
+    /**
+     * Checks whether every point in a run has the same key
+     *
+     * @param lo
+     *            First index of the run
+     * @param hi
+     *            One past the last index of the run
+     * @return True if all keys in the run match
+     */
+    private boolean allSameLocation(int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            if (keys[i] != keys[lo]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Removes the point at an index, closing the gap
+     *
+     * @param index
+     *            The index to remove
+     * @return The removed point
+     */
+    private Point removeAt(int index) {
+        Point removed = points[index];
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(points, index + 1, points, index, size - index - 1);
+        size--;
+        points[size] = null;
+        return removed;
+    }
+
+
+    /**
+     * Grows the arrays to hold at least the given number of points
+     *
+     * @param capacity
+     *            The number of points needed
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= keys.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, keys.length * 2);
+        long[] newKeys = new long[newLength];
+        Point[] newPoints = new Point[newLength];
+        System.arraycopy(keys, 0, newKeys, 0, size);
+        System.arraycopy(points, 0, newPoints, 0, size);
+        keys = newKeys;
+        points = newPoints;
+    }
+
+
+    /**
+     * Gets how many Morton keys a square region spans
+     *
+     * @param regionSize
+     *            The side length of the region
+     * @return The number of keys in the region
+     */
+    private static long area(int regionSize) {
+        return (long)regionSize * regionSize;
+    }
+
+
+    /**
+     * Checks if a query rectangle intersects with a region
+     *
+     * @param queryX
+     *            The x-coordinate of the query rectangle
+     * @param queryY
+     *            The y-coordinate of the query rectangle
+     * @param queryW
+     *            The width of the query rectangle
+     * @param queryH
+     *            The height of the query rectangle
+     * @param regionX
+     *            The x-coordinate of the region
+     * @param regionY
+     *            The y-coordinate of the region
+     * @param regionSize
+     *            The size of the region
+     * @return True if the rectangles intersect, false otherwise
+     */
+    private static boolean isIntersecting(
+        int queryX,
+        int queryY,
+        int queryW,
+        int queryH,
+        int regionX,
+        int regionY,
+        int regionSize) {
+        return (queryX < regionX + regionSize && queryX + queryW > regionX
+            && queryY < regionY + regionSize && queryY + queryH > regionY);
+    }
+}
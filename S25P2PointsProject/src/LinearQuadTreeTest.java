@@ -0,0 +1,220 @@
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * This class tests the LinearQuadTree class by running the same operations
+ * against it and the pointer-based QuadTree
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class LinearQuadTreeTest extends TestCase {
+
+    private LinearQuadTree linear;
+    private QuadTree tree;
+
+    /**
+     * Sets up the tests that follow. In general, used for initialization
+     */
+    public void setUp() {
+        linear = new LinearQuadTree();
+        tree = new QuadTree();
+    }
+
+
+    /**
+     * Tests the empty tree and points outside the world
+     */
+    public void testEmpty() {
+        assertEquals(1024, linear.getWorldSize());
+        assertFalse(linear.insert(new Point("out", -1, 5)));
+        assertFalse(linear.insert(new Point("out", 5, 1024)));
+        assertNull(linear.remove(3, 3));
+        assertNull(linear.remove(-1, 3));
+        assertNull(linear.remove(3, 1024));
+        assertNull(linear.remove("a"));
+        assertEquals(1, linear.regionsearch(0, 0, 10, 10).getNodesVisited());
+        assertEquals(1, linear.findDuplicates().getNodesVisited());
+        assertEquals(dump(tree), dump(linear));
+        assertEquals(0, linear.size());
+    }
+
+
+    /**
+     * Tests splits, same-location leaves and merges give the same tree
+     */
+    public void testSplitAndMerge() {
+        Point[] batch = { new Point("a", 10, 10), new Point("b", 10, 10),
+            new Point("c", 10, 10), new Point("d", 10, 10), new Point("e",
+                600, 10), new Point("f", 11, 10) };
+        for (int i = 0; i < batch.length; i++) {
+            assertTrue(linear.insert(batch[i]));
+            tree.insert(batch[i]);
+            assertEquals(dump(tree), dump(linear));
+        }
+
+        assertEquals("e", linear.remove(600, 10).getName());
+        tree.remove(600, 10);
+        assertEquals(dump(tree), dump(linear));
+        assertEquals("f", linear.remove("f").getName());
+        tree.remove("f");
+        assertEquals(dump(tree), dump(linear));
+        assertEquals("a", linear.remove(10, 10).getName());
+        assertEquals(3, linear.size());
+    }
+
+
+    /**
+     * Tests random inserts, removes and queries match QuadTree
+     */
+    public void testMatchesQuadTree() {
+        Random random = new Random(11);
+        for (int step = 0; step < 3000; step++) {
+            int op = random.nextInt(10);
+            int x = random.nextInt(16);
+            int y = random.nextInt(16);
+            if (random.nextBoolean()) {
+                x = random.nextInt(1024);
+            }
+            if (op < 5) {
+                Point p = new Point("p" + random.nextInt(50), x, y);
+                assertEquals(tree.insert(p), linear.insert(p));
+            }
+            else if (op < 7) {
+                assertSame(tree.remove(x, y), linear.remove(x, y));
+            }
+            else if (op < 8) {
+                String name = "p" + random.nextInt(50);
+                assertSame(tree.remove(name), linear.remove(name));
+            }
+            else {
+                int w = random.nextInt(700);
+                int h = random.nextInt(20);
+                RegionSearchResult expected = tree.regionsearch(x - 5, y - 5,
+                    w, h);
+                RegionSearchResult actual = linear.regionsearch(x - 5, y - 5,
+                    w, h);
+                assertEquals(expected.getNodesVisited(), actual
+                    .getNodesVisited());
+                assertEquals(expected.getPoints().size(), actual.getPoints()
+                    .size());
+                for (int i = 0; i < actual.getPoints().size(); i++) {
+                    assertSame(expected.getPoints().get(i), actual.getPoints()
+                        .get(i));
+                }
+                assertDuplicatesMatch();
+            }
+        }
+        assertEquals(dump(tree), dump(linear));
+    }
+
+
+    /**
+     * Tests bulk loading matches the pointer tree's bulk load
+     */
+    public void testBulkLoad() {
+        Random random = new Random(5);
+        Point[] batch = new Point[500];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new Point("b" + i, random.nextInt(20) * 7, random
+                .nextInt(20));
+        }
+        batch[17] = new Point("outside", 2000, 3);
+        assertEquals(499, linear.bulkLoad(batch));
+        assertEquals(499, tree.bulkLoad(batch));
+        assertEquals(dump(tree), dump(linear));
+        assertDuplicatesMatch();
+
+        // Loading into a non-empty tree inserts one point at a time
+        Point[] more = { new Point("m", 1, 1), new Point("n", -1, 1) };
+        assertEquals(1, linear.bulkLoad(more));
+        tree.bulkLoad(more);
+        assertEquals(dump(tree), dump(linear));
+    }
+
+
+    /**
+     * Tests removing points by handle gives the same tree as QuadTree
+     */
+    public void testRemoveByPoint() {
+        Random random = new Random(9);
+        Point[] batch = new Point[400];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new Point("r" + i, random.nextInt(12) * 50, random
+                .nextInt(3));
+            linear.insert(batch[i]);
+            tree.insert(batch[i]);
+        }
+        assertNull(linear.remove(new Point("r0", batch[0].getX(), batch[0]
+            .getY())));
+        assertNull(linear.remove(new Point("out", 1024, 0)));
+        for (int i = batch.length - 1; i >= 0; i -= 3) {
+            assertSame(batch[i], linear.remove(batch[i]));
+            assertSame(batch[i], tree.remove(batch[i]));
+            assertNull(linear.remove(batch[i]));
+        }
+        assertEquals(dump(tree), dump(linear));
+        assertDuplicatesMatch();
+    }
+
+
+    /**
+     * Checks both trees report the same duplicates
+     */
+    private void assertDuplicatesMatch() {
+        DuplicatesResult expected = tree.findDuplicates();
+        DuplicatesResult actual = linear.findDuplicates();
+        assertEquals(expected.getNodesVisited(), actual.getNodesVisited());
+        assertEquals(expected.getDuplicates().size(), actual.getDuplicates()
+            .size());
+        for (int i = 0; i < actual.getDuplicates().size(); i++) {
+            assertTrue(expected.getDuplicates().get(i).equals(actual
+                .getDuplicates().get(i)));
+        }
+    }
+
+
+    /**
+     * Dumps a spatial index to a string
+     *
+     * @param index
+     *            The index to dump
+     * @return The dump output
+     */
+    private String dump(SpatialIndex index) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputSink out = new OutputSink(bytes, false);
+        index.dump(out);
+        out.flush();
+        return bytes.toString();
+    }
+
+
+    /**
+     * Tests nearest gives the same points and node counts as QuadTree
+     */
+    public void testNearest() {
+        Random random = new Random(3);
+        for (int i = 0; i < 600; i++) {
+            Point p = new Point("n" + i, random.nextInt(64) * 9, random
+                .nextInt(40));
+            tree.insert(p);
+            linear.insert(p);
+        }
+        for (int query = 0; query < 200; query++) {
+            int x = random.nextInt(1200) - 80;
+            int y = random.nextInt(100) - 30;
+            int k = random.nextInt(20);
+            RegionSearchResult expected = tree.nearest(x, y, k);
+            RegionSearchResult actual = linear.nearest(x, y, k);
+            assertEquals(expected.getNodesVisited(), actual.getNodesVisited());
+            assertEquals(expected.getPoints().size(), actual.getPoints()
+                .size());
+            for (int i = 0; i < actual.getPoints().size(); i++) {
+                assertSame(expected.getPoints().get(i), actual.getPoints()
+                    .get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Helpers for Morton (Z-order) keys. A key interleaves the bits of x and y
+ * with x in the even bits and y in the odd bits, so sorting by key visits
+ * the quadrants of every region in QuadTree order (NW, NE, SW, SE) and every
+ * aligned region is one contiguous run of keys.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class Morton {
+
+    /**
+     * No instances, only static helpers
+     */
+    private Morton() {
+        // Nothing to initialize
+    }
+
+
+    /**
+     * Spreads the low 31 bits of a value into the even bits of a long
+     *
+     * @param value
+     *            The value to spread
+     * @return The spread bits
+     */
+    private static long spread(int value) {
+        long v = value & 0x7fffffffL;
+        v = (v | (v << 16)) & 0x0000ffff0000ffffL;
+        v = (v | (v << 8)) & 0x00ff00ff00ff00ffL;
+        v = (v | (v << 4)) & 0x0f0f0f0f0f0f0f0fL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+
+    /**
+     * Gathers the even bits of a long back into an int
+     *
+     * @param key
+     *            The bits to gather
+     * @return The gathered value
+     */
+    private static int compact(long key) {
+        long v = key & 0x5555555555555555L;
+        v = (v | (v >>> 1)) & 0x3333333333333333L;
+        v = (v | (v >>> 2)) & 0x0f0f0f0f0f0f0f0fL;
+        v = (v | (v >>> 4)) & 0x00ff00ff00ff00ffL;
+        v = (v | (v >>> 8)) & 0x0000ffff0000ffffL;
+        v = (v | (v >>> 16)) & 0x00000000ffffffffL;
+        return (int)v;
+    }
+
+
+    /**
+     * Builds the key of a location
+     *
+     * @param x
+     *            The x-coordinate, non-negative
+     * @param y
+     *            The y-coordinate, non-negative
+     * @return The Morton key
+     */
+    public static long encode(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+
+    /**
+     * Gets the x-coordinate back out of a key
+     *
+     * @param key
+     *            The Morton key
+     * @return The x-coordinate
+     */
+    public static int decodeX(long key) {
+        return compact(key);
+    }
+
+
+    /**
+     * Gets the y-coordinate back out of a key
+     *
+     * @param key
+     *            The Morton key
+     * @return The y-coordinate
+     */
+    public static int decodeY(long key) {
+        return compact(key >>> 1);
+    }
+
+
+    /**
+     * Stably sorts positions by key. Equal keys keep their original order,
+     * so points at one location stay in the order they were given.
+     *
+     * @param keys
+     *            The keys to order, left unchanged
+     * @return The indexes of keys in ascending key order
+     */
+    public static int[] order(long[] keys) {
+        int n = keys.length;
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        mergeSort(keys, index, new int[n], 0, n);
+        return index;
+    }
+
+
+    /**
+     * Merge sorts a range of indexes by the keys they refer to
+     *
+     * @param keys
+     *            The keys to compare
+     * @param index
+     *            The indexes to sort
+     * @param temp
+     *            Scratch space the size of index
+     * @param lo
+     *            First position of the range
+     * @param hi
+     *            One past the last position of the range
+     */
+    private static void mergeSort(
+        long[] keys,
+        int[] index,
+        int[] temp,
+        int lo,
+        int hi) {
+        if (hi - lo < 2) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(keys, index, temp, lo, mid);
+        mergeSort(keys, index, temp, mid, hi);
+        if (keys[index[mid - 1]] <= keys[index[mid]]) {
+            // Already in order, common for pre-sorted input
+            return;
+        }
+
+        int left = lo;
+        int right = mid;
+        for (int i = lo; i < hi; i++) {
+            if (right >= hi || (left < mid && keys[index[left]] <= keys[
+                index[right]])) {
+                temp[i] = index[left++];
+            }
+            else {
+                temp[i] = index[right++];
+            }
+        }
+        System.arraycopy(temp, lo, index, lo, hi - lo);
+    }
+
+
+    /**
+     * Finds the first index in a sorted key range whose key is at least the
+     * given key
+     *
+     * @param keys
+     *            The sorted keys
+     * @param lo
+     *            First index of the range
+     * @param hi
+     *            One past the last index of the range
+     * @param key
+     *            The key to look for
+     * @return The first index with a key no less than key, or hi
+     */
+    public static int lowerBound(long[] keys, int lo, int hi, long key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,76 @@
+import student.TestCase;
+
+/**
+ * Tests the Morton key helpers
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class MortonTest extends TestCase {
+
+    /**
+     * Tests encoding and decoding keys
+     */
+    public void testEncodeDecode() {
+        assertEquals(0L, Morton.encode(0, 0));
+        assertEquals(1L, Morton.encode(1, 0));
+        assertEquals(2L, Morton.encode(0, 1));
+        assertEquals(3L, Morton.encode(1, 1));
+        assertEquals(4L, Morton.encode(2, 0));
+
+        int[] values = { 0, 1, 5, 511, 512, 1023, 1 << 20, Integer.MAX_VALUE };
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < values.length; j++) {
+                long key = Morton.encode(values[i], values[j]);
+                assertEquals(values[i], Morton.decodeX(key));
+                assertEquals(values[j], Morton.decodeY(key));
+            }
+        }
+    }
+
+
+    /**
+     * Tests that key order follows quadrant order (NW, NE, SW, SE)
+     */
+    public void testQuadrantOrder() {
+        long nw = Morton.encode(511, 511);
+        long ne = Morton.encode(512, 0);
+        long sw = Morton.encode(0, 512);
+        long se = Morton.encode(512, 512);
+        assertTrue(nw < ne);
+        assertTrue(ne < sw);
+        assertTrue(sw < se);
+    }
+
+
+    /**
+     * Tests the stable ordering of keys
+     */
+    public void testOrder() {
+        long[] keys = { 5, 3, 5, 1, 3, 9 };
+        int[] order = Morton.order(keys);
+        int[] expected = { 3, 1, 4, 0, 2, 5 };
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(expected[i], order[i]);
+        }
+        assertEquals(0, Morton.order(new long[0]).length);
+
+        long[] sorted = { 1, 2, 3 };
+        order = Morton.order(sorted);
+        assertEquals(0, order[0]);
+        assertEquals(2, order[2]);
+    }
+
+
+    /**
+     * Tests the binary search helper
+     */
+    public void testLowerBound() {
+        long[] keys = { 1, 3, 3, 7 };
+        assertEquals(0, Morton.lowerBound(keys, 0, 4, 0));
+        assertEquals(1, Morton.lowerBound(keys, 0, 4, 3));
+        assertEquals(3, Morton.lowerBound(keys, 0, 4, 4));
+        assertEquals(4, Morton.lowerBound(keys, 0, 4, 8));
+        assertEquals(2, Morton.lowerBound(keys, 2, 4, 1));
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Interface for the index that organizes points by name. SkipList is the
+ * single-threaded implementation and ConcurrentSkipList the one that can be
+ * shared between threads.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ * @param <K>
+ *            Key
+ * @param <V>
+ *            Value
+ */
+public interface NameIndex<K extends Comparable<K>, V>
+    extends Iterable<KVPair<K, V>> {
+
+    /**
+     * Inserts a KVPair in front of any pairs with an equal key
+     *
+     * @param it
+     *            the KVPair to be inserted
+     */
+    public void insert(KVPair<K, V> it);
+
+
+    /**
+     * Adds pairs that are already sorted by key, keeping equal keys in the
+     * order they arrive
+     *
+     * @param sorted
+     *            the pairs in ascending key order
+     */
+    public void buildFromSorted(Iterator<KVPair<K, V>> sorted);
+
+
+    /**
+     * Inserts a batch of pairs, giving the same result as inserting them
+     * one by one in order
+     *
+     * @param batch
+     *            the pairs, in insertion order
+     */
+    public default void insertAll(List<KVPair<K, V>> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            insert(batch.get(i));
+        }
+    }
+
+
+    /**
+     * Removes the first KVPair with the given key
+     *
+     * @param key
+     *            the key of the KVPair to be removed
+     * @return the removed pair, or null if the key was not found
+     */
+    public KVPair<K, V> remove(K key);
+
+
+    /**
+     * Removes the KVPair with the given key whose value is the given object
+     *
+     * @param key
+     *            the key of the KVPair to be removed
+     * @param val
+     *            the exact value object of the KVPair to be removed
+     * @return the removed pair, or null if it was not found
+     */
+    public KVPair<K, V> remove(K key, V val);
+
+
+    /**
+     * Searches for every KVPair with the given key
+     *
+     * @param key
+     *            key to be searched for
+     * @return the matching KVPairs
+     */
+    public ArrayList<KVPair<K, V>> search(K key);
+
+
+    /**
+     * Iterates lazily over the pairs whose keys fall in a range, in key
+     * order. Finding the first pair takes one descent; every pair after it
+     * is one step along the bottom level.
+     *
+     * @param from
+     *            the smallest key wanted, or null to start at the first pair
+     * @param to
+     *            the end of the range, or null to run to the last pair
+     * @param toInclusive
+     *            true to include keys equal to to
+     * @return the iterator; the index must not change while it is in use,
+     *         unless the index is safe to share between threads
+     */
+    public Iterator<KVPair<K, V>> range(K from, K to, boolean toInclusive);
+
+
+    /**
+     * Iterates lazily over the pairs with from <= key <= to, in key order
+     *
+     * @param from
+     *            the smallest key wanted, or null to start at the first pair
+     * @param to
+     *            the largest key wanted, or null to run to the last pair
+     * @return the iterator
+     */
+    public default Iterator<KVPair<K, V>> range(K from, K to) {
+        return range(from, to, true);
+    }
+
+
+    /**
+     * Iterates lazily over the pairs of a String-keyed index whose keys
+     * start with a prefix, in key order. Those keys are exactly the ones
+     * from the prefix up to, but not including, the prefix with its last
+     * character raised by one.
+     *
+     * @param <V>
+     *            Value
+     * @param index
+     *            the index
+     * @param prefix
+     *            the prefix
+     * @return the iterator
+     */
+    public static <V> Iterator<KVPair<String, V>> prefix(
+        NameIndex<String, V> index,
+        String prefix) {
+        // A trailing run of the largest char cannot be raised, so it is
+        // dropped and the char before it raised instead
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            return index.range(prefix, null, false);
+        }
+        String bound = prefix.substring(0, end - 1) + (char)(prefix.charAt(
+            end - 1) + 1);
+        return index.range(prefix, bound, false);
+    }
+
+
+    /**
+     * @return the number of pairs in the index
+     */
+    public int size();
+
+
+    /**
+     * Prints out the index in a human readable format to the console
+     */
+    public default void dump() {
+        OutputSink out = new OutputSink();
+        dump(out);
+        out.flush();
+    }
+
+
+    /**
+     * Writes the index in a human readable format to an output sink
+     *
+     * @param out
+     *            Where to write the dump
+     */
+    public void dump(OutputSink out);
+}
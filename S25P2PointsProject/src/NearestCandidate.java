@@ -0,0 +1,220 @@
+/**
+ * A region or point waiting in a nearest search queue. Candidates are
+ * ordered by distance, regions before points at the same distance, and then
+ * by when they were queued, so QuadTree and LinearQuadTree pop them in the
+ * same order and give the same points and node counts, ties included.
+ *
+ * A region is either a QuadTree node or a LinearQuadTree run; the fields
+ * the other backend does not use are left null or 0.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+class NearestCandidate implements Comparable<NearestCandidate> {
+    private final QuadNode node;
+    private final int lo;
+    private final int hi;
+    private final Point point;
+    private final int regionX;
+    private final int regionY;
+    private final int size;
+    private final long distance;
+    private final long order;
+
+    /**
+     * Creates a candidate for a QuadTree node
+     *
+     * @param node
+     *            The node
+     * @param regionX
+     *            The x-coordinate of the node's region
+     * @param regionY
+     *            The y-coordinate of the node's region
+     * @param size
+     *            The size of the node's region
+     * @param distance
+     *            Squared distance to the region
+     * @param order
+     *            When the candidate was queued
+     */
+    NearestCandidate(
+        QuadNode node,
+        int regionX,
+        int regionY,
+        int size,
+        long distance,
+        long order) {
+        this(node, 0, 0, null, regionX, regionY, size, distance, order);
+    }
+
+
+    /**
+     * Creates a candidate for a LinearQuadTree run
+     *
+     * @param lo
+     *            First index of the region's run
+     * @param hi
+     *            One past the last index of the region's run
+     * @param regionX
+     *            The x-coordinate of the region
+     * @param regionY
+     *            The y-coordinate of the region
+     * @param size
+     *            The size of the region
+     * @param distance
+     *            Squared distance to the region
+     * @param order
+     *            When the candidate was queued
+     */
+    NearestCandidate(
+        int lo,
+        int hi,
+        int regionX,
+        int regionY,
+        int size,
+        long distance,
+        long order) {
+        this(null, lo, hi, null, regionX, regionY, size, distance, order);
+    }
+
+
+    /**
+     * Creates a candidate for a point
+     *
+     * @param point
+     *            The point
+     * @param distance
+     *            Squared distance to the point
+     * @param order
+     *            When the candidate was queued
+     */
+    NearestCandidate(Point point, long distance, long order) {
+        this(null, 0, 0, point, 0, 0, 0, distance, order);
+    }
+
+
+    /**
+     * Sets every field
+     *
+     * @param node
+     *            The node, or null
+     * @param lo
+     *            First index of the run, or 0
+     * @param hi
+     *            One past the last index of the run, or 0
+     * @param point
+     *            The point, or null for a region
+     * @param regionX
+     *            The x-coordinate of the region, or 0
+     * @param regionY
+     *            The y-coordinate of the region, or 0
+     * @param size
+     *            The size of the region, or 0
+     * @param distance
+     *            Squared distance to the region or point
+     * @param order
+     *            When the candidate was queued
+     */
+    private NearestCandidate(
+        QuadNode node,
+        int lo,
+        int hi,
+        Point point,
+        int regionX,
+        int regionY,
+        int size,
+        long distance,
+        long order) {
+        this.node = node;
+        this.lo = lo;
+        this.hi = hi;
+        this.point = point;
+        this.regionX = regionX;
+        this.regionY = regionY;
+        this.size = size;
+        this.distance = distance;
+        this.order = order;
+    }
+
+
+    /**
+     * Gets the node
+     *
+     * @return The QuadTree node, or null
+     */
+    QuadNode getNode() {
+        return node;
+    }
+
+
+    /**
+     * Gets the start of the run
+     *
+     * @return First index of the LinearQuadTree run
+     */
+    int getLo() {
+        return lo;
+    }
+
+
+    /**
+     * Gets the end of the run
+     *
+     * @return One past the last index of the LinearQuadTree run
+     */
+    int getHi() {
+        return hi;
+    }
+
+
+    /**
+     * Gets the point
+     *
+     * @return The point, or null if this is a region
+     */
+    Point getPoint() {
+        return point;
+    }
+
+
+    /**
+     * Gets the x-coordinate of the region
+     *
+     * @return The x-coordinate
+     */
+    int getRegionX() {
+        return regionX;
+    }
+
+
+    /**
+     * Gets the y-coordinate of the region
+     *
+     * @return The y-coordinate
+     */
+    int getRegionY() {
+        return regionY;
+    }
+
+
+    /**
+     * Gets the size of the region
+     *
+     * @return The size
+     */
+    int getSize() {
+        return size;
+    }
+
+
+    @Override
+    public int compareTo(NearestCandidate other) {
+        if (distance != other.distance) {
+            return Long.compare(distance, other.distance);
+        }
+        if ((point == null) != (other.point == null)) {
+            return point == null ? -1 : 1;
+        }
+        return Long.compare(order, other.order);
+    }
+}
@@ -0,0 +1,44 @@
+import java.util.PriorityQueue;
+import student.TestCase;
+
+/**
+ * Tests the NearestCandidate class
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class NearestCandidateTest extends TestCase {
+
+    /**
+     * Tests candidates pop by distance, regions before points at equal
+     * distance, and then in the order they were queued
+     */
+    public void testOrder() {
+        Point near = new Point("near", 1, 1);
+        Point tie = new Point("tie", 2, 2);
+        PriorityQueue<NearestCandidate> queue = new PriorityQueue<>();
+        queue.add(new NearestCandidate(tie, 4, 3));
+        queue.add(new NearestCandidate(near, 1, 0));
+        queue.add(new NearestCandidate(5, 9, 8, 8, 8, 4, 2));
+        queue.add(new NearestCandidate(EmptyNode.getInstance(), 0, 0, 16, 4,
+            1));
+
+        NearestCandidate first = queue.poll();
+        assertEquals(near, first.getPoint());
+        assertNull(first.getNode());
+
+        NearestCandidate second = queue.poll();
+        assertNotNull(second.getNode());
+        assertEquals(16, second.getSize());
+
+        NearestCandidate third = queue.poll();
+        assertNull(third.getPoint());
+        assertEquals(5, third.getLo());
+        assertEquals(9, third.getHi());
+        assertEquals(8, third.getRegionX());
+        assertEquals(8, third.getRegionY());
+
+        assertEquals(tie, queue.poll().getPoint());
+        assertTrue(queue.isEmpty());
+    }
+}
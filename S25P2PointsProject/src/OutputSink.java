@@ -0,0 +1,303 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+
+/**
+ * A buffered destination for command output. Text and numbers are written
+ * straight into a byte buffer (ints are formatted digit by digit, with no
+ * intermediate String) and the buffer goes to the underlying stream in one
+ * write when it fills or is flushed.
+ *
+ * An auto-flushing sink flushes at the end of every command, which keeps
+ * output visible right away for interactive use and tests. A batch sink only
+ * writes when its buffer is full or flush() is called, typically once after
+ * a whole command file.
+ *
+ * Not thread-safe; callers sharing a sink synchronize on it.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class OutputSink {
+
+    // Bytes buffered before a write to the stream
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    // Digits of Integer.MIN_VALUE plus its sign
+    private static final int MAX_INT_CHARS = 11;
+
+    private OutputStream stream;
+    private final boolean autoFlush;
+    private final byte[] buffer;
+    private final byte[] digits;
+    private int count;
+
+    /**
+     * Creates an auto-flushing sink that writes to whatever System.out is
+     * at the time of each flush
+     */
+    public OutputSink() {
+        this(null, true);
+    }
+
+
+    /**
+     * Creates a sink over a stream
+     *
+     * @param stream
+     *            The stream to write to, or null for the current System.out
+     * @param autoFlush
+     *            True to flush at the end of every command
+     */
+    public OutputSink(OutputStream stream, boolean autoFlush) {
+        this(stream, autoFlush, DEFAULT_CAPACITY);
+    }
+
+
+    /**
+     * Creates a sink over a stream with a given buffer size
+     *
+     * @param stream
+     *            The stream to write to, or null for the current System.out
+     * @param autoFlush
+     *            True to flush at the end of every command
+     * @param capacity
+     *            The buffer size in bytes
+     */
+    public OutputSink(OutputStream stream, boolean autoFlush, int capacity) {
+        this.stream = stream;
+        this.autoFlush = autoFlush;
+        buffer = new byte[Math.max(capacity, MAX_INT_CHARS)];
+        digits = new byte[MAX_INT_CHARS];
+        count = 0;
+    }
+
+
+    /**
+     * Appends a string. ASCII characters are copied byte by byte; anything
+     * else is encoded with the platform charset, as System.out would.
+     *
+     * @param text
+     *            The text to append
+     * @return This sink
+     */
+    public OutputSink print(String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                write(text.substring(i).getBytes());
+                return this;
+            }
+            if (count == buffer.length) {
+                drain();
+            }
+            buffer[count++] = (byte)c;
+        }
+        return this;
+    }
+
+
+    /**
+     * Appends a single ASCII character
+     *
+     * @param c
+     *            The character to append
+     * @return This sink
+     */
+    public OutputSink print(char c) {
+        if (c >= 0x80) {
+            return print(String.valueOf(c));
+        }
+        if (count == buffer.length) {
+            drain();
+        }
+        buffer[count++] = (byte)c;
+        return this;
+    }
+
+
+    /**
+     * Appends an int in decimal without creating a String
+     *
+     * @param value
+     *            The value to append
+     * @return This sink
+     */
+    public OutputSink print(int value) {
+        if (buffer.length - count < MAX_INT_CHARS) {
+            drain();
+        }
+
+        // Work with the negative value so MIN_VALUE needs no special case
+        int v = value < 0 ? value : -value;
+        int pos = MAX_INT_CHARS;
+        do {
+            digits[--pos] = (byte)('0' - (v % 10));
+            v /= 10;
+        }
+        while (v != 0);
+        if (value < 0) {
+            digits[--pos] = '-';
+        }
+
+        int length = MAX_INT_CHARS - pos;
+        System.arraycopy(digits, pos, buffer, count, length);
+        count += length;
+        return this;
+    }
+
+
+    /**
+     * Appends two spaces per indentation level
+     *
+     * @param levels
+     *            The indentation level
+     * @return This sink
+     */
+    public OutputSink indent(int levels) {
+        for (int i = 0; i < levels; i++) {
+            print(' ');
+            print(' ');
+        }
+        return this;
+    }
+
+
+    /**
+     * Ends the current line
+     *
+     * @return This sink
+     */
+    public OutputSink println() {
+        return print('\n');
+    }
+
+
+    /**
+     * Appends a string and ends the line
+     *
+     * @param text
+     *            The text to append
+     * @return This sink
+     */
+    public OutputSink println(String text) {
+        return print(text).print('\n');
+    }
+
+
+    /**
+     * Marks the end of one command's output. An auto-flushing sink writes
+     * it out now; a batch sink keeps buffering.
+     */
+    public void endCommand() {
+        if (autoFlush) {
+            flush();
+        }
+    }
+
+
+    /**
+     * Writes everything buffered to the stream and flushes the stream
+     */
+    public void flush() {
+        drain();
+        try {
+            target().flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Sends everything buffered so far to the current stream, without
+     * flushing it, and later output to another one
+     *
+     * @param to
+     *            The stream to write to from now on, or null for the
+     *            current System.out
+     * @return The stream written to until now, or null if that was
+     *         System.out
+     */
+    OutputStream redirect(OutputStream to) {
+        drain();
+        OutputStream from = stream;
+        stream = to;
+        return from;
+    }
+
+
+    /**
+     * Gets the number of bytes waiting in the buffer
+     *
+     * @return The buffered byte count
+     */
+    public int buffered() {
+        return count;
+    }
+
+
+    /**
+     * Appends raw bytes, writing them through if they do not fit
+     *
+     * @param bytes
+     *            The bytes to append
+     */
+    private void write(byte[] bytes) {
+        if (bytes.length > buffer.length - count) {
+            drain();
+        }
+        if (bytes.length > buffer.length) {
+            writeToStream(bytes, bytes.length);
+            return;
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+
+    /**
+     * Writes the buffer to the stream without flushing the stream
+     */
+    private void drain() {
+        if (count > 0) {
+            writeToStream(buffer, count);
+            count = 0;
+        }
+    }
+
+
+    /**
+     * Writes bytes to the target stream
+     *
+     * @param bytes
+     *            The bytes to write
+     * @param length
+     *            How many bytes to write
+     */
+    private void writeToStream(byte[] bytes, int length) {
+        try {
+            target().write(bytes, 0, length);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Gets the stream to write to
+     *
+     * @return The stream given at construction, or the current System.out
+     */
+    private OutputStream target() {
+        if (stream != null) {
+            return stream;
+        }
+        PrintStream out = System.out;
+        return out;
+    }
+}
@@ -0,0 +1,96 @@
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import student.TestCase;
+
+/**
+ * This class tests the methods of the OutputSink class
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class OutputSinkTest extends TestCase {
+
+    private ByteArrayOutputStream bytes;
+    private OutputSink sink;
+
+    /**
+     * Sets up the tests that follow. In general, used for initialization
+     */
+    public void setUp() {
+        bytes = new ByteArrayOutputStream();
+        sink = new OutputSink(bytes, false);
+    }
+
+
+    /**
+     * Tests ints are formatted like Integer.toString
+     */
+    public void testPrintInt() {
+        int[] values = { 0, 7, -7, 10, 1024, -1000, Integer.MAX_VALUE,
+            Integer.MIN_VALUE };
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            sink.print(values[i]).print(' ');
+            expected.append(values[i]).append(' ');
+        }
+        sink.flush();
+        assertEquals(expected.toString(), bytes.toString());
+    }
+
+
+    /**
+     * Tests text, characters, indentation and line endings
+     */
+    public void testPrintText() {
+        sink.indent(2).print("Node at ").print(0).print(' ').println("Empty");
+        sink.println().println("caf\u00e9");
+        sink.flush();
+        String expected = "    Node at 0 Empty\n\ncaf\u00e9\n";
+        assertTrue(Arrays.equals(expected.getBytes(), bytes.toByteArray()));
+    }
+
+
+    /**
+     * Tests a batch sink holds output until flushed and an auto-flushing
+     * sink writes it at the end of each command
+     */
+    public void testFlushPolicy() {
+        sink.println("one");
+        sink.endCommand();
+        assertEquals(4, sink.buffered());
+        assertEquals("", bytes.toString());
+        sink.flush();
+        assertEquals(0, sink.buffered());
+        assertEquals("one\n", bytes.toString());
+
+        OutputSink auto = new OutputSink(bytes, true);
+        auto.println("two");
+        auto.endCommand();
+        assertEquals("one\ntwo\n", bytes.toString());
+
+        OutputSink console = new OutputSink();
+        console.println("three");
+        console.endCommand();
+        assertEquals("three\n", systemOut().getHistory());
+    }
+
+
+    /**
+     * Tests output larger than the buffer is written through in order
+     */
+    public void testSmallBuffer() {
+        sink = new OutputSink(bytes, false, 16);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sink.print("point").print(i).println();
+            expected.append("point").append(i).append('\n');
+        }
+        // Longer than the buffer once encoded
+        String wide = "\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9";
+        sink.print(wide);
+        expected.append(wide);
+        sink.flush();
+        assertTrue(Arrays.equals(expected.toString().getBytes(), bytes
+            .toByteArray()));
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A duplicates scan that runs on a ForkJoinPool. Internal nodes whose region
+ * is at least the fork size get one task per child; smaller regions, and
+ * all leaves, are scanned by the worker thread's QuadTreeWalker inside their
+ * task. It forks at the same fork size as ParallelRegionSearch, taken from
+ * ParallelRegionSearch.forkSize().
+ *
+ * Every task gathers locations into its own CoordinateList, and a parent
+ * appends its children's lists in quadrant order once they finish. Points
+ * at one location always share a leaf, so the children's lists never
+ * overlap and the result lists the locations in the same order as the
+ * sequential scan. The lists are appended without checking for repeats.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class ParallelDuplicates extends RecursiveTask<Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final QuadNode node;
+    private final int regionX;
+    private final int regionY;
+    private final int size;
+    private final int forkSize;
+    private final CoordinateList duplicates;
+
+    /**
+     * Creates a scan of one subtree
+     *
+     * @param node
+     *            The subtree root
+     * @param regionX
+     *            The x-coordinate of the subtree's region
+     * @param regionY
+     *            The y-coordinate of the subtree's region
+     * @param size
+     *            The size of the subtree's region
+     * @param forkSize
+     *            Smallest region size whose children are forked
+     */
+    public ParallelDuplicates(
+        QuadNode node,
+        int regionX,
+        int regionY,
+        int size,
+        int forkSize) {
+        this.node = node;
+        this.regionX = regionX;
+        this.regionY = regionY;
+        this.size = size;
+        this.forkSize = forkSize;
+        duplicates = new CoordinateList();
+    }
+
+
+    /**
+     * Gets the locations this task found, valid once it has completed
+     *
+     * @return The duplicate locations, in sequential scan order
+     */
+    public CoordinateList getDuplicates() {
+        return duplicates;
+    }
+
+
+    /**
+     * Scans the subtree
+     *
+     * @return Number of nodes visited
+     */
+    @Override
+    protected Integer compute() {
+        if (!(node instanceof InternalNode) || size < forkSize) {
+            return QuadTree.walker().findDuplicates(node, duplicates);
+        }
+
+        InternalNode internal = (InternalNode)node;
+        int halfSize = size / 2;
+        ParallelDuplicates[] tasks = new ParallelDuplicates[4];
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            tasks[quadrant] = new ParallelDuplicates(internal.getChild(
+                quadrant), regionX + (quadrant % 2) * halfSize, regionY
+                    + (quadrant / 2) * halfSize, halfSize, forkSize);
+        }
+
+        // Fork the first three children and scan the last one here
+        for (int quadrant = 0; quadrant < 3; quadrant++) {
+            tasks[quadrant].fork();
+        }
+        int nodesVisited = 1 + tasks[3].compute();
+        for (int quadrant = 0; quadrant < 3; quadrant++) {
+            nodesVisited += tasks[quadrant].join();
+            duplicates.appendDisjoint(tasks[quadrant].duplicates);
+        }
+        duplicates.appendDisjoint(tasks[3].duplicates);
+        return nodesVisited;
+    }
+}
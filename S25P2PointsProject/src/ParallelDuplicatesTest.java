@@ -0,0 +1,97 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import student.TestCase;
+
+/**
+ * Tests the ParallelDuplicates class against the sequential duplicates scan
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class ParallelDuplicatesTest extends TestCase {
+
+    private QuadTree tree;
+    private ForkJoinPool pool;
+
+    /**
+     * Sets up the tests that follow. In general, used for initialization
+     */
+    public void setUp() {
+        tree = new QuadTree();
+        pool = new ForkJoinPool(4);
+    }
+
+
+    /**
+     * Cleans up after each test
+     */
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+
+    /**
+     * Tests a tree with many duplicate locations gives the same locations,
+     * in the same order, and the same node count at several fork sizes
+     */
+    public void testMatchesSequential() {
+        Random random = new Random(8);
+        for (int i = 0; i < 4000; i++) {
+            // Few enough locations that most of them repeat
+            tree.insert(new Point("p" + i, random.nextInt(40) * 25, random
+                .nextInt(40) * 25));
+        }
+        DuplicatesResult expected = tree.findDuplicates();
+        assertTrue(expected.getDuplicates().size() > 1000);
+
+        int[] forkSizes = { 1, 2, 64, 128, 2048 };
+        for (int i = 0; i < forkSizes.length; i++) {
+            ParallelDuplicates task = new ParallelDuplicates(tree.getRoot(),
+                0, 0, 1024, forkSizes[i]);
+            int nodesVisited = pool.invoke(task);
+            assertEquals(expected.getNodesVisited(), nodesVisited);
+            assertSameLocations(expected.getDuplicates(), task
+                .getDuplicates());
+        }
+    }
+
+
+    /**
+     * Tests the QuadTree and ConcurrentQuadTree entry points
+     */
+    public void testQuadTreeEntryPoints() {
+        assertEquals(1, tree.findDuplicates(pool).getNodesVisited());
+        tree.insert(new Point("a", 700, 700));
+        tree.insert(new Point("b", 700, 700));
+        tree.insert(new Point("c", 700, 700));
+        tree.insert(new Point("d", 5, 5));
+        tree.insert(new Point("e", 5, 5));
+        DuplicatesResult result = tree.findDuplicates(pool);
+        assertSameLocations(tree.findDuplicates().getDuplicates(), result
+            .getDuplicates());
+        assertEquals(2, result.getDuplicates().size());
+
+        ConcurrentQuadTree shared = new ConcurrentQuadTree();
+        shared.insert(new Point("a", 1, 1));
+        shared.insert(new Point("b", 1, 1));
+        assertEquals(1, shared.findDuplicates(pool).getDuplicates().size());
+    }
+
+
+    /**
+     * Checks two coordinate lists hold the same locations in the same order
+     *
+     * @param expected
+     *            The expected locations
+     * @param actual
+     *            The actual locations
+     */
+    private void assertSameLocations(
+        CoordinateList expected,
+        CoordinateList actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(expected.get(i).equals(actual.get(i)));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A region search that runs on a ForkJoinPool. Internal nodes whose region
+ * is at least the fork size get one task per child the query rectangle
+ * touches; smaller regions, and all leaves, are searched by the worker
+ * thread's QuadTreeWalker inside their task. forkSize() scales the fork
+ * size with the world, so only the top few levels fork however large the
+ * world is.
+ *
+ * Every task gathers points into its own PointList, and a parent appends its
+ * children's lists in quadrant order once they finish. The result therefore
+ * lists the points in the same order as the sequential search, and the node
+ * count is the sum of the same per-node counts.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class ParallelRegionSearch extends RecursiveTask<Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    // Levels below the root whose internal nodes fork their children
+    static final int FORK_LEVELS = 3;
+
+    private final QuadNode node;
+    private final int x;
+    private final int y;
+    private final int w;
+    private final int h;
+    private final int regionX;
+    private final int regionY;
+    private final int size;
+    private final int forkSize;
+    private final PointList results;
+
+    /**
+     * Creates a search of one subtree
+     *
+     * @param node
+     *            The subtree root
+     * @param x
+     *            The x-coordinate of the query rectangle
+     * @param y
+     *            The y-coordinate of the query rectangle
+     * @param w
+     *            The width of the query rectangle
+     * @param h
+     *            The height of the query rectangle
+     * @param regionX
+     *            The x-coordinate of the subtree's region
+     * @param regionY
+     *            The y-coordinate of the subtree's region
+     * @param size
+     *            The size of the subtree's region
+     * @param forkSize
+     *            Smallest region size whose children are forked
+     */
+    public ParallelRegionSearch(
+        QuadNode node,
+        int x,
+        int y,
+        int w,
+        int h,
+        int regionX,
+        int regionY,
+        int size,
+        int forkSize) {
+        this.node = node;
+        this.x = x;
+        this.y = y;
+        this.w = w;
+        this.h = h;
+        this.regionX = regionX;
+        this.regionY = regionY;
+        this.size = size;
+        this.forkSize = forkSize;
+        results = new PointList();
+    }
+
+
+    /**
+     * Gets the fork size for a world: the top FORK_LEVELS + 1 levels fork,
+     * so a search makes at most 4^(FORK_LEVELS + 1) tasks. ParallelDuplicates
+     * forks at the same size.
+     *
+     * @param worldSize
+     *            The size of the world
+     * @return Smallest region size whose children are forked
+     */
+    static int forkSize(int worldSize) {
+        return Math.max(1, worldSize >> FORK_LEVELS);
+    }
+
+
+    /**
+     * Gets the points this task found, valid once it has completed
+     *
+     * @return The points, in sequential search order
+     */
+    public PointList getResults() {
+        return results;
+    }
+
+
+    /**
+     * Searches the subtree
+     *
+     * @return Number of nodes visited
+     */
+    @Override
+    protected Integer compute() {
+        // A rectangle with no area can touch a region only along a split
+        // line, where no child intersects it; the walker counts that case
+        if (!(node instanceof InternalNode) || size < forkSize || w <= 0
+            || h <= 0) {
+            return QuadTree.walker().regionsearch(node, x, y, w, h, regionX,
+                regionY, size, results);
+        }
+
+        int nodesVisited = 1;
+        if (!InternalNode.isIntersecting(x, y, w, h, regionX, regionY,
+            size)) {
+            return nodesVisited;
+        }
+
+        InternalNode internal = (InternalNode)node;
+        int halfSize = size / 2;
+        ParallelRegionSearch[] tasks = new ParallelRegionSearch[4];
+        int last = -1;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            int childX = regionX + (quadrant % 2) * halfSize;
+            int childY = regionY + (quadrant / 2) * halfSize;
+            if (InternalNode.isIntersecting(x, y, w, h, childX, childY,
+                halfSize)) {
+                tasks[quadrant] = new ParallelRegionSearch(internal.getChild(
+                    quadrant), x, y, w, h, childX, childY, halfSize,
+                    forkSize);
+                last = quadrant;
+            }
+        }
+
+        // Fork all but the last touched child and search that one here
+        for (int quadrant = 0; quadrant < last; quadrant++) {
+            if (tasks[quadrant] != null) {
+                tasks[quadrant].fork();
+            }
+        }
+        nodesVisited += tasks[last].compute();
+        for (int quadrant = 0; quadrant < last; quadrant++) {
+            if (tasks[quadrant] != null) {
+                nodesVisited += tasks[quadrant].join();
+                results.addAll(tasks[quadrant].results);
+            }
+        }
+        results.addAll(tasks[last].results);
+        return nodesVisited;
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import student.TestCase;
+
+/**
+ * Tests the ParallelRegionSearch class against the sequential region search
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class ParallelRegionSearchTest extends TestCase {
+
+    private QuadTree tree;
+    private ForkJoinPool pool;
+
+    /**
+     * Sets up the tests that follow. In general, used for initialization
+     */
+    public void setUp() {
+        tree = new QuadTree();
+        pool = new ForkJoinPool(4);
+        Random random = new Random(17);
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(1024);
+            int y = random.nextInt(1024);
+            if (i % 5 == 0) {
+                x = 300 + random.nextInt(4);
+                y = 700;
+            }
+            tree.insert(new Point("p" + i, x, y));
+        }
+    }
+
+
+    /**
+     * Cleans up after each test
+     */
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+
+    /**
+     * Tests random rectangles give the same points, in the same order, and
+     * the same node counts at several fork sizes
+     */
+    public void testMatchesSequential() {
+        Random random = new Random(4);
+        int[] forkSizes = { 1, 2, 64, 128, 2048 };
+        for (int query = 0; query < 100; query++) {
+            int x = random.nextInt(1100) - 40;
+            int y = random.nextInt(1100) - 40;
+            int w = random.nextInt(600);
+            int h = random.nextInt(600);
+            if (query % 10 == 0) {
+                // Zero-width queries on the split lines
+                x = 512;
+                w = 0;
+            }
+            RegionSearchResult expected = tree.regionsearch(x, y, w, h);
+            for (int i = 0; i < forkSizes.length; i++) {
+                ParallelRegionSearch task = new ParallelRegionSearch(tree
+                    .getRoot(), x, y, w, h, 0, 0, 1024, forkSizes[i]);
+                int nodesVisited = pool.invoke(task);
+                assertEquals(expected.getNodesVisited(), nodesVisited);
+                assertSamePoints(expected.getPoints(), task.getResults());
+            }
+        }
+    }
+
+
+    /**
+     * Tests the QuadTree and ConcurrentQuadTree entry points
+     */
+    public void testQuadTreeEntryPoints() {
+        RegionSearchResult expected = tree.regionsearch(0, 0, 1024, 1024);
+        RegionSearchResult actual = tree.regionsearch(0, 0, 1024, 1024, pool);
+        assertEquals(expected.getNodesVisited(), actual.getNodesVisited());
+        assertSamePoints(expected.getPoints(), actual.getPoints());
+
+        ConcurrentQuadTree shared = new ConcurrentQuadTree();
+        assertEquals(1, shared.regionsearch(0, 0, 10, 10, pool)
+            .getNodesVisited());
+        shared.insert(new Point("a", 5, 5));
+        assertEquals(1, shared.regionsearch(0, 0, 10, 10, pool).getPoints()
+            .size());
+    }
+
+
+    /**
+     * Checks two point lists hold the same points in the same order
+     *
+     * @param expected
+     *            The expected points
+     * @param actual
+     *            The actual points
+     */
+    private void assertSamePoints(PointList expected, PointList actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i));
+        }
+    }
+}
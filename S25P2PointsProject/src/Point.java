@@ -87,6 +87,22 @@ public class Point {
     }
 
 
+    /**
+     * Gets the squared distance from this point to a location
+     * 
+     * @param px
+     *            The x-coordinate of the location
+     * @param py
+     *            The y-coordinate of the location
+     * @return The squared Euclidean distance
+     */
+    public long distanceSquared(int px, int py) {
+        long dx = (long)this.x - px;
+        long dy = (long)this.y - py;
+        return dx * dx + dy * dy;
+    }
+
+
     /**
      * String representation of the point
      * 
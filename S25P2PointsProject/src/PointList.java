@@ -1,11 +1,17 @@
 /**
  * A simple list implementation for storing Point objects
  * 
+ * The coordinates are also kept in their own int columns, so scans that only
+ * compare locations (rectangle tests, duplicate checks) run over two
+ * primitive arrays and only touch a Point when it is added to a result.
+ * 
  * @author michaelo48
  * @version 03.07.2025
  */
 public class PointList {
     private Point[] points;
+    private int[] xs;
+    private int[] ys;
     private int size;
     private static final int DEFAULT_CAPACITY = 10;
 
@@ -14,6 +20,8 @@ public class PointList {
      */
     public PointList() {
         points = new Point[DEFAULT_CAPACITY];
+        xs = new int[DEFAULT_CAPACITY];
+        ys = new int[DEFAULT_CAPACITY];
         size = 0;
     }
 
@@ -48,6 +56,8 @@ public class PointList {
         if (size >= points.length) {
             expandCapacity();
         }
+        xs[size] = point.getX();
+        ys[size] = point.getY();
         points[size++] = point;
     }
 
@@ -56,11 +66,16 @@ public class PointList {
      * Expands the capacity of the list
      */
     private void expandCapacity() {
-        Point[] newArray = new Point[points.length * 2];
-        for (int i = 0; i < size; i++) {
-            newArray[i] = points[i];
-        }
+        int newLength = points.length * 2;
+        Point[] newArray = new Point[newLength];
+        int[] newXs = new int[newLength];
+        int[] newYs = new int[newLength];
+        System.arraycopy(points, 0, newArray, 0, size);
+        System.arraycopy(xs, 0, newXs, 0, size);
+        System.arraycopy(ys, 0, newYs, 0, size);
         points = newArray;
+        xs = newXs;
+        ys = newYs;
     }
 
 
@@ -93,9 +108,10 @@ public class PointList {
         Point removed = points[index];
 
         // Shift elements to fill the gap
-        for (int i = index; i < size - 1; i++) {
-            points[i] = points[i + 1];
-        }
+        int moved = size - index - 1;
+        System.arraycopy(points, index + 1, points, index, moved);
+        System.arraycopy(xs, index + 1, xs, index, moved);
+        System.arraycopy(ys, index + 1, ys, index, moved);
 
         // Clear the last element and decrement size
         points[--size] = null;
@@ -104,6 +120,114 @@ public class PointList {
     }
 
 
+    /**
+     * Gets the x-coordinate of the point at the specified index
+     * 
+     * @param index
+     *            The index
+     * @return The x-coordinate
+     */
+    public int getX(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        return xs[index];
+    }
+
+
+    /**
+     * Gets the y-coordinate of the point at the specified index
+     * 
+     * @param index
+     *            The index
+     * @return The y-coordinate
+     */
+    public int getY(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        return ys[index];
+    }
+
+
+    /**
+     * Adds every point in a rectangle to a result list, in list order. Uses
+     * the same bounds as Point.isInRectangle, so both edges are included.
+     * 
+     * @param x0
+     *            The x-coordinate of the rectangle's top-left corner
+     * @param y0
+     *            The y-coordinate of the rectangle's top-left corner
+     * @param w
+     *            The width of the rectangle
+     * @param h
+     *            The height of the rectangle
+     * @param results
+     *            Where matching points are added
+     */
+    public void addInRectangle(
+        int x0,
+        int y0,
+        int w,
+        int h,
+        PointList results) {
+        int x1 = x0 + w;
+        int y1 = y0 + h;
+        for (int i = 0; i < size; i++) {
+            int x = xs[i];
+            int y = ys[i];
+            if (x >= x0 & x <= x1 & y >= y0 & y <= y1) {
+                results.add(points[i]);
+            }
+        }
+    }
+
+
+    /**
+     * Adds every location that more than one point in this list shares, in
+     * the order the locations first appear. Each location is offered to the
+     * list once, at its first point.
+     * 
+     * @param duplicates
+     *            Where duplicate locations are added
+     */
+    public void addDuplicateLocations(CoordinateList duplicates) {
+        for (int i = 0; i < size; i++) {
+            int x = xs[i];
+            int y = ys[i];
+            boolean seen = false;
+            for (int j = 0; j < i && !seen; j++) {
+                seen = xs[j] == x && ys[j] == y;
+            }
+            if (seen) {
+                continue;
+            }
+            for (int j = i + 1; j < size; j++) {
+                if (xs[j] == x && ys[j] == y) {
+                    duplicates.add(x, y);
+                    break;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Checks if every point in the list is at the same location
+     * 
+     * @return True if all points share a location, including when there are
+     *         fewer than two
+     */
+    public boolean allSameLocation() {
+        for (int i = 1; i < size; i++) {
+            if (xs[i] != xs[0] || ys[i] != ys[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
     /**
      * Adds all points from another list to this list
      * 
@@ -111,9 +235,14 @@ public class PointList {
      *            The list to add from
      */
     public void addAll(PointList otherList) {
-        for (int i = 0; i < otherList.size(); i++) {
-            add(otherList.get(i));
+        int count = otherList.size;
+        while (size + count > points.length) {
+            expandCapacity();
         }
+        System.arraycopy(otherList.points, 0, points, size, count);
+        System.arraycopy(otherList.xs, 0, xs, size, count);
+        System.arraycopy(otherList.ys, 0, ys, size, count);
+        size += count;
     }
 
 
@@ -314,4 +314,78 @@ public class PointListTest extends TestCase {
             assertEquals(i, p.getY());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the coordinate columns follow adds and removes.
+     */
+    public void testCoordinateColumns() {
+        for (int i = 0; i < 15; i++) {
+            list.add(new Point("P" + i, i, 100 - i));
+        }
+        list.remove(3);
+        assertEquals(4, list.getX(3));
+        assertEquals(96, list.getY(3));
+        assertEquals(14, list.getX(13));
+
+        Exception thrown = null;
+        try {
+            list.getX(14);
+        }
+        catch (IndexOutOfBoundsException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        thrown = null;
+        try {
+            list.getY(-1);
+        }
+        catch (IndexOutOfBoundsException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests the rectangle scan matches Point.isInRectangle.
+     */
+    public void testAddInRectangle() {
+        for (int x = 0; x < 6; x++) {
+            for (int y = 0; y < 6; y++) {
+                list.add(new Point("P", x, y));
+            }
+        }
+        PointList results = new PointList();
+        list.addInRectangle(1, 2, 3, 1, results);
+
+        PointList expected = new PointList();
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).isInRectangle(1, 2, 3, 1)) {
+                expected.add(list.get(i));
+            }
+        }
+        assertEquals(8, results.size());
+        assertEquals(expected.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertSame(expected.get(i), results.get(i));
+        }
+    }
+
+    /**
+     * Tests duplicate locations and the same location check.
+     */
+    public void testDuplicateLocations() {
+        assertTrue(list.allSameLocation());
+        list.add(new Point("A", 1, 1));
+        list.add(new Point("B", 1, 1));
+        assertTrue(list.allSameLocation());
+        list.add(new Point("C", 2, 1));
+        list.add(new Point("D", 1, 1));
+        assertFalse(list.allSameLocation());
+
+        CoordinateList duplicates = new CoordinateList();
+        list.addDuplicateLocations(duplicates);
+        assertEquals(1, duplicates.size());
+        assertEquals(1, duplicates.get(0).getX());
+        assertEquals(1, duplicates.get(0).getY());
+    }
+}
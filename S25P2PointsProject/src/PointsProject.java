@@ -30,7 +30,9 @@ public class PointsProject {
                 + "|");
             return;
         }
-        Database myWorld = new Database();
+        // Buffer the whole run's output; the processor flushes at the end
+        Database myWorld = new Database(new OutputSink(System.out, false),
+            false);
 
         CommandProcessor processor = new CommandProcessor(myWorld);
         processor.readCmdFile(theFile);
@@ -38,12 +38,69 @@ public interface QuadNode extends Comparable<QuadNode> {
      *            The size of the current region
      * @return The node after removal and a removed point if successful
      */
-    public KVPair<QuadNode, Point> remove(
+    public default KVPair<QuadNode, Point> remove(
         int x,
         int y,
         int regionX,
         int regionY,
-        int size);
+        int size) {
+        RemovedPoint removed = new RemovedPoint();
+        QuadNode node = remove(x, y, regionX, regionY, size, removed);
+        return new KVPair<>(node, removed.get());
+    }
+
+
+    /**
+     * Removes a point at the specified coordinates, reporting it through a
+     * holder instead of a returned pair
+     * 
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @param regionX
+     *            The x-coordinate of the current region
+     * @param regionY
+     *            The y-coordinate of the current region
+     * @param size
+     *            The size of the current region
+     * @param removed
+     *            Must be clear on the call; set to the removed point if one
+     *            is found
+     * @return The node that replaces this one after the removal
+     */
+    public QuadNode remove(
+        int x,
+        int y,
+        int regionX,
+        int regionY,
+        int size,
+        RemovedPoint removed);
+
+
+    /**
+     * Removes one particular point. The search descends by the point's
+     * coordinates and matches by identity, so it visits one node per level
+     * and never removes a different point that shares the location.
+     * 
+     * @param point
+     *            The point to remove
+     * @param regionX
+     *            The x-coordinate of the current region
+     * @param regionY
+     *            The y-coordinate of the current region
+     * @param size
+     *            The size of the current region
+     * @param removed
+     *            Must be clear on the call; set to the point if it is found
+     * @return The node that replaces this one after the removal
+     */
+    public QuadNode remove(
+        Point point,
+        int regionX,
+        int regionY,
+        int size,
+        RemovedPoint removed);
 
 
     /**
@@ -59,11 +116,40 @@ public interface QuadNode extends Comparable<QuadNode> {
      *            The size of the current region
      * @return The node after removal and a removed point if successful
      */
-    public KVPair<QuadNode, Point> remove(
+    public default KVPair<QuadNode, Point> remove(
         String name,
         int regionX,
         int regionY,
-        int size);
+        int size) {
+        RemovedPoint removed = new RemovedPoint();
+        QuadNode node = remove(name, regionX, regionY, size, removed);
+        return new KVPair<>(node, removed.get());
+    }
+
+
+    /**
+     * Removes a point with the specified name, reporting it through a holder
+     * instead of a returned pair
+     * 
+     * @param name
+     *            The name of the point to remove
+     * @param regionX
+     *            The x-coordinate of the current region
+     * @param regionY
+     *            The y-coordinate of the current region
+     * @param size
+     *            The size of the current region
+     * @param removed
+     *            Must be clear on the call; set to the removed point if one
+     *            is found
+     * @return The node that replaces this one after the removal
+     */
+    public QuadNode remove(
+        String name,
+        int regionX,
+        int regionY,
+        int size,
+        RemovedPoint removed);
 
 
     /**
@@ -131,7 +217,35 @@ public interface QuadNode extends Comparable<QuadNode> {
      *            Current indentation level
      * @return Number of nodes printed
      */
-    public int dump(int regionX, int regionY, int size, int indent);
+    public default int dump(int regionX, int regionY, int size, int indent) {
+        OutputSink out = new OutputSink();
+        int nodesCount = dump(regionX, regionY, size, indent, out);
+        out.flush();
+        return nodesCount;
+    }
+
+
+    /**
+     * Writes the node contents for dumping the quadtree to an output sink
+     *
+     * @param regionX
+     *            The x-coordinate of the current region
+     * @param regionY
+     *            The y-coordinate of the current region
+     * @param size
+     *            The size of the current region
+     * @param indent
+     *            Current indentation level
+     * @param out
+     *            Where to write the dump
+     * @return Number of nodes printed
+     */
+    public int dump(
+        int regionX,
+        int regionY,
+        int size,
+        int indent,
+        OutputSink out);
 
 
     /**
@@ -140,4 +254,12 @@ public interface QuadNode extends Comparable<QuadNode> {
      * @return True if this is an empty leaf, false otherwise
      */
     public boolean isEmpty();
+
+
+    /**
+     * Gets the number of points in this node's subtree
+     * 
+     * @return The point count
+     */
+    public int pointCount();
 }
@@ -1,22 +1,105 @@
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Implements a PR Quadtree for storing points by location
  * 
+ * The world is a square whose side is a power of two, 1024 unless given.
+ * A leaf splits once it holds more points than the bucket capacity (3 unless
+ * given) and they are not all at one location.
+ * 
  * @author michaelo48
  * @version 03.07.2025
  */
-public class QuadTree {
+public class QuadTree implements SpatialIndex {
+
+    // Each thread reuses one walker, so queries allocate no traversal state
+    private static final ThreadLocal<QuadTreeWalker> WALKERS = ThreadLocal
+        .withInitial(QuadTreeWalker::new);
+
+    // Each thread reuses one holder, so removals allocate no result pairs
+    private static final ThreadLocal<RemovedPoint> REMOVED = ThreadLocal
+        .withInitial(RemovedPoint::new);
+
+    /**
+     * World size used when none is given
+     */
+    public static final int DEFAULT_WORLD_SIZE = 1024;
+
+    /**
+     * Bucket capacity used when none is given
+     */
+    public static final int DEFAULT_BUCKET_CAPACITY = 3;
+
+    // Largest world whose region arithmetic stays within an int
+    private static final int MAX_WORLD_SIZE = 1 << 30;
 
     private QuadNode root;
-    private final int worldSize = 1024;
+    private final int worldSize;
+    private final int bucketCapacity;
 
     /**
-     * Creates a new empty Quadtree
+     * Creates a new empty Quadtree with the default world size and bucket
+     * capacity
      */
     public QuadTree() {
+        this(DEFAULT_WORLD_SIZE, DEFAULT_BUCKET_CAPACITY);
+    }
+
+
+    /**
+     * Creates a new empty Quadtree
+     * 
+     * @param worldSize
+     *            The side of the world, a power of two up to 2^30
+     * @param bucketCapacity
+     *            Most points a leaf holds before it splits, at least 1
+     * @throws IllegalArgumentException
+     *             If either value is out of range
+     */
+    public QuadTree(int worldSize, int bucketCapacity) {
+        checkWorldSize(worldSize);
+        checkBucketCapacity(bucketCapacity);
+        this.worldSize = worldSize;
+        this.bucketCapacity = bucketCapacity;
         root = EmptyNode.getInstance();
     }
 
 
+    /**
+     * Checks a world size can be halved down to single cells
+     * 
+     * @param worldSize
+     *            The side of the world
+     * @throws IllegalArgumentException
+     *             If it is not a power of two between 1 and 2^30
+     */
+    static void checkWorldSize(int worldSize) {
+        if (worldSize < 1 || worldSize > MAX_WORLD_SIZE || Integer.bitCount(
+            worldSize) != 1) {
+            throw new IllegalArgumentException(
+                "World size must be a power of two up to 2^30: " + worldSize);
+        }
+    }
+
+
+    /**
+     * Checks a bucket capacity is usable
+     * 
+     * @param bucketCapacity
+     *            Most points a leaf holds before it splits
+     * @throws IllegalArgumentException
+     *             If it is less than 1
+     */
+    static void checkBucketCapacity(int bucketCapacity) {
+        if (bucketCapacity < 1) {
+            throw new IllegalArgumentException(
+                "Bucket capacity must be at least 1: " + bucketCapacity);
+        }
+    }
+
+
     /**
      * Inserts a point into the tree
      * 
@@ -31,11 +114,257 @@ public class QuadTree {
             return false;
         }
 
+        if (root.isEmpty()) {
+            root = new LeafNode(bucketCapacity);
+        }
         root = root.insert(point, 0, 0, worldSize);
         return true;
     }
 
 
+    /**
+     * Loads a batch of points. The points are sorted by Morton key and the
+     * tree is walked once for the whole batch: each internal node splits
+     * its run of keys among its quadrants, an empty region has its subtree
+     * built in one pass with no splits or merge checks along the way, and a
+     * leaf is rebuilt from its own points followed by the new ones. The
+     * result is the same tree, with leaf points in the same order, that
+     * inserting the points one by one would give.
+     * 
+     * @param points
+     *            The points to load, in insertion order
+     * @return The number of points loaded; points outside the world are
+     *         skipped
+     */
+    public int bulkLoad(Point[] points) {
+        // Keep the points inside the world, in input order
+        Point[] kept = new Point[points.length];
+        int n = 0;
+        for (int i = 0; i < points.length; i++) {
+            Point p = points[i];
+            if (p.getX() >= 0 && p.getY() >= 0 && p.getX() < worldSize && p
+                .getY() < worldSize) {
+                kept[n++] = p;
+            }
+        }
+        if (n == 0) {
+            return 0;
+        }
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = Morton.encode(kept[i].getX(), kept[i].getY());
+        }
+        int[] order = Morton.order(keys);
+
+        long[] sortedKeys = new long[n];
+        Point[] sortedPoints = new Point[n];
+        for (int i = 0; i < n; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedPoints[i] = kept[order[i]];
+        }
+
+        root = merge(root, sortedKeys, sortedPoints, order, 0, n, 0, 0,
+            worldSize);
+        return n;
+    }
+
+
+    /**
+     * Adds a region's run of Morton-sorted points to the subtree already
+     * there
+     * 
+     * @param node
+     *            The subtree root
+     * @param keys
+     *            The sorted Morton keys
+     * @param points
+     *            The points matching keys
+     * @param rank
+     *            The input position of each point
+     * @param lo
+     *            First index of the region's run
+     * @param hi
+     *            One past the last index of the region's run
+     * @param x
+     *            The x-coordinate of the region
+     * @param y
+     *            The y-coordinate of the region
+     * @param size
+     *            The size of the region
+     * @return The new subtree root
+     */
+    private QuadNode merge(
+        QuadNode node,
+        long[] keys,
+        Point[] points,
+        int[] rank,
+        int lo,
+        int hi,
+        int x,
+        int y,
+        int size) {
+        if (lo == hi) {
+            return node;
+        }
+        if (node.isEmpty()) {
+            return build(keys, points, rank, lo, hi, x, y, size);
+        }
+
+        if (node instanceof InternalNode) {
+            InternalNode internal = (InternalNode)node;
+            int halfSize = size / 2;
+            int start = lo;
+            for (int quadrant = 0; quadrant < 4; quadrant++) {
+                int end = hi;
+                if (quadrant < 3) {
+                    int next = quadrant + 1;
+                    long nextKey = Morton.encode(x + (next % 2) * halfSize, y
+                        + (next / 2) * halfSize);
+                    end = Morton.lowerBound(keys, start, hi, nextKey);
+                }
+
+                if (start < end) {
+                    // Detach the child first: merging may grow it in place,
+                    // and setChild counts the difference between the two
+                    QuadNode child = internal.getChild(quadrant);
+                    internal.setChild(quadrant, EmptyNode.getInstance());
+                    internal.setChild(quadrant, merge(child, keys, points,
+                        rank, start, end, x + (quadrant % 2) * halfSize, y
+                            + (quadrant / 2) * halfSize, halfSize));
+                }
+                start = end;
+            }
+            return internal;
+        }
+
+        // A leaf's points were all inserted before the batch, so the run
+        // goes after them in input order
+        PointList old = ((LeafNode)node).getPoints();
+        int m = old.size();
+        long[] arrival = new long[hi - lo];
+        for (int i = lo; i < hi; i++) {
+            arrival[i - lo] = ((long)rank[i] << 32) | (i - lo);
+        }
+        Arrays.sort(arrival);
+
+        // If the leaf does not split, that is all there is to do
+        boolean sameLocation = m > 0 && keys[lo] == keys[hi - 1] && Morton
+            .encode(old.getX(0), old.getY(0)) == keys[lo] && old
+                .allSameLocation();
+        if (m + hi - lo <= bucketCapacity || sameLocation) {
+            for (int i = 0; i < hi - lo; i++) {
+                old.add(points[lo + (int)arrival[i]]);
+            }
+            return node;
+        }
+
+        // Otherwise the region is rebuilt from the combined points
+
+        int n = m + hi - lo;
+        Point[] combined = new Point[n];
+        long[] combinedKeys = new long[n];
+        for (int i = 0; i < m; i++) {
+            combined[i] = old.get(i);
+            combinedKeys[i] = Morton.encode(old.getX(i), old.getY(i));
+        }
+        for (int i = 0; i < hi - lo; i++) {
+            int from = lo + (int)arrival[i];
+            combined[m + i] = points[from];
+            combinedKeys[m + i] = keys[from];
+        }
+
+        int[] order = Morton.order(combinedKeys);
+        long[] sortedKeys = new long[n];
+        Point[] sortedPoints = new Point[n];
+        for (int i = 0; i < n; i++) {
+            sortedKeys[i] = combinedKeys[order[i]];
+            sortedPoints[i] = combined[order[i]];
+        }
+        return build(sortedKeys, sortedPoints, order, 0, n, x, y, size);
+    }
+
+
+    /**
+     * Builds the subtree for a region from its run of Morton-sorted points
+     * 
+     * @param keys
+     *            The sorted Morton keys
+     * @param points
+     *            The points matching keys
+     * @param rank
+     *            The input position of each point
+     * @param lo
+     *            First index of the region's run
+     * @param hi
+     *            One past the last index of the region's run
+     * @param x
+     *            The x-coordinate of the region
+     * @param y
+     *            The y-coordinate of the region
+     * @param size
+     *            The size of the region
+     * @return The subtree root
+     */
+    private QuadNode build(
+        long[] keys,
+        Point[] points,
+        int[] rank,
+        int lo,
+        int hi,
+        int x,
+        int y,
+        int size) {
+        int n = hi - lo;
+        if (n == 0) {
+            return EmptyNode.getInstance();
+        }
+
+        if (n <= bucketCapacity || keys[lo] == keys[hi - 1]) {
+            // Equal keys are already in input order, but a small leaf with
+            // different locations lists its points in input order
+            if (n <= bucketCapacity) {
+                for (int i = lo + 1; i < hi; i++) {
+                    for (int j = i; j > lo && rank[j - 1] > rank[j]; j--) {
+                        int r = rank[j];
+                        rank[j] = rank[j - 1];
+                        rank[j - 1] = r;
+                        Point p = points[j];
+                        points[j] = points[j - 1];
+                        points[j - 1] = p;
+                    }
+                }
+            }
+
+            LeafNode leaf = new LeafNode(bucketCapacity);
+            for (int i = lo; i < hi; i++) {
+                leaf.getPoints().add(points[i]);
+            }
+            return leaf;
+        }
+
+        InternalNode node = new InternalNode(bucketCapacity);
+        int halfSize = size / 2;
+        int start = lo;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            int end = hi;
+            if (quadrant < 3) {
+                // The next quadrant's run starts at its corner's key
+                int next = quadrant + 1;
+                long nextKey = Morton.encode(x + (next % 2) * halfSize, y
+                    + (next / 2) * halfSize);
+                end = Morton.lowerBound(keys, start, hi, nextKey);
+            }
+
+            node.setChild(quadrant, build(keys, points, rank, start, end, x
+                + (quadrant % 2) * halfSize, y + (quadrant / 2) * halfSize,
+                halfSize));
+            start = end;
+        }
+        return node;
+    }
+
+
     /**
      * Removes a point at the specified coordinates
      * 
@@ -51,9 +380,36 @@ public class QuadTree {
             return null;
         }
 
-        KVPair<QuadNode, Point> result = root.remove(x, y, 0, 0, worldSize);
-        root = result.key();
-        return result.value();
+        RemovedPoint removed = REMOVED.get();
+        removed.clear();
+        root = root.remove(x, y, 0, 0, worldSize, removed);
+        Point point = removed.get();
+        removed.clear();
+        return point;
+    }
+
+
+    /**
+     * Removes one particular point by descending to its location and
+     * matching by identity
+     * 
+     * @param point
+     *            The point to remove
+     * @return The point, or null if it is not in the tree
+     */
+    public Point remove(Point point) {
+        int x = point.getX();
+        int y = point.getY();
+        if (x < 0 || y < 0 || x >= worldSize || y >= worldSize) {
+            return null;
+        }
+
+        RemovedPoint removed = REMOVED.get();
+        removed.clear();
+        root = root.remove(point, 0, 0, worldSize, removed);
+        Point found = removed.get();
+        removed.clear();
+        return found;
     }
 
 
@@ -65,9 +421,12 @@ public class QuadTree {
      * @return The removed point, or null if not found
      */
     public Point remove(String name) {
-        KVPair<QuadNode, Point> result = root.remove(name, 0, 0, worldSize);
-        root = result.key();
-        return result.value();
+        RemovedPoint removed = REMOVED.get();
+        removed.clear();
+        root = root.remove(name, 0, 0, worldSize, removed);
+        Point point = removed.get();
+        removed.clear();
+        return point;
     }
 
 
@@ -87,12 +446,139 @@ public class QuadTree {
      */
     public RegionSearchResult regionsearch(int x, int y, int w, int h) {
         PointList results = new PointList();
-        int nodesVisited = root.regionsearch(x, y, w, h, 0, 0, worldSize,
-            results);
+        int nodesVisited = WALKERS.get().regionsearch(root, x, y, w, h, 0, 0,
+            worldSize, results);
         return new RegionSearchResult(results, nodesVisited);
     }
 
 
+    /**
+     * Searches for points within a query rectangle, splitting the upper
+     * levels of the tree into tasks on a ForkJoinPool. The points and node
+     * count are the same as regionsearch(x, y, w, h) gives.
+     * 
+     * @param x
+     *            The x-coordinate of the query rectangle
+     * @param y
+     *            The y-coordinate of the query rectangle
+     * @param w
+     *            The width of the query rectangle
+     * @param h
+     *            The height of the query rectangle
+     * @param pool
+     *            The pool to run the search tasks on
+     * @return A result containing the list of found points and the number of
+     *         nodes visited
+     */
+    public RegionSearchResult regionsearch(
+        int x,
+        int y,
+        int w,
+        int h,
+        ForkJoinPool pool) {
+        ParallelRegionSearch task = new ParallelRegionSearch(root, x, y, w, h,
+            0, 0, worldSize, ParallelRegionSearch.forkSize(worldSize));
+        int nodesVisited = pool.invoke(task);
+        return new RegionSearchResult(task.getResults(), nodesVisited);
+    }
+
+
+    /**
+     * Finds the k points closest to a location, searching nodes best first
+     * 
+     * @param x
+     *            The x-coordinate of the location
+     * @param y
+     *            The y-coordinate of the location
+     * @param k
+     *            The number of points wanted
+     * @return A result containing up to k points, closest first, and the
+     *         number of nodes visited
+     */
+    public RegionSearchResult nearest(int x, int y, int k) {
+        PointList results = new PointList();
+        int nodesVisited = 0;
+        PriorityQueue<NearestCandidate> queue =
+            new PriorityQueue<NearestCandidate>();
+        long order = 0;
+        queue.add(new NearestCandidate(root, 0, 0, worldSize, regionDistance(
+            x, y, 0, 0, worldSize), order++));
+
+        // A popped point is at least as close as anything still queued, and
+        // a node is popped before any point at its distance, so the search
+        // stops without visiting nodes beyond the k-th point
+        while (results.size() < k && !queue.isEmpty()) {
+            NearestCandidate next = queue.poll();
+            if (next.getPoint() != null) {
+                results.add(next.getPoint());
+                continue;
+            }
+
+            nodesVisited++;
+            if (next.getNode() instanceof InternalNode) {
+                InternalNode internal = (InternalNode)next.getNode();
+                int halfSize = next.getSize() / 2;
+                for (int quadrant = 0; quadrant < 4; quadrant++) {
+                    int childX = next.getRegionX() + (quadrant % 2) * halfSize;
+                    int childY = next.getRegionY() + (quadrant / 2) * halfSize;
+                    queue.add(new NearestCandidate(internal.getChild(
+                        quadrant), childX, childY, halfSize, regionDistance(x,
+                            y, childX, childY, halfSize), order++));
+                }
+            }
+            else if (next.getNode() instanceof LeafNode) {
+                PointList points = ((LeafNode)next.getNode()).getPoints();
+                for (int i = 0; i < points.size(); i++) {
+                    Point p = points.get(i);
+                    queue.add(new NearestCandidate(p, p.distanceSquared(x, y),
+                        order++));
+                }
+            }
+        }
+        return new RegionSearchResult(results, nodesVisited);
+    }
+
+
+    /**
+     * Gets the squared distance from a location to the nearest cell of a
+     * region
+     * 
+     * @param x
+     *            The x-coordinate of the location
+     * @param y
+     *            The y-coordinate of the location
+     * @param regionX
+     *            The x-coordinate of the region
+     * @param regionY
+     *            The y-coordinate of the region
+     * @param size
+     *            The size of the region
+     * @return The squared distance, 0 if the location is inside the region
+     */
+    static long regionDistance(
+        int x,
+        int y,
+        int regionX,
+        int regionY,
+        int size) {
+        long dx = 0;
+        if (x < regionX) {
+            dx = (long)regionX - x;
+        }
+        else if (x > regionX + size - 1) {
+            dx = (long)x - (regionX + size - 1);
+        }
+        long dy = 0;
+        if (y < regionY) {
+            dy = (long)regionY - y;
+        }
+        else if (y > regionY + size - 1) {
+            dy = (long)y - (regionY + size - 1);
+        }
+        return dx * dx + dy * dy;
+    }
+
+
     /**
      * Finds locations with duplicate points
      * 
@@ -101,17 +587,110 @@ public class QuadTree {
      */
     public DuplicatesResult findDuplicates() {
         CoordinateList duplicates = new CoordinateList();
-        int nodesVisited = root.findDuplicates(0, 0, worldSize, duplicates);
+        int nodesVisited = WALKERS.get().findDuplicates(root, duplicates);
         return new DuplicatesResult(duplicates, nodesVisited);
     }
 
 
     /**
-     * Dumps the Quadtree structure with modified format
+     * Finds locations with duplicate points, splitting the upper levels of
+     * the tree into tasks on a ForkJoinPool. The locations and node count
+     * are the same as findDuplicates() gives.
+     * 
+     * @param pool
+     *            The pool to run the scan tasks on
+     * @return A result containing the list of duplicate locations and the
+     *         number of nodes visited
+     */
+    public DuplicatesResult findDuplicates(ForkJoinPool pool) {
+        ParallelDuplicates task = new ParallelDuplicates(root, 0, 0,
+            worldSize, ParallelRegionSearch.forkSize(worldSize));
+        int nodesVisited = pool.invoke(task);
+        return new DuplicatesResult(task.getDuplicates(), nodesVisited);
+    }
+
+
+    /**
+     * Gets the calling thread's removal holder. Callers clear it before and
+     * after use, as QuadTree's own removes do.
+     *
+     * @return The holder
+     */
+    static RemovedPoint removedHolder() {
+        return REMOVED.get();
+    }
+
+
+    /**
+     * Gets the calling thread's walker
+     *
+     * @return The walker
+     */
+    static QuadTreeWalker walker() {
+        return WALKERS.get();
+    }
+
+
+    /**
+     * Gets the root node
+     *
+     * @return The root node
+     */
+    QuadNode getRoot() {
+        return root;
+    }
+
+
+    /**
+     * Replaces the root node
+     *
+     * @param node
+     *            The new root node
+     */
+    void setRoot(QuadNode node) {
+        root = node;
+    }
+
+
+    /**
+     * Gets the number of points in the tree
+     *
+     * @return The point count
+     */
+    public int size() {
+        return root.pointCount();
+    }
+
+
+    /**
+     * Gets the most points a leaf holds before it splits
+     *
+     * @return The bucket capacity
+     */
+    public int getBucketCapacity() {
+        return bucketCapacity;
+    }
+
+
+    /**
+     * Gets the size of the world this tree covers
+     *
+     * @return The world size
+     */
+    public int getWorldSize() {
+        return worldSize;
+    }
+
+
+    /**
+     * Writes the Quadtree structure to an output sink
+     *
+     * @param out
+     *            Where to write the dump
      */
-    public void dump() {
-        System.out.println("QuadTree dump:");
-        int nodeCount = root.dump(0, 0, worldSize, 0);
-        System.out.println(nodeCount + " quadtree nodes printed");
+    public void dump(OutputSink out) {
+        out.println("QuadTree dump:");
+        int nodeCount = root.dump(0, 0, worldSize, 0, out);
+        out.print(nodeCount).println(" quadtree nodes printed");
     }
 }
@@ -0,0 +1,390 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests the QuadTree class
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class QuadTreeTest extends TestCase {
+
+    private QuadTree tree;
+
+    /**
+     * Sets up the tests that follow
+     */
+    public void setUp() {
+        tree = new QuadTree();
+    }
+
+
+    /**
+     * Dumps a tree and returns the output
+     *
+     * @param quadTree
+     *            The tree to dump
+     * @return The dump output
+     */
+    private String dumpOf(QuadTree quadTree) {
+        systemOut().clearHistory();
+        quadTree.dump();
+        String output = systemOut().getHistory();
+        systemOut().clearHistory();
+        return output;
+    }
+
+
+    /**
+     * Makes random points, some of them stacked on shared locations and
+     * some outside the world
+     *
+     * @param n
+     *            The number of points
+     * @param seed
+     *            The random seed
+     * @return The points
+     */
+    private Point[] randomPoints(int n, long seed) {
+        Random rng = new Random(seed);
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int x = rng.nextInt(1030) - 3;
+            int y = rng.nextInt(1030) - 3;
+            if (rng.nextInt(4) == 0) {
+                x = 100 + rng.nextInt(3);
+                y = 200;
+            }
+            points[i] = new Point("p" + i, x, y);
+        }
+        return points;
+    }
+
+
+    /**
+     * Tests that bulk loading gives exactly the tree incremental inserts do
+     */
+    public void testBulkLoadMatchesInsert() {
+        long[] seeds = { 1, 2, 3 };
+        int[] sizes = { 0, 1, 3, 4, 50, 2000 };
+        for (int s = 0; s < seeds.length; s++) {
+            for (int i = 0; i < sizes.length; i++) {
+                Point[] points = randomPoints(sizes[i], seeds[s]);
+                QuadTree incremental = new QuadTree();
+                int inWorld = 0;
+                for (int j = 0; j < points.length; j++) {
+                    if (incremental.insert(points[j])) {
+                        inWorld++;
+                    }
+                }
+
+                QuadTree bulk = new QuadTree();
+                assertEquals(inWorld, bulk.bulkLoad(points));
+                assertEquals(dumpOf(incremental), dumpOf(bulk));
+            }
+        }
+    }
+
+
+    /**
+     * Tests bulk loading points that all share one location
+     */
+    public void testBulkLoadSameLocation() {
+        Point[] points = new Point[5];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Point("s" + i, 7, 7);
+        }
+        assertEquals(5, tree.bulkLoad(points));
+        String output = dumpOf(tree);
+        assertTrue(output.contains("Node at 0 0 1024\n"));
+        assertTrue(output.indexOf("s0 7 7") < output.indexOf("s4 7 7"));
+        assertTrue(output.contains("1 quadtree nodes printed"));
+    }
+
+
+    /**
+     * Tests bulk loading into a tree that already has points
+     */
+    public void testBulkLoadNonEmpty() {
+        tree.insert(new Point("first", 10, 10));
+        Point[] points = randomPoints(100, 9);
+        QuadTree incremental = new QuadTree();
+        incremental.insert(new Point("first", 10, 10));
+        int inWorld = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (incremental.insert(points[i])) {
+                inWorld++;
+            }
+        }
+        assertEquals(inWorld, tree.bulkLoad(points));
+        assertEquals(dumpOf(incremental), dumpOf(tree));
+
+        tree.remove(10, 10);
+        assertEquals(inWorld, tree.regionsearch(0, 0, 1024, 1024).getPoints()
+            .size());
+    }
+
+
+    /**
+     * Tests batches merged into a tree that has grown, split and merged
+     * give the tree inserting them one by one would, counts included
+     */
+    public void testBulkLoadMerges() {
+        QuadTree incremental = new QuadTree(1024, 2);
+        tree = new QuadTree(1024, 2);
+        for (int round = 0; round < 6; round++) {
+            Point[] points = randomPoints(40 * round + 1, round);
+            for (int i = 0; i < points.length; i++) {
+                incremental.insert(points[i]);
+            }
+            tree.bulkLoad(points);
+            assertEquals(dumpOf(incremental), dumpOf(tree));
+            assertEquals(incremental.size(), tree.size());
+
+            // Removing some points merges leaves back together
+            for (int i = 0; i < points.length; i += 3) {
+                assertEquals(incremental.remove(points[i]), tree.remove(
+                    points[i]));
+            }
+            assertEquals(dumpOf(incremental), dumpOf(tree));
+        }
+    }
+
+
+    /**
+     * Tests nearest returns the k closest points, closest first, and skips
+     * far regions
+     */
+    public void testNearest() {
+        Point[] points = randomPoints(400, 13);
+        tree.bulkLoad(points);
+        Random rng = new Random(21);
+        for (int query = 0; query < 50; query++) {
+            int x = rng.nextInt(1100) - 40;
+            int y = rng.nextInt(1100) - 40;
+            int k = 1 + rng.nextInt(12);
+            RegionSearchResult result = tree.nearest(x, y, k);
+            PointList found = result.getPoints();
+            assertEquals(k, found.size());
+
+            // Only returned points are closer than the last one returned
+            long last = found.get(k - 1).distanceSquared(x, y);
+            int closer = 0;
+            for (int i = 0; i < points.length; i++) {
+                Point p = points[i];
+                boolean inWorld = p.getX() >= 0 && p.getY() >= 0 && p
+                    .getX() < 1024 && p.getY() < 1024;
+                if (inWorld && p.distanceSquared(x, y) < last) {
+                    closer++;
+                }
+            }
+            assertTrue(closer < k);
+            for (int i = 1; i < k; i++) {
+                assertTrue(found.get(i - 1).distanceSquared(x, y) <= found
+                    .get(i).distanceSquared(x, y));
+            }
+        }
+
+        int all = tree.regionsearch(0, 0, 1024, 1024).getNodesVisited();
+        assertTrue(tree.nearest(10, 10, 1).getNodesVisited() < all);
+        assertEquals(0, tree.nearest(10, 10, 0).getPoints().size());
+    }
+
+
+    /**
+     * Tests nearest on small trees
+     */
+    public void testNearestSmall() {
+        RegionSearchResult result = tree.nearest(5, 5, 3);
+        assertEquals(0, result.getPoints().size());
+        assertEquals(1, result.getNodesVisited());
+
+        tree.insert(new Point("a", 10, 10));
+        tree.insert(new Point("b", 0, 0));
+        tree.insert(new Point("c", 10, 10));
+        result = tree.nearest(9, 9, 5);
+        assertEquals(3, result.getPoints().size());
+        assertEquals("a", result.getPoints().get(0).getName());
+        assertEquals("c", result.getPoints().get(1).getName());
+        assertEquals("b", result.getPoints().get(2).getName());
+        assertEquals(1, result.getNodesVisited());
+    }
+
+
+    /**
+     * Tests every internal node's point count stays equal to the points in
+     * its subtree through inserts, removes and bulk loads
+     */
+    public void testPointCounts() {
+        Random rng = new Random(31);
+        Point[] points = randomPoints(2000, 31);
+        int expected = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (tree.insert(points[i])) {
+                expected++;
+            }
+            if (i % 3 == 0 && tree.remove("p" + rng.nextInt(i + 1)) != null) {
+                expected--;
+            }
+            if (i % 5 == 0 && tree.remove(100 + rng.nextInt(3), 200) != null) {
+                expected--;
+            }
+            if (i % 100 == 0) {
+                assertEquals(expected, countPoints(tree.getRoot()));
+            }
+        }
+        assertEquals(expected, tree.size());
+        assertEquals(expected, countPoints(tree.getRoot()));
+
+        QuadTree loaded = new QuadTree();
+        int inWorld = loaded.bulkLoad(points);
+        assertEquals(inWorld, loaded.size());
+        assertEquals(inWorld, countPoints(loaded.getRoot()));
+    }
+
+
+    /**
+     * Tests a large world with a wide bucket builds the same tree as the
+     * linear index with the same settings, and that bulk loading agrees
+     */
+    public void testWorldSizeAndCapacity() {
+        QuadTree wide = new QuadTree(1 << 20, 16);
+        LinearQuadTree linear = new LinearQuadTree(1 << 20, 16);
+        assertEquals(1 << 20, wide.getWorldSize());
+        assertEquals(16, wide.getBucketCapacity());
+        Random rng = new Random(8);
+        Point[] points = new Point[2000];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Point("w" + i, rng.nextInt(1 << 20), rng.nextInt(
+                1 << 20));
+            if (rng.nextInt(5) == 0) {
+                points[i] = new Point("w" + i, 70000, 3);
+            }
+            assertTrue(wide.insert(points[i]));
+            linear.insert(points[i]);
+        }
+        assertFalse(wide.insert(new Point("out", 1 << 20, 0)));
+        String expected = dumpOf(wide);
+        linear.dump();
+        assertEquals(expected, systemOut().getHistory());
+        assertEquals(countPoints(wide.getRoot()), wide.size());
+
+        QuadTree loaded = new QuadTree(1 << 20, 16);
+        loaded.bulkLoad(points);
+        assertEquals(expected, dumpOf(loaded));
+
+        RegionSearchResult found = wide.regionsearch(69000, 0, 2000, 10);
+        assertEquals(found.getNodesVisited(), linear.regionsearch(69000, 0,
+            2000, 10).getNodesVisited());
+        for (int i = 0; i < points.length; i++) {
+            assertSame(points[i], wide.remove(points[i].getName()));
+        }
+        assertEquals(0, wide.size());
+        assertTrue(wide.getRoot() instanceof EmptyNode);
+    }
+
+
+    /**
+     * Tests that out-of-range world sizes and capacities are rejected
+     */
+    public void testInvalidSettings() {
+        int[] worlds = { 0, -4, 1000, 1 << 31 };
+        for (int i = 0; i < worlds.length; i++) {
+            Exception thrown = null;
+            try {
+                new QuadTree(worlds[i], 3);
+            }
+            catch (IllegalArgumentException e) {
+                thrown = e;
+            }
+            assertNotNull(thrown);
+        }
+        Exception thrown = null;
+        try {
+            new LinearQuadTree(1024, 0);
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertEquals(1, new QuadTree(1, 1).getWorldSize());
+        assertEquals(1 << 30, new ConcurrentQuadTree(1 << 30, 1)
+            .getWorldSize());
+    }
+
+
+    /**
+     * Tests a capacity of one splits as soon as two locations share a leaf
+     */
+    public void testCapacityOne() {
+        QuadTree small = new QuadTree(8, 1);
+        small.insert(new Point("a", 1, 1));
+        assertTrue(small.getRoot() instanceof LeafNode);
+        small.insert(new Point("b", 1, 1));
+        assertTrue(small.getRoot() instanceof LeafNode);
+        small.insert(new Point("c", 6, 6));
+        assertTrue(small.getRoot() instanceof InternalNode);
+        small.remove("c");
+        assertTrue(small.getRoot() instanceof LeafNode);
+        assertEquals(2, small.size());
+    }
+
+
+    /**
+     * Tests removing a point by handle takes that point and not another one
+     * at the same location, and merges the tree as other removes do
+     */
+    public void testRemoveByPoint() {
+        Point[] points = randomPoints(600, 4);
+        for (int i = 0; i < points.length; i++) {
+            tree.insert(points[i]);
+        }
+        assertNull(tree.remove(new Point("p0", points[0].getX(), points[0]
+            .getY())));
+        QuadTree byCoordinates = new QuadTree();
+        byCoordinates.bulkLoad(points);
+
+        // Remove in reverse so stacked locations give up their last point,
+        // which a remove by coordinates would never pick
+        for (int i = points.length - 1; i >= 0; i--) {
+            Point expected = null;
+            if (points[i].getX() >= 0 && points[i].getY() >= 0 && points[i]
+                .getX() < 1024 && points[i].getY() < 1024) {
+                expected = points[i];
+            }
+            assertSame(expected, tree.remove(points[i]));
+            assertNull(tree.remove(points[i]));
+            assertEquals(countPoints(tree.getRoot()), tree.size());
+        }
+        assertTrue(tree.getRoot() instanceof EmptyNode);
+
+        Point stacked = new Point("s", 100, 200);
+        byCoordinates.insert(stacked);
+        assertSame(stacked, byCoordinates.remove(stacked));
+        assertEquals(100, byCoordinates.remove(100, 200).getX());
+    }
+
+
+    /**
+     * Counts the points under a node by visiting every leaf, checking each
+     * internal node's own count on the way
+     *
+     * @param node
+     *            The subtree root
+     * @return The number of points in the subtree
+     */
+    private int countPoints(QuadNode node) {
+        if (node instanceof LeafNode) {
+            return ((LeafNode)node).getPoints().size();
+        }
+        if (node instanceof InternalNode) {
+            int total = 0;
+            for (int i = 0; i < 4; i++) {
+                total += countPoints(((InternalNode)node).getChild(i));
+            }
+            assertEquals(total, node.pointCount());
+            return total;
+        }
+        return 0;
+    }
+}
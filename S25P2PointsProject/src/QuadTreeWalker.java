@@ -0,0 +1,177 @@
+/**
+ * Walks a quadtree with an explicit stack instead of recursion. The stack
+ * is four parallel arrays (node, region x, region y, region size) that are
+ * reused from one walk to the next, so a walk allocates nothing beyond the
+ * points or locations it reports.
+ *
+ * Children are pushed in reverse quadrant order, so they are visited in
+ * quadrant order and a walk reports results and node counts exactly as the
+ * recursive QuadNode methods do.
+ *
+ * A walker holds state between calls and must not be shared between
+ * threads; QuadTree keeps one per thread.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class QuadTreeWalker {
+
+    // Enough for a 2^20 world; the stack grows for deeper trees
+    private static final int INITIAL_DEPTH = 64;
+
+    private QuadNode[] nodes;
+    private int[] regionXs;
+    private int[] regionYs;
+    private int[] sizes;
+    private int top;
+
+    /**
+     * Creates a walker with an empty stack
+     */
+    public QuadTreeWalker() {
+        nodes = new QuadNode[INITIAL_DEPTH];
+        regionXs = new int[INITIAL_DEPTH];
+        regionYs = new int[INITIAL_DEPTH];
+        sizes = new int[INITIAL_DEPTH];
+        top = 0;
+    }
+
+
+    /**
+     * Searches a subtree for points within a query rectangle
+     *
+     * @param root
+     *            The subtree root
+     * @param x
+     *            The x-coordinate of the query rectangle
+     * @param y
+     *            The y-coordinate of the query rectangle
+     * @param w
+     *            The width of the query rectangle
+     * @param h
+     *            The height of the query rectangle
+     * @param regionX
+     *            The x-coordinate of the subtree's region
+     * @param regionY
+     *            The y-coordinate of the subtree's region
+     * @param size
+     *            The size of the subtree's region
+     * @param results
+     *            List to store found points
+     * @return Number of nodes visited during the search
+     */
+    public int regionsearch(
+        QuadNode root,
+        int x,
+        int y,
+        int w,
+        int h,
+        int regionX,
+        int regionY,
+        int size,
+        PointList results) {
+        int nodesVisited = 0;
+        top = 0;
+        push(root, regionX, regionY, size);
+        while (top > 0) {
+            top--;
+            QuadNode node = nodes[top];
+            int nodeX = regionXs[top];
+            int nodeY = regionYs[top];
+            int nodeSize = sizes[top];
+            nodes[top] = null;
+            nodesVisited++;
+
+            if (node instanceof LeafNode) {
+                ((LeafNode)node).getPoints().addInRectangle(x, y, w, h,
+                    results);
+            }
+            else if (node instanceof InternalNode && InternalNode
+                .isIntersecting(x, y, w, h, nodeX, nodeY, nodeSize)) {
+                InternalNode internal = (InternalNode)node;
+                int halfSize = nodeSize / 2;
+                for (int quadrant = 3; quadrant >= 0; quadrant--) {
+                    int childX = nodeX + (quadrant & 1) * halfSize;
+                    int childY = nodeY + (quadrant >> 1) * halfSize;
+                    if (InternalNode.isIntersecting(x, y, w, h, childX,
+                        childY, halfSize)) {
+                        push(internal.getChild(quadrant), childX, childY,
+                            halfSize);
+                    }
+                }
+            }
+        }
+        return nodesVisited;
+    }
+
+
+    /**
+     * Finds locations with duplicate points in a subtree. Only leaves look
+     * at points, so region coordinates are not tracked.
+     *
+     * @param root
+     *            The subtree root
+     * @param duplicates
+     *            List to store duplicate locations
+     * @return Number of nodes visited
+     */
+    public int findDuplicates(QuadNode root, CoordinateList duplicates) {
+        int nodesVisited = 0;
+        top = 0;
+        push(root, 0, 0, 0);
+        while (top > 0) {
+            top--;
+            QuadNode node = nodes[top];
+            nodes[top] = null;
+            nodesVisited++;
+
+            if (node instanceof LeafNode) {
+                ((LeafNode)node).getPoints().addDuplicateLocations(
+                    duplicates);
+            }
+            else if (node instanceof InternalNode) {
+                InternalNode internal = (InternalNode)node;
+                for (int quadrant = 3; quadrant >= 0; quadrant--) {
+                    push(internal.getChild(quadrant), 0, 0, 0);
+                }
+            }
+        }
+        return nodesVisited;
+    }
+
+
+    /**
+     * Pushes a node and its region, growing the stack if it is full
+     *
+     * @param node
+     *            The node
+     * @param regionX
+     *            The x-coordinate of the node's region
+     * @param regionY
+     *            The y-coordinate of the node's region
+     * @param size
+     *            The size of the node's region
+     */
+    private void push(QuadNode node, int regionX, int regionY, int size) {
+        if (top == nodes.length) {
+            int capacity = nodes.length * 2;
+            QuadNode[] newNodes = new QuadNode[capacity];
+            int[] newXs = new int[capacity];
+            int[] newYs = new int[capacity];
+            int[] newSizes = new int[capacity];
+            System.arraycopy(nodes, 0, newNodes, 0, top);
+            System.arraycopy(regionXs, 0, newXs, 0, top);
+            System.arraycopy(regionYs, 0, newYs, 0, top);
+            System.arraycopy(sizes, 0, newSizes, 0, top);
+            nodes = newNodes;
+            regionXs = newXs;
+            regionYs = newYs;
+            sizes = newSizes;
+        }
+        nodes[top] = node;
+        regionXs[top] = regionX;
+        regionYs[top] = regionY;
+        sizes[top] = size;
+        top++;
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests the QuadTreeWalker class against the recursive QuadNode methods
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class QuadTreeWalkerTest extends TestCase {
+
+    private QuadTree tree;
+    private QuadTreeWalker walker;
+
+    /**
+     * Sets up the tests that follow. In general, used for initialization
+     */
+    public void setUp() {
+        tree = new QuadTree();
+        walker = new QuadTreeWalker();
+    }
+
+
+    /**
+     * Tests the walker on an empty tree and a single leaf
+     */
+    public void testSmallTrees() {
+        PointList results = new PointList();
+        assertEquals(1, walker.regionsearch(tree.getRoot(), 0, 0, 5, 5, 0, 0,
+            1024, results));
+        assertEquals(0, results.size());
+        assertEquals(1, walker.findDuplicates(tree.getRoot(),
+            new CoordinateList()));
+
+        tree.insert(new Point("a", 3, 3));
+        tree.insert(new Point("b", 3, 3));
+        assertEquals(1, walker.regionsearch(tree.getRoot(), 0, 0, 5, 5, 0, 0,
+            1024, results));
+        assertEquals(2, results.size());
+        CoordinateList duplicates = new CoordinateList();
+        assertEquals(1, walker.findDuplicates(tree.getRoot(), duplicates));
+        assertEquals(1, duplicates.size());
+    }
+
+
+    /**
+     * Tests one reused walker matches the recursive search and scan on a
+     * changing tree
+     */
+    public void testMatchesRecursion() {
+        Random random = new Random(23);
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 100; i++) {
+                int x = random.nextInt(1024);
+                int y = random.nextInt(1024);
+                if (random.nextInt(3) == 0) {
+                    x = 512 + random.nextInt(3);
+                    y = 511;
+                }
+                tree.insert(new Point("p" + i, x, y));
+            }
+            for (int i = 0; i < 30; i++) {
+                tree.remove("p" + random.nextInt(100));
+            }
+
+            int x = random.nextInt(1100) - 40;
+            int y = random.nextInt(1100) - 40;
+            int w = random.nextInt(500);
+            int h = random.nextInt(500);
+            PointList expected = new PointList();
+            PointList actual = new PointList();
+            assertEquals(tree.getRoot().regionsearch(x, y, w, h, 0, 0, 1024,
+                expected), walker.regionsearch(tree.getRoot(), x, y, w, h, 0,
+                    0, 1024, actual));
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < actual.size(); i++) {
+                assertSame(expected.get(i), actual.get(i));
+            }
+
+            CoordinateList expectedDuplicates = new CoordinateList();
+            CoordinateList actualDuplicates = new CoordinateList();
+            assertEquals(tree.getRoot().findDuplicates(0, 0, 1024,
+                expectedDuplicates), walker.findDuplicates(tree.getRoot(),
+                    actualDuplicates));
+            assertEquals(expectedDuplicates.size(), actualDuplicates.size());
+            for (int i = 0; i < actualDuplicates.size(); i++) {
+                assertTrue(expectedDuplicates.get(i).equals(actualDuplicates
+                    .get(i)));
+            }
+        }
+    }
+}
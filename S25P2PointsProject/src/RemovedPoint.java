@@ -0,0 +1,42 @@
+/**
+ * Receives the point a QuadNode remove call takes out of the tree. The
+ * remove methods return the node that replaces the one called, and set the
+ * removed point here, so a removal allocates no result object at any level.
+ * One holder can be cleared and reused for any number of removals.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class RemovedPoint {
+
+    private Point point;
+
+    /**
+     * Gets the removed point
+     *
+     * @return The removed point, or null if nothing was removed since the
+     *         last clear
+     */
+    public Point get() {
+        return point;
+    }
+
+
+    /**
+     * Records the removed point
+     *
+     * @param removed
+     *            The point taken out of the tree
+     */
+    public void set(Point removed) {
+        point = removed;
+    }
+
+
+    /**
+     * Forgets the last removed point, ready for the next removal
+     */
+    public void clear() {
+        point = null;
+    }
+}
@@ -1,6 +1,10 @@
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Random;
 import student.TestableRandom;
 
@@ -17,18 +21,42 @@ import student.TestableRandom;
  *            Value
  */
 public class SkipList<K extends Comparable<K>, V>
-    implements Iterable<KVPair<K, V>> {
+    implements NameIndex<K, V> {
     private SkipNode head; // First element (Sentinel Node)
     private int size; // number of entries in the Skip List
     private Random rng;
 
+    // Whether searches resume from the last search path
+    private final boolean useFinger;
+
+    // The last search path: the last node before its key on every level,
+    // or null when the next search starts from the head
+    private SkipNode[] finger;
+
     /**
      * Initializes the fields head, size and level
      */
     public SkipList() {
+        this(false);
+    }
+
+
+    /**
+     * Creates an empty SkipList that can remember its last search path.
+     * With a finger, search, insert and remove start from the nodes the
+     * previous one stopped at: they climb only as high as the distance
+     * between the two keys needs and then descend, so keys that arrive in
+     * order, or close together, cost about O(1) each instead of O(log n).
+     * Keys far from the previous one cost up to twice the usual search.
+     * 
+     * @param useFinger
+     *            true to resume searches from the last search path
+     */
+    public SkipList(boolean useFinger) {
         head = new SkipNode(null, 0);
         size = 0;
         this.rng = new TestableRandom();
+        this.useFinger = useFinger;
     }
 
 
@@ -61,18 +89,9 @@ public class SkipList<K extends Comparable<K>, V>
         }
 
         ArrayList<KVPair<K, V>> results = new ArrayList<>();
-        SkipNode current = head;
-
-        // Start from the highest level and work down
-        for (int i = head.level; i >= 0; i--) {
-            while (current.forward[i] != null && current.forward[i].element()
-                .key().compareTo(key) < 0) {
-                current = current.forward[i];
-            }
-        }
 
         // Move to the first node of the bottom level
-        current = current.forward[0];
+        SkipNode current = findPath(key)[0].forward[0];
 
         // Collect all matching keys
         while (current != null && current.element().key().compareTo(key) == 0) {
@@ -84,6 +103,28 @@ public class SkipList<K extends Comparable<K>, V>
     }
 
 
+    /**
+     * Iterates lazily over the pairs from a key to the end of a range. The
+     * first pair is found with one descent, resuming from the finger if
+     * there is one.
+     * 
+     * @param from
+     *            the smallest key wanted, or null to start at the first pair
+     * @param to
+     *            the end of the range, or null to run to the last pair
+     * @param toInclusive
+     *            true to include keys equal to to
+     * @return the iterator; the list must not change while it is in use
+     */
+    public Iterator<KVPair<K, V>> range(K from, K to, boolean toInclusive) {
+        SkipNode before = head;
+        if (from != null) {
+            before = findPath(from)[0];
+        }
+        return new SkipListIterator(before, to, toInclusive);
+    }
+
+
     /**
      * @return the size of the SkipList
      */
@@ -110,27 +151,294 @@ public class SkipList<K extends Comparable<K>, V>
             adjustHead(newLevel);
         }
 
-        SkipNode[] update = (SkipNode[])Array.newInstance(
+        // The new node does not come before its own key, so the path stays
+        // valid as the finger once the node is linked in
+        SkipNode[] update = findPath(it.key());
+
+        SkipNode newNode = new SkipNode(it, newLevel);
+
+        for (int i = 0; i <= newLevel; i++) {
+            newNode.forward[i] = update[i].forward[i];
+            update[i].forward[i] = newNode;
+        }
+
+        size++;
+    }
+
+
+    /**
+     * Appends pairs that are already sorted by key in O(n) time. Each pair
+     * is linked in at the current tail of every level it reaches, so there
+     * is no search and no update[] array per element. Levels come from
+     * randomLevel() exactly as in insert. Pairs with equal keys keep the
+     * order they arrive in.
+     *
+     * @param sorted
+     *            the pairs in ascending key order; every key must be no less
+     *            than the largest key already in the list
+     * @throws IllegalArgumentException
+     *             if a key is smaller than the one before it; the pairs
+     *             appended before that point stay in the list
+     */
+    @SuppressWarnings("unchecked")
+    public void buildFromSorted(Iterator<KVPair<K, V>> sorted) {
+        // Nodes appended before the finger's key would sit after its path
+        finger = null;
+        SkipNode[] tail = (SkipNode[])Array.newInstance(
             SkipList.SkipNode.class, head.level + 1);
 
+        // Find the last node on every level
         SkipNode current = head;
-
         for (int i = head.level; i >= 0; i--) {
-            while (current.forward[i] != null && current.forward[i].element()
-                .key().compareTo(it.key()) < 0) {
+            while (current.forward[i] != null) {
                 current = current.forward[i];
             }
-            update[i] = current;
+            tail[i] = current;
         }
 
-        SkipNode newNode = new SkipNode(it, newLevel);
+        while (sorted.hasNext()) {
+            KVPair<K, V> it = sorted.next();
+            if (it == null) {
+                continue;
+            }
+            if (tail[0] != head && tail[0].element().key().compareTo(it
+                .key()) > 0) {
+                throw new IllegalArgumentException(
+                    "Keys must be in ascending order: " + it.key());
+            }
 
-        for (int i = 0; i <= newLevel; i++) {
-            newNode.forward[i] = update[i].forward[i];
-            update[i].forward[i] = newNode;
+            int newLevel = randomLevel() - 1;
+            if (newLevel > head.level) {
+                SkipNode oldHead = head;
+                adjustHead(newLevel);
+
+                SkipNode[] newTail = (SkipNode[])Array.newInstance(
+                    SkipList.SkipNode.class, newLevel + 1);
+                for (int i = 0; i <= newLevel; i++) {
+                    if (i < tail.length && tail[i] != oldHead) {
+                        newTail[i] = tail[i];
+                    }
+                    else {
+                        newTail[i] = head;
+                    }
+                }
+                tail = newTail;
+            }
+
+            SkipNode newNode = new SkipNode(it, newLevel);
+            for (int i = 0; i <= newLevel; i++) {
+                tail[i].forward[i] = newNode;
+                tail[i] = newNode;
+            }
+
+            size++;
         }
+    }
 
-        size++;
+
+    /**
+     * Inserts a batch of pairs with the same result, levels included, as
+     * inserting them one by one in order. Levels are drawn first, in batch
+     * order; the pairs are then sorted by key and linked in with one forward
+     * pass. The search for each pair starts from the nodes the previous pair
+     * was linked after rather than from the head: it climbs only as high as
+     * it must to get past the keys in between and then descends as insert
+     * does, so a dense batch costs about as much per pair as appending.
+     * A list with a finger takes a batch that is already mostly in key
+     * order one pair at a time instead.
+     *
+     * @param batch
+     *            the pairs, in insertion order
+     */
+    @SuppressWarnings("unchecked")
+    public void insertAll(List<KVPair<K, V>> batch) {
+        int n = batch.size();
+        if (useFinger && mostlyAscending(batch)) {
+            // The finger already makes each insert about O(1), which beats
+            // sorting the batch
+            for (int i = 0; i < n; i++) {
+                insert(batch.get(i));
+            }
+            return;
+        }
+        finger = null;
+        int[] levels = new int[n];
+        Integer[] order = new Integer[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (batch.get(i) != null) {
+                levels[i] = randomLevel() - 1;
+                order[count++] = i;
+            }
+        }
+        // A later pair goes in front of earlier ones with an equal key
+        Arrays.sort(order, 0, count, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                int byKey = batch.get(a).key().compareTo(batch.get(b).key());
+                return byKey != 0 ? byKey : Integer.compare(b, a);
+            }
+        });
+
+        // The last node before the previous pair on every level
+        SkipNode[] finger = (SkipNode[])Array.newInstance(
+            SkipList.SkipNode.class, head.level + 1);
+        for (int i = 0; i <= head.level; i++) {
+            finger[i] = head;
+        }
+
+        K last = null;
+        for (int j = 0; j < count; j++) {
+            KVPair<K, V> it = batch.get(order[j]);
+            int newLevel = levels[order[j]];
+            if (newLevel > head.level) {
+                SkipNode oldHead = head;
+                adjustHead(newLevel);
+
+                SkipNode[] grown = (SkipNode[])Array.newInstance(
+                    SkipList.SkipNode.class, newLevel + 1);
+                for (int i = 0; i <= newLevel; i++) {
+                    if (i < finger.length && finger[i] != oldHead) {
+                        grown[i] = finger[i];
+                    }
+                    else {
+                        grown[i] = head;
+                    }
+                }
+                finger = grown;
+            }
+
+            // An equal key goes straight after the previous pair, in front
+            // of the equal keys that were already there. A larger key climbs
+            // while the next node up is still before it, then descends.
+            if (last == null || last.compareTo(it.key()) != 0) {
+                int top = 0;
+                while (top < head.level && isBefore(finger[top
+                    + 1].forward[top + 1], it.key())) {
+                    top++;
+                }
+                SkipNode current = finger[top];
+                for (int i = top; i >= 0; i--) {
+                    while (isBefore(current.forward[i], it.key())) {
+                        current = current.forward[i];
+                    }
+                    finger[i] = current;
+                }
+            }
+            last = it.key();
+
+            SkipNode newNode = new SkipNode(it, newLevel);
+            for (int i = 0; i <= newLevel; i++) {
+                newNode.forward[i] = finger[i].forward[i];
+                finger[i].forward[i] = newNode;
+                finger[i] = newNode;
+            }
+
+            size++;
+        }
+    }
+
+
+    /**
+     * Checks whether a batch's keys mostly arrive in ascending order, as
+     * numbered names do between the places their digit count changes
+     * 
+     * @param batch
+     *            the pairs, in insertion order
+     * @return true if no more than one pair in eight has a smaller key than
+     *         the pair before it
+     */
+    private boolean mostlyAscending(List<KVPair<K, V>> batch) {
+        int descents = 0;
+        K last = null;
+        for (int i = 0; i < batch.size(); i++) {
+            KVPair<K, V> it = batch.get(i);
+            if (it == null) {
+                continue;
+            }
+            if (last != null && it.key().compareTo(last) < 0) {
+                descents++;
+            }
+            last = it.key();
+        }
+        return descents <= batch.size() / 8;
+    }
+
+
+    /**
+     * Finds the last node before a key on every level. With a finger the
+     * search starts from the previous path: it climbs until the finger's
+     * node is before the key and the next node on the level above is not,
+     * then descends from there, and the path it finds becomes the new
+     * finger. Levels above the climb keep their finger nodes, which are
+     * still the last ones before the key.
+     * 
+     * @param key
+     *            the key
+     * @return the path, one node per level of the head; with a finger this
+     *         is the finger itself
+     */
+    @SuppressWarnings("unchecked")
+    private SkipNode[] findPath(K key) {
+        if (finger == null || !useFinger) {
+            SkipNode[] path = (SkipNode[])Array.newInstance(
+                SkipList.SkipNode.class, head.level + 1);
+            SkipNode current = head;
+            for (int i = head.level; i >= 0; i--) {
+                while (isBefore(current.forward[i], key)) {
+                    current = current.forward[i];
+                }
+                path[i] = current;
+            }
+            if (useFinger) {
+                finger = path;
+            }
+            return path;
+        }
+
+        int top = 0;
+        while (top < head.level && (!startsBefore(finger[top], key)
+            || isBefore(finger[top + 1].forward[top + 1], key))) {
+            top++;
+        }
+        SkipNode current = finger[top];
+        if (!startsBefore(current, key)) {
+            current = head;
+        }
+        for (int i = top; i >= 0; i--) {
+            while (isBefore(current.forward[i], key)) {
+                current = current.forward[i];
+            }
+            finger[i] = current;
+        }
+        return finger;
+    }
+
+
+    /**
+     * Checks whether a search for a key can start at a node
+     * 
+     * @param node
+     *            the node
+     * @param key
+     *            the key
+     * @return true if the node is the head or holds a smaller key
+     */
+    private boolean startsBefore(SkipNode node, K key) {
+        return node == head || node.element().key().compareTo(key) < 0;
+    }
+
+
+    /**
+     * Checks whether a node comes before the place a key would go
+     * 
+     * @param node
+     *            the node, or null past the end of a level
+     * @param key
+     *            the key
+     * @return true if the node holds a smaller key
+     */
+    private boolean isBefore(SkipNode node, K key) {
+        return node != null && node.element().key().compareTo(key) < 0;
     }
 
 
@@ -142,6 +450,7 @@ public class SkipList<K extends Comparable<K>, V>
      *            the number of levels to be added to head
      */
     public void adjustHead(int newLevel) {
+        finger = null;
         SkipNode oldHead = head;
         head = new SkipNode(null, newLevel);
 
@@ -170,19 +479,8 @@ public class SkipList<K extends Comparable<K>, V>
             return null;
         }
 
-        SkipNode[] update = (SkipNode[])Array.newInstance(
-            SkipList.SkipNode.class, head.level + 1);
-        SkipNode current = head;
-
-        for (int i = head.level; i >= 0; i--) {
-            while (current.forward[i] != null && current.forward[i].element()
-                .key().compareTo(key) < 0) {
-                current = current.forward[i];
-            }
-            update[i] = current;
-        }
-
-        current = current.forward[0];
+        SkipNode[] update = findPath(key);
+        SkipNode current = update[0].forward[0];
 
         if (current != null && current.element().key().compareTo(key) == 0) {
             for (int i = 0; i <= current.level; i++) {
@@ -198,6 +496,56 @@ public class SkipList<K extends Comparable<K>, V>
     }
 
 
+    /**
+     * Removes the KVPair with the given key whose value is the given object.
+     * The search descends by key like remove(K), then walks the run of equal
+     * keys on the bottom level until it finds the value by identity, so the
+     * cost stays logarithmic plus the number of duplicates of that key.
+     *
+     * @param key
+     *            the key of the KVPair to be removed
+     * @param val
+     *            the exact value object of the KVPair to be removed
+     * @return returns the removed pair if found and null if not
+     */
+    @SuppressWarnings("unchecked")
+    public KVPair<K, V> remove(K key, V val) {
+        if (key == null || val == null) {
+            return null;
+        }
+
+        // The walk below moves update[] onto nodes with this key, which
+        // the finger must not hold
+        SkipNode[] update = findPath(key);
+        if (useFinger) {
+            update = update.clone();
+        }
+        SkipNode current = update[0].forward[0];
+
+        // Step through the duplicates of key, keeping update[] pointed at
+        // the nearest predecessor on every level
+        while (current != null && current.element().key().compareTo(
+            key) == 0) {
+            if (current.element().value() == val) {
+                for (int i = 0; i <= current.level; i++) {
+                    update[i].forward[i] = current.forward[i];
+                }
+
+                size--;
+
+                return current.element();
+            }
+
+            for (int i = 0; i <= current.level; i++) {
+                update[i] = current;
+            }
+            current = current.forward[0];
+        }
+
+        return null;
+    }
+
+
     /**
      * Removes a KVPair with the specified value.
      * 
@@ -210,6 +558,8 @@ public class SkipList<K extends Comparable<K>, V>
         if (val == null) {
             return null;
         }
+        // The removed node may be anywhere, including on the finger
+        finger = null;
 
         SkipNode current = head;
         SkipNode[] update = (SkipNode[])Array.newInstance(
@@ -243,25 +593,28 @@ public class SkipList<K extends Comparable<K>, V>
 
 
     /**
-     * Prints out the SkipList in a human readable format to the console.
+     * Writes the SkipList in a human readable format to an output sink.
+     *
+     * @param out
+     *            Where to write the dump
      */
-    public void dump() {
-        System.out.println("SkipList dump:");
+    public void dump(OutputSink out) {
+        out.println("SkipList dump:");
 
-        System.out.println("Node has depth " + (head.level + 1)
-            + " value null");
+        out.print("Node has depth ").print(head.level + 1).println(
+            " value null");
 
         SkipNode current = head.forward[0];
         while (current != null) {
             // We know this is specifically for Point values in this application
             Point p = (Point)current.element().value();
-            System.out.println("Node has depth " + (current.level + 1)
-                + " value " + current.element().key() + " " + p.getX() + " " + p
-                    .getY());
+            out.print("Node has depth ").print(current.level + 1).print(
+                " value ").print(current.element().key().toString()).print(' ')
+                .print(p.getX()).print(' ').print(p.getY()).println();
             current = current.forward[0];
         }
 
-        System.out.println("SkipList size is: " + size);
+        out.print("SkipList size is: ").print(size).println();
     }
 
     /**
@@ -313,19 +666,53 @@ public class SkipList<K extends Comparable<K>, V>
     private class SkipListIterator implements Iterator<KVPair<K, V>> {
         private SkipNode current;
 
+        // End of the range, or null for no limit
+        private final K last;
+        private final boolean lastInclusive;
+
         public SkipListIterator() {
-            current = head;
+            this(head, null, true);
+        }
+
+
+        /**
+         * Creates an iterator over part of the list
+         * 
+         * @param before
+         *            the node just before the first pair to return
+         * @param last
+         *            the end of the range, or null for no limit
+         * @param lastInclusive
+         *            true to return keys equal to last
+         */
+        public SkipListIterator(
+            SkipNode before,
+            K last,
+            boolean lastInclusive) {
+            current = before;
+            this.last = last;
+            this.lastInclusive = lastInclusive;
         }
 
 
         @Override
         public boolean hasNext() {
-            return current.forward[0] != null;
+            if (current.forward[0] == null) {
+                return false;
+            }
+            if (last == null) {
+                return true;
+            }
+            int c = current.forward[0].element().key().compareTo(last);
+            return c < 0 || (c == 0 && lastInclusive);
         }
 
 
         @Override
         public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
             KVPair<K, V> elem = current.forward[0].element();
             current = current.forward[0];
             return elem;
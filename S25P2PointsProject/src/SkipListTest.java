@@ -1,3 +1,5 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import student.TestCase;
 import student.TestableRandom;
 
@@ -216,6 +218,304 @@ public class SkipListTest extends TestCase {
     }
 
 
+    /**
+     * Tests the key and value remove method of SkipList
+     */
+    public void testRemoveKeyValue() {
+        assertNull(sl.remove("p1", p1));
+        assertNull(sl.remove(null, p1));
+        assertNull(sl.remove("p1", null));
+
+        TestableRandom.setNextBooleans(true, false);
+        sl.insert(new KVPair<>("a", p3));
+        TestableRandom.setNextBooleans(true, true, false);
+        sl.insert(new KVPair<>("p1", p1));
+        TestableRandom.setNextBooleans(false);
+        sl.insert(new KVPair<>("p1", p2));
+        TestableRandom.setNextBooleans(true, false);
+        sl.insert(new KVPair<>("p1", p3));
+
+        // Wrong key for the value
+        assertNull(sl.remove("a", p1));
+        assertEquals(4, sl.size());
+
+        // Value behind other duplicates of the same key
+        KVPair<String, Point> removed = sl.remove("p1", p1);
+        assertNotNull(removed);
+        assertEquals(p1, removed.value());
+        assertEquals(3, sl.size());
+        assertNull(sl.remove("p1", p1));
+
+        removed = sl.remove("p1", p3);
+        assertEquals(p3, removed.value());
+        assertEquals(1, sl.search("p1").size());
+        assertEquals(p2, sl.search("p1").get(0).value());
+        assertEquals(p3, sl.search("a").get(0).value());
+
+        int count = 0;
+        for (KVPair<String, Point> pair : sl) {
+            assertNotNull(pair);
+            count++;
+        }
+        assertEquals(2, count);
+    }
+
+
+    /**
+     * Tests building the SkipList from sorted pairs
+     */
+    public void testBuildFromSorted() {
+        java.util.ArrayList<KVPair<String, Point>> pairs =
+            new java.util.ArrayList<>();
+        pairs.add(new KVPair<>("a", p1));
+        pairs.add(null);
+        pairs.add(new KVPair<>("b", p2));
+        pairs.add(new KVPair<>("b", p3));
+        pairs.add(new KVPair<>("c", p1));
+
+        // Levels 1, 3, 1, 2
+        TestableRandom.setNextBooleans(false, true, true, false, false, true,
+            false);
+        sl.buildFromSorted(pairs.iterator());
+        assertEquals(4, sl.size());
+        assertEquals(2, sl.search("b").size());
+        assertEquals(p2, sl.search("b").get(0).value());
+        assertEquals(p3, sl.search("b").get(1).value());
+
+        sl.dump();
+        String output = systemOut().getHistory();
+        assertTrue(output.contains("Node has depth 3 value null"));
+        assertTrue(output.contains("Node has depth 3 value b 3 4"));
+        assertTrue(output.contains("Node has depth 2 value c 1 2"));
+
+        // Appending keeps working after a normal insert and remove
+        sl.insert(new KVPair<>("a", p3));
+        assertNotNull(sl.remove("b"));
+        pairs.clear();
+        pairs.add(new KVPair<>("c", p2));
+        pairs.add(new KVPair<>("d", p3));
+        sl.buildFromSorted(pairs.iterator());
+        assertEquals(6, sl.size());
+        assertEquals(2, sl.search("c").size());
+        assertEquals(p3, sl.search("d").get(0).value());
+
+        String last = "";
+        for (KVPair<String, Point> pair : sl) {
+            assertTrue(last.compareTo(pair.key()) <= 0);
+            last = pair.key();
+        }
+
+        pairs.clear();
+        pairs.add(new KVPair<>("e", p1));
+        pairs.add(new KVPair<>("b", p1));
+        Exception thrown = null;
+        try {
+            sl.buildFromSorted(pairs.iterator());
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertEquals(7, sl.size());
+        assertEquals(1, sl.search("e").size());
+    }
+
+
+    /**
+     * Tests inserting a batch gives the list, levels included, that
+     * inserting the pairs one by one does
+     */
+    public void testInsertAll() {
+        java.util.ArrayList<KVPair<String, Point>> pairs =
+            new java.util.ArrayList<>();
+        pairs.add(new KVPair<>("b", p1));
+        pairs.add(new KVPair<>("a", p2));
+        pairs.add(null);
+        pairs.add(new KVPair<>("b", p3));
+
+        // Levels 2, 1, 3
+        boolean[] levels = { true, false, false, true, true, false };
+        TestableRandom.setNextBooleans(levels);
+        sl.insertAll(pairs);
+        sl.dump();
+        String batch = systemOut().getHistory();
+
+        systemOut().clearHistory();
+        SkipList<String, Point> single = new SkipList<String, Point>();
+        TestableRandom.setNextBooleans(levels);
+        for (int i = 0; i < pairs.size(); i++) {
+            single.insert(pairs.get(i));
+        }
+        single.dump();
+        assertEquals(systemOut().getHistory(), batch);
+        assertEquals(3, sl.size());
+        assertEquals(p3, sl.search("b").get(0).value());
+
+        // A batch merged into a longer list keeps every key in order and a
+        // later pair in front of earlier ones with the same key
+        java.util.Random rng = new java.util.Random(3);
+        for (int round = 0; round < 5; round++) {
+            pairs.clear();
+            for (int i = 0; i < 60; i++) {
+                Point p = new Point("k" + rng.nextInt(40), round, i);
+                pairs.add(new KVPair<>(p.getName(), p));
+                single.insert(new KVPair<>(p.getName(), p));
+            }
+            sl.insertAll(pairs);
+        }
+        assertEquals(single.size(), sl.size());
+        java.util.Iterator<KVPair<String, Point>> expected = single
+            .iterator();
+        for (KVPair<String, Point> pair : sl) {
+            assertTrue(expected.next().value() == pair.value());
+        }
+    }
+
+
+    /**
+     * Tests a list with a finger gives the same results as one without
+     * through sorted runs, jumps backwards, duplicates and every kind of
+     * update
+     */
+    public void testFinger() {
+        SkipList<String, Point> fingered = new SkipList<String, Point>(true);
+        java.util.Random rng = new java.util.Random(12);
+        for (int i = 0; i < 4000; i++) {
+            int op = rng.nextInt(10);
+            String key;
+            if (rng.nextBoolean()) {
+                // Sequential keys, as most ingest files have
+                key = "p_" + (1000 + i / 3);
+            }
+            else {
+                key = "p_" + (1000 + rng.nextInt(1400));
+            }
+            Point p = new Point(key, i, op);
+            if (op < 5) {
+                sl.insert(new KVPair<>(key, p));
+                fingered.insert(new KVPair<>(key, p));
+            }
+            else if (op < 7) {
+                assertEquals(sl.search(key).size(), fingered.search(key)
+                    .size());
+            }
+            else if (op < 9) {
+                KVPair<String, Point> removed = sl.remove(key);
+                KVPair<String, Point> other = fingered.remove(key);
+                assertEquals(removed == null, other == null);
+                if (removed != null) {
+                    assertTrue(removed.value() == other.value());
+                }
+            }
+            else {
+                java.util.ArrayList<KVPair<String, Point>> found = sl.search(
+                    key);
+                if (!found.isEmpty()) {
+                    Point last = found.get(found.size() - 1).value();
+                    assertNotNull(sl.remove(key, last));
+                    assertNotNull(fingered.remove(key, last));
+                }
+            }
+        }
+
+        // Updates that bypass the finger leave it usable afterwards
+        Point q = new Point("zz", 1, 1);
+        sl.removeByValue(sl.iterator().next().value());
+        fingered.removeByValue(fingered.iterator().next().value());
+        java.util.ArrayList<KVPair<String, Point>> more =
+            new java.util.ArrayList<>();
+        more.add(new KVPair<>("p_1500", q));
+        more.add(new KVPair<>("a", q));
+        sl.insertAll(more);
+        fingered.insertAll(more);
+        more.clear();
+        more.add(new KVPair<>("zz", q));
+        sl.buildFromSorted(more.iterator());
+        fingered.buildFromSorted(more.iterator());
+        sl.insert(new KVPair<>("p_1499", q));
+        fingered.insert(new KVPair<>("p_1499", q));
+        assertEquals(sl.search("p_1500").size(), fingered.search("p_1500")
+            .size());
+
+        assertEquals(sl.size(), fingered.size());
+        java.util.Iterator<KVPair<String, Point>> expected = sl.iterator();
+        for (KVPair<String, Point> pair : fingered) {
+            assertTrue(expected.next().value() == pair.value());
+        }
+    }
+
+
+    /**
+     * Tests range and prefix walk only the matching pairs, in key order,
+     * with and without a finger
+     */
+    public void testRange() {
+        for (int f = 0; f < 2; f++) {
+            sl = new SkipList<String, Point>(f == 1);
+            String[] keys = { "b2", "a1", "b10", "c", "b1", "ab", "b1" };
+            for (int i = 0; i < keys.length; i++) {
+                sl.insert(new KVPair<>(keys[i], p1));
+            }
+            assertEquals("b1 b1 b10 b2", keys(sl.range("b", "b2")));
+            assertEquals("b1 b1 b10 b2 c", keys(sl.range("az", null)));
+            assertEquals("a1 ab", keys(sl.range(null, "ab")));
+            assertEquals("", keys(sl.range("d", null)));
+            assertEquals("", keys(sl.range("c", "b")));
+            assertEquals("b1 b1 b10", keys(NameIndex.prefix(sl, "b1")));
+            assertEquals("a1 ab", keys(NameIndex.prefix(sl, "a")));
+            assertEquals("", keys(NameIndex.prefix(sl, "bb")));
+            assertEquals("", keys(NameIndex.prefix(sl, "z")));
+            assertEquals(7, keys(NameIndex.prefix(sl, "")).split(" ").length);
+            assertEquals("a1 ab", keys(sl.range("a1", "b1", false)));
+            assertEquals("b10", keys(sl.range("b10", "b2", false)));
+        }
+
+        // The prefix's bound carries past a trailing largest char
+        sl.insert(new KVPair<>("a\uffff", p2));
+        sl.insert(new KVPair<>("a\uffffz", p2));
+        assertEquals(2, keys(NameIndex.prefix(sl, "a\uffff")).split(" ")
+            .length);
+        assertEquals("c", keys(NameIndex.prefix(sl, "c")));
+
+        Iterator<KVPair<String, Point>> it = sl.range("x", null);
+        Exception thrown = null;
+        try {
+            it.next();
+        }
+        catch (NoSuchElementException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        thrown = null;
+        try {
+            NameIndex.prefix(sl, "x").next();
+        }
+        catch (NoSuchElementException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+
+    /**
+     * Joins the keys an iterator gives with spaces
+     * 
+     * @param it
+     *            the iterator
+     * @return the keys
+     */
+    private static String keys(Iterator<KVPair<String, Point>> it) {
+        StringBuilder builder = new StringBuilder();
+        while (it.hasNext()) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(it.next().key());
+        }
+        return builder.toString();
+    }
+
+
     /**
      * Tests the dump method of SkipList
      */
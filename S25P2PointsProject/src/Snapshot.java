@@ -0,0 +1,386 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+
+/**
+ * A binary image of every point in a Database, laid out in columns so it
+ * can be written in a few large writes and read back through a memory map
+ * with bulk copies.
+ *
+ * Layout, little-endian:
+ * <pre>
+ * header   magic, world size, points, names, name bytes, CRC32 (ints)
+ *          and the write-ahead log offset the image covers (long)
+ * x        one int per point, in QuadTree order
+ * y        one int per point, in QuadTree order
+ * name     one int per point: the index of its name in the name table
+ * byName   the QuadTree-order index of each SkipList entry, in SkipList
+ *          order
+ * offsets  names + 1 ints: where each name starts in the name bytes
+ * bytes    the distinct names, sorted, in UTF-8
+ * </pre>
+ *
+ * QuadTree order is the order a search over the whole world reports:
+ * leaves in Morton order, each leaf's points in the leaf's own order. Bulk
+ * loading points in that order builds the same tree, and the SkipList is
+ * built from byName directly, so a loaded database matches the one that
+ * was saved without any per-point inserts. The CRC covers everything after
+ * the header.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class Snapshot {
+
+    // "PSN1"
+    private static final int MAGIC = 0x50534E31;
+    private static final int HEADER_SIZE = 32;
+
+    // Bytes gathered before each write
+    private static final int CHUNK = 1 << 20;
+
+    private final int worldSize;
+    private final Point[] points;
+    private final int[] byName;
+    private final long logOffset;
+
+    /**
+     * Creates a loaded snapshot
+     *
+     * @param worldSize
+     *            The world size of the database that was saved
+     * @param points
+     *            The points in QuadTree order
+     * @param byName
+     *            The index into points of each SkipList entry, in order
+     * @param logOffset
+     *            The write-ahead log bytes the image covers
+     */
+    private Snapshot(
+        int worldSize,
+        Point[] points,
+        int[] byName,
+        long logOffset) {
+        this.worldSize = worldSize;
+        this.points = points;
+        this.byName = byName;
+        this.logOffset = logOffset;
+    }
+
+
+    /**
+     * Gets the world size of the database that was saved
+     *
+     * @return The world size
+     */
+    public int getWorldSize() {
+        return worldSize;
+    }
+
+
+    /**
+     * Gets the points in QuadTree order
+     *
+     * @return The points
+     */
+    public Point[] getPoints() {
+        return points;
+    }
+
+
+    /**
+     * Gets the SkipList order as indexes into getPoints()
+     *
+     * @return The index of each SkipList entry
+     */
+    public int[] getByName() {
+        return byName;
+    }
+
+
+    /**
+     * Gets how many bytes of write-ahead log records the image already
+     * holds; recovery replays the log from there
+     *
+     * @return The log offset
+     */
+    public long getLogOffset() {
+        return logOffset;
+    }
+
+
+    /**
+     * Writes a snapshot to a temporary file beside the target, forces it
+     * to disk and moves it into place, so a crash leaves either the old
+     * snapshot or the new one
+     *
+     * @param file
+     *            The snapshot file
+     * @param byTree
+     *            Every point, in QuadTree order
+     * @param byNameOrder
+     *            The same points as SkipList entries, in SkipList order
+     * @param worldSize
+     *            The world size
+     * @param logOffset
+     *            The write-ahead log bytes the image covers
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    public static void write(
+        Path file,
+        PointList byTree,
+        Iterable<KVPair<String, Point>> byNameOrder,
+        int worldSize,
+        long logOffset)
+        throws IOException {
+        int n = byTree.size();
+        IdentityHashMap<Point, Integer> position = new IdentityHashMap<>(n);
+        for (int i = 0; i < n; i++) {
+            position.put(byTree.get(i), i);
+        }
+
+        // Walking the SkipList gives the names sorted, so equal names are
+        // next to each other and the table keeps one copy of each
+        int[] byName = new int[n];
+        int[] nameIds = new int[n];
+        byte[][] names = new byte[Math.max(1, n)][];
+        int distinct = 0;
+        int tableBytes = 0;
+        String last = null;
+        Iterator<KVPair<String, Point>> entries = byNameOrder.iterator();
+        for (int i = 0; i < n; i++) {
+            KVPair<String, Point> entry = entries.next();
+            if (last == null || !last.equals(entry.key())) {
+                last = entry.key();
+                names[distinct] = last.getBytes(StandardCharsets.UTF_8);
+                tableBytes += names[distinct].length;
+                distinct++;
+            }
+            int index = position.get(entry.value());
+            byName[i] = index;
+            nameIds[index] = distinct - 1;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel channel = FileChannel.open(temp,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer out = ByteBuffer.allocateDirect(CHUNK).order(
+                ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            long at = HEADER_SIZE;
+            for (int i = 0; i < n; i++) {
+                at = putInt(channel, out, crc, at, byTree.getX(i));
+            }
+            for (int i = 0; i < n; i++) {
+                at = putInt(channel, out, crc, at, byTree.getY(i));
+            }
+            for (int i = 0; i < n; i++) {
+                at = putInt(channel, out, crc, at, nameIds[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                at = putInt(channel, out, crc, at, byName[i]);
+            }
+            int offset = 0;
+            for (int i = 0; i < distinct; i++) {
+                at = putInt(channel, out, crc, at, offset);
+                offset += names[i].length;
+            }
+            at = putInt(channel, out, crc, at, offset);
+            for (int i = 0; i < distinct; i++) {
+                int done = 0;
+                while (done < names[i].length) {
+                    if (!out.hasRemaining()) {
+                        at = flush(channel, out, crc, at);
+                    }
+                    int length = Math.min(out.remaining(), names[i].length
+                        - done);
+                    out.put(names[i], done, length);
+                    done += length;
+                }
+            }
+            flush(channel, out, crc, at);
+
+            out.clear();
+            out.putInt(MAGIC).putInt(worldSize).putInt(n).putInt(distinct)
+                .putInt(tableBytes).putInt((int)crc.getValue()).putLong(
+                    logOffset).flip();
+            long headerAt = 0;
+            while (out.hasRemaining()) {
+                headerAt += channel.write(out, headerAt);
+            }
+            channel.force(true);
+        }
+        finally {
+            channel.close();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * Reads a snapshot through a memory map
+     *
+     * @param file
+     *            The snapshot file
+     * @return The snapshot
+     * @throws IOException
+     *             If the file cannot be read, is not a snapshot, or is
+     *             damaged
+     */
+    public static Snapshot read(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        MappedByteBuffer mapped;
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a snapshot: " + file);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        finally {
+            // The mapping stays valid after the channel is closed
+            channel.close();
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a snapshot: " + file);
+        }
+        int worldSize = mapped.getInt(4);
+        int n = mapped.getInt(8);
+        int distinct = mapped.getInt(12);
+        int tableBytes = mapped.getInt(16);
+        int checksum = mapped.getInt(20);
+        long logOffset = mapped.getLong(24);
+        long expected = HEADER_SIZE + 16L * n + 4L * (distinct + 1)
+            + tableBytes;
+        if (n < 0 || distinct < 0 || tableBytes < 0 || distinct > n
+            || expected != mapped.capacity()) {
+            throw new IOException("Damaged snapshot: " + file);
+        }
+        mapped.position(HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(mapped);
+        if ((int)crc.getValue() != checksum) {
+            throw new IOException("Damaged snapshot: " + file);
+        }
+
+        mapped.position(HEADER_SIZE);
+        IntBuffer ints = mapped.slice().order(ByteOrder.LITTLE_ENDIAN)
+            .asIntBuffer();
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        int[] nameIds = new int[n];
+        int[] byName = new int[n];
+        int[] offsets = new int[distinct + 1];
+        ints.get(xs).get(ys).get(nameIds).get(byName).get(offsets);
+        byte[] table = new byte[tableBytes];
+        mapped.position(HEADER_SIZE + 16 * n + 4 * (distinct + 1));
+        mapped.get(table);
+
+        String[] names = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            int start = offsets[i];
+            int stop = offsets[i + 1];
+            if (start < 0 || stop < start || stop > tableBytes) {
+                throw new IOException("Damaged snapshot: " + file);
+            }
+            names[i] = new String(table, start, stop - start,
+                StandardCharsets.UTF_8);
+        }
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int id = nameIds[i];
+            if (id < 0 || id >= distinct) {
+                throw new IOException("Damaged snapshot: " + file);
+            }
+            points[i] = new Point(names[id], xs[i], ys[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            if (byName[i] < 0 || byName[i] >= n) {
+                throw new IOException("Damaged snapshot: " + file);
+            }
+        }
+        return new Snapshot(worldSize, points, byName, logOffset);
+    }
+
+
+    /**
+     * Appends an int, writing the chunk out first if it is full
+     *
+     * @param channel
+     *            The file being written
+     * @param out
+     *            The chunk buffer
+     * @param crc
+     *            The running checksum
+     * @param at
+     *            The file offset the chunk starts at
+     * @param value
+     *            The int to append
+     * @return The file offset the chunk starts at afterwards
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    private static long putInt(
+        FileChannel channel,
+        ByteBuffer out,
+        CRC32 crc,
+        long at,
+        int value)
+        throws IOException {
+        long next = at;
+        if (out.remaining() < 4) {
+            next = flush(channel, out, crc, at);
+        }
+        out.putInt(value);
+        return next;
+    }
+
+
+    /**
+     * Writes the chunk to the file and adds it to the checksum
+     *
+     * @param channel
+     *            The file being written
+     * @param out
+     *            The chunk buffer
+     * @param crc
+     *            The running checksum
+     * @param at
+     *            The file offset the chunk starts at
+     * @return The file offset just past the chunk
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    private static long flush(
+        FileChannel channel,
+        ByteBuffer out,
+        CRC32 crc,
+        long at)
+        throws IOException {
+        out.flip();
+        crc.update(out.duplicate());
+        long next = at;
+        while (out.hasRemaining()) {
+            next += channel.write(out, next);
+        }
+        out.clear();
+        return next;
+    }
+}
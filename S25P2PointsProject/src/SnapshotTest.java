@@ -0,0 +1,196 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tests the Snapshot class and saving and loading a Database with it
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class SnapshotTest extends DatabaseTestCase {
+
+    private Path file;
+    private File logFile;
+
+    /**
+     * Sets up the tests that follow with fresh file names
+     *
+     * @throws IOException
+     *             If the temporary files cannot be created
+     */
+    public void setUp() throws IOException {
+        file = Files.createTempFile("points", ".snap");
+        logFile = File.createTempFile("points", ".wal");
+        file.toFile().deleteOnExit();
+        logFile.deleteOnExit();
+        assertTrue(logFile.delete());
+    }
+
+
+    /**
+     * Removes the files
+     */
+    public void tearDown() {
+        file.toFile().delete();
+        logFile.delete();
+    }
+
+
+    /**
+     * Tests a loaded database matches the saved one, and keeps matching as
+     * the same commands run against both
+     *
+     * @throws IOException
+     *             If the snapshot cannot be written or read
+     */
+    public void testRoundTrip() throws IOException {
+        Database saved = new Database();
+        runCommands(saved, 1);
+        saved.snapshot(file);
+
+        Database loaded = new Database();
+        loaded.load(file);
+        assertEquals(dumpOf(saved), dumpOf(loaded));
+
+        runCommands(saved, 2);
+        runCommands(loaded, 2);
+        assertEquals(dumpOf(saved), dumpOf(loaded));
+
+        Snapshot image = Snapshot.read(file);
+        assertEquals(1024, image.getWorldSize());
+        assertEquals(0, image.getLogOffset());
+        assertEquals(image.getPoints().length, image.getByName().length);
+    }
+
+
+    /**
+     * Tests an empty database saves and loads, and a thread-safe database
+     * loads a snapshot too
+     *
+     * @throws IOException
+     *             If the snapshot cannot be written or read
+     */
+    public void testEmptyAndThreadSafe() throws IOException {
+        new Database().snapshot(file);
+        Database loaded = new Database();
+        loaded.load(file);
+        assertEquals(dumpOf(new Database()), dumpOf(loaded));
+
+        Database saved = new Database();
+        saved.insert("b", 3, 4);
+        saved.insert("a", 3, 4);
+        saved.insert("b", 900, 4);
+        saved.snapshot(file);
+        Database shared = new Database(true);
+        shared.load(file);
+        assertEquals(dumpOf(saved), dumpOf(shared));
+    }
+
+
+    /**
+     * Tests recovery after loading replays only the log written since the
+     * snapshot
+     *
+     * @throws IOException
+     *             If the files cannot be written or read
+     */
+    public void testSnapshotAndLogTail() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(logFile,
+            WriteAheadLog.SYNC_NEVER);
+        Database original = new Database();
+        original.recover(log);
+        runCommands(original, 3);
+        original.snapshot(file);
+        assertTrue(Snapshot.read(file).getLogOffset() > 0);
+        runCommands(original, 4);
+        log.close();
+
+        log = new WriteAheadLog(logFile, WriteAheadLog.SYNC_NEVER);
+        Database restarted = new Database();
+        restarted.load(file);
+        int tail = restarted.recover(log);
+        assertTrue(tail > 0 && tail < COMMANDS);
+        assertEquals(dumpOf(original), dumpOf(restarted));
+
+        // The restarted database logs on from there, and a second snapshot
+        // covers the whole log
+        runCommands(restarted, 5);
+        restarted.snapshot(file);
+        assertEquals(log.length(), Snapshot.read(file).getLogOffset());
+        log.close();
+        log = new WriteAheadLog(logFile, WriteAheadLog.SYNC_NEVER);
+        Database again = new Database();
+        again.load(file);
+        assertEquals(0, again.recover(log));
+        log.close();
+        assertEquals(dumpOf(restarted), dumpOf(again));
+    }
+
+
+    /**
+     * Tests damaged files, other files, larger worlds and non-empty
+     * databases are rejected
+     *
+     * @throws IOException
+     *             If the files cannot be written
+     */
+    public void testRejected() throws IOException {
+        Database saved = new Database();
+        runCommands(saved, 6);
+        saved.snapshot(file);
+
+        Database full = new Database();
+        full.insert("x", 1, 1);
+        Exception thrown = null;
+        try {
+            full.load(file);
+        }
+        catch (IllegalStateException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+
+        RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw");
+        raw.seek(raw.length() - 1);
+        int last = raw.read();
+        raw.seek(raw.length() - 1);
+        raw.write(last ^ 1);
+        raw.close();
+        assertLoadFails();
+
+        raw = new RandomAccessFile(file.toFile(), "rw");
+        raw.setLength(10);
+        raw.close();
+        assertLoadFails();
+
+        raw = new RandomAccessFile(file.toFile(), "rw");
+        raw.setLength(0);
+        raw.writeBytes("insert a 1 1 and more text than a header");
+        raw.close();
+        assertLoadFails();
+
+        Database large = new Database(new OutputSink(), false, 2048, 3);
+        large.insert("far", 1500, 1500);
+        large.snapshot(file);
+        assertLoadFails();
+    }
+
+
+    /**
+     * Checks that loading the snapshot file into a new database fails with
+     * an IOException
+     */
+    private void assertLoadFails() {
+        Exception thrown = null;
+        try {
+            new Database().load(file);
+        }
+        catch (IOException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Interface for the index that organizes points by location. QuadTree is the
+ * pointer-based PR quadtree and LinearQuadTree keeps the same tree implicitly
+ * in Morton-sorted arrays. Both give the same results, node counts and dump
+ * output for the same commands.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public interface SpatialIndex {
+
+    /**
+     * Inserts a point into the index
+     *
+     * @param point
+     *            The point to insert
+     * @return True if the point was inserted, false if it is outside the
+     *         world
+     */
+    public boolean insert(Point point);
+
+
+    /**
+     * Loads a batch of points, giving the same result as inserting them one
+     * by one
+     *
+     * @param points
+     *            The points to load, in insertion order
+     * @return The number of points loaded; points outside the world are
+     *         skipped
+     */
+    public int bulkLoad(Point[] points);
+
+
+    /**
+     * Removes a point at the specified coordinates
+     *
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @return The removed point, or null if not found
+     */
+    public Point remove(int x, int y);
+
+
+    /**
+     * Removes a point with the specified name
+     *
+     * @param name
+     *            The name of the point to remove
+     * @return The removed point, or null if not found
+     */
+    public Point remove(String name);
+
+
+    /**
+     * Removes one particular point, such as one looked up by name elsewhere.
+     * Only the path to the point's location is searched, and a different
+     * point at the same location is never taken in its place.
+     *
+     * @param point
+     *            The point to remove
+     * @return The point, or null if it is not in the index
+     */
+    public Point remove(Point point);
+
+
+    /**
+     * Searches for points within a query rectangle
+     *
+     * @param x
+     *            The x-coordinate of the query rectangle
+     * @param y
+     *            The y-coordinate of the query rectangle
+     * @param w
+     *            The width of the query rectangle
+     * @param h
+     *            The height of the query rectangle
+     * @return A result containing the list of found points and the number of
+     *         nodes visited
+     */
+    public RegionSearchResult regionsearch(int x, int y, int w, int h);
+
+
+    /**
+     * Finds the k points closest to a location. Regions are searched best
+     * first, nearest region first, so regions farther away than the k-th
+     * closest point are never visited. Points at the same distance are
+     * returned in the order the search reaches them.
+     *
+     * @param x
+     *            The x-coordinate of the location
+     * @param y
+     *            The y-coordinate of the location
+     * @param k
+     *            The number of points wanted
+     * @return A result containing up to k points, closest first, and the
+     *         number of nodes visited
+     */
+    public RegionSearchResult nearest(int x, int y, int k);
+
+
+    /**
+     * Finds locations with duplicate points
+     *
+     * @return A result containing the list of duplicate locations and the
+     *         number of nodes visited
+     */
+    public DuplicatesResult findDuplicates();
+
+
+    /**
+     * Gets the size of the world this index covers
+     *
+     * @return The world size
+     */
+    public int getWorldSize();
+
+
+    /**
+     * Gets the most points a leaf holds before it splits
+     *
+     * @return The bucket capacity
+     */
+    public int getBucketCapacity();
+
+
+    /**
+     * Prints the tree structure to the console
+     */
+    public default void dump() {
+        OutputSink out = new OutputSink();
+        dump(out);
+        out.flush();
+    }
+
+
+    /**
+     * Writes the tree structure to an output sink
+     *
+     * @param out
+     *            Where to write the dump
+     */
+    public void dump(OutputSink out);
+}
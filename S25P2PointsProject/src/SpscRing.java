@@ -0,0 +1,178 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring buffer for handing items from exactly one producer thread
+ * to exactly one consumer thread. Each side owns one counter: the producer
+ * only advances tail and the consumer only advances head, so neither needs
+ * a lock or a compare-and-set, only ordered stores.
+ *
+ * A side that finds the ring full or empty spins briefly and then parks;
+ * the other side unparks it after its next store. Parking is bounded, so a
+ * wake-up that races with going to sleep costs at most PARK_NANOS.
+ *
+ * Either side can close the ring. After that put() refuses new items, and
+ * take() returns what is left and then null, so closing marks both the end
+ * of the input and a consumer that has given up.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ * @param <T>
+ *            The item type
+ */
+public class SpscRing<T> {
+
+    // Tries before a waiting side parks
+    private static final int SPINS = 100;
+
+    // Longest a waiting side sleeps before checking again
+    private static final long PARK_NANOS = 1000000;
+
+    private final Object[] slots;
+    private final int mask;
+
+    // Next slot to take; written only by the consumer
+    private final AtomicLong head = new AtomicLong();
+
+    // Next slot to fill; written only by the producer
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile boolean closed;
+    private volatile Thread waitingProducer;
+    private volatile Thread waitingConsumer;
+
+    /**
+     * Creates an empty ring
+     *
+     * @param capacity
+     *            Most items held at once, rounded up to a power of two
+     * @throws IllegalArgumentException
+     *             If the capacity is less than 1 or more than 2^30
+     */
+    public SpscRing(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be 1 to 2^30: "
+                + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        slots = new Object[size];
+        mask = size - 1;
+    }
+
+
+    /**
+     * Adds an item, waiting while the ring is full. Producer thread only.
+     *
+     * @param item
+     *            The item, not null
+     * @return True if the item was added, false if the ring is closed
+     */
+    public boolean put(T item) {
+        long t = tail.get();
+        int spins = 0;
+        while (t - head.get() == slots.length) {
+            if (closed) {
+                return false;
+            }
+            if (spins++ < SPINS) {
+                Thread.onSpinWait();
+                continue;
+            }
+            waitingProducer = Thread.currentThread();
+            if (t - head.get() == slots.length && !closed) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            waitingProducer = null;
+        }
+        if (closed) {
+            return false;
+        }
+        slots[(int)t & mask] = item;
+        tail.lazySet(t + 1);
+        wake(waitingConsumer);
+        return true;
+    }
+
+
+    /**
+     * Removes the oldest item, waiting while the ring is empty and open.
+     * Consumer thread only.
+     *
+     * @return The item, or null once the ring is closed and empty
+     */
+    @SuppressWarnings("unchecked")
+    public T take() {
+        long h = head.get();
+        int spins = 0;
+        while (tail.get() == h) {
+            if (closed) {
+                // The producer's last items may have landed before closing
+                if (tail.get() == h) {
+                    return null;
+                }
+                break;
+            }
+            if (spins++ < SPINS) {
+                Thread.onSpinWait();
+                continue;
+            }
+            waitingConsumer = Thread.currentThread();
+            if (tail.get() == h && !closed) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            waitingConsumer = null;
+        }
+        int slot = (int)h & mask;
+        T item = (T)slots[slot];
+        slots[slot] = null;
+        head.lazySet(h + 1);
+        wake(waitingProducer);
+        return item;
+    }
+
+
+    /**
+     * Closes the ring. Items already added can still be taken.
+     */
+    public void close() {
+        closed = true;
+        wake(waitingProducer);
+        wake(waitingConsumer);
+    }
+
+
+    /**
+     * Checks whether the ring has been closed
+     *
+     * @return True once either side has closed it
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+
+    /**
+     * Gets the number of items the ring holds at once
+     *
+     * @return The capacity
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+
+    /**
+     * Unparks a waiting thread, if there is one
+     *
+     * @param thread
+     *            The thread, or null
+     */
+    private static void wake(Thread thread) {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+import student.TestCase;
+
+/**
+ * Tests the SpscRing class
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class SpscRingTest extends TestCase {
+
+    /**
+     * Tests items come out in order, across wrap-arounds, and the capacity
+     * rounds up to a power of two
+     */
+    public void testOrder() {
+        SpscRing<Integer> ring = new SpscRing<>(3);
+        assertEquals(4, ring.capacity());
+        int next = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(ring.put(round * 4 + i));
+            }
+            for (int i = 0; i < 4; i++) {
+                assertEquals(next++, ring.take().intValue());
+            }
+        }
+
+        Exception thrown = null;
+        try {
+            new SpscRing<Integer>(0);
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+
+    /**
+     * Tests closing lets the rest be taken and then ends the stream, and
+     * refuses further items
+     */
+    public void testClose() {
+        SpscRing<String> ring = new SpscRing<>(2);
+        ring.put("a");
+        ring.put("b");
+        ring.close();
+        assertTrue(ring.isClosed());
+        assertFalse(ring.put("c"));
+        assertEquals("a", ring.take());
+        assertEquals("b", ring.take());
+        assertNull(ring.take());
+    }
+
+
+    /**
+     * Tests many items pass between two threads in order, with both sides
+     * waiting on a small ring
+     *
+     * @throws InterruptedException
+     *             If the test is interrupted
+     */
+    public void testTwoThreads() throws InterruptedException {
+        final SpscRing<Integer> ring = new SpscRing<>(8);
+        final int count = 200000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                ring.put(i);
+            }
+            ring.close();
+        });
+        producer.start();
+        int expected = 0;
+        Integer item = ring.take();
+        while (item != null) {
+            assertEquals(expected++, item.intValue());
+            item = ring.take();
+        }
+        producer.join();
+        assertEquals(count, expected);
+    }
+
+
+    /**
+     * Tests a producer waiting on a full ring gives up once the consumer
+     * closes it
+     *
+     * @throws InterruptedException
+     *             If the test is interrupted
+     */
+    public void testConsumerCloses() throws InterruptedException {
+        final SpscRing<Integer> ring = new SpscRing<>(1);
+        final boolean[] added = new boolean[2];
+        Thread producer = new Thread(() -> {
+            added[0] = ring.put(1);
+            added[1] = ring.put(2);
+        });
+        producer.start();
+        Thread.sleep(20);
+        ring.close();
+        producer.join();
+        assertTrue(added[0]);
+        assertFalse(added[1]);
+    }
+}
@@ -0,0 +1,666 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only binary log of the inserts and removes a Database applies,
+ * so a restarted process can rebuild its indexes by replaying the log
+ * instead of re-parsing the command file that produced them.
+ *
+ * The file starts with a magic number. Each record is the length of its
+ * body, a CRC32 of the body, and the body itself: a record type followed by
+ * the coordinates and/or the length-prefixed UTF-8 name. A crash can leave a
+ * partial or damaged record at the end of the file; reading stops at the
+ * first record whose length or checksum does not check out, and the file is
+ * cut back to the last good record so new records follow it directly.
+ *
+ * Records are encoded into a buffer and written to the FileChannel in
+ * groups. The sync policy decides when the channel is forced to disk:
+ * SYNC_NEVER leaves it to the operating system until the log is closed,
+ * SYNC_GROUP forces once per group of records and on commit, and
+ * SYNC_ALWAYS forces before every append returns. Under SYNC_ALWAYS,
+ * threads that append while another thread is forcing share the next force
+ * instead of each taking their own, so concurrent writers pay for one sync
+ * per group rather than one per record.
+ *
+ * The record methods add a record without syncing and return its sequence
+ * number, so a caller can record a change inside the lock that applies it,
+ * which keeps the log in apply order, and call syncFor() once the lock is
+ * released.
+ *
+ * Safe to share between threads.
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class WriteAheadLog {
+
+    /** Never force the channel before the log is closed */
+    public static final int SYNC_NEVER = 0;
+
+    /** Force the channel once per group of records and on commit */
+    public static final int SYNC_GROUP = 1;
+
+    /** Force the channel before every append returns */
+    public static final int SYNC_ALWAYS = 2;
+
+    /** Records per group under SYNC_GROUP unless another size is given */
+    public static final int DEFAULT_GROUP_SIZE = 256;
+
+    // Record types
+    static final byte INSERT = 1;
+    static final byte REMOVE_AT = 2;
+    static final byte REMOVE_NAME = 3;
+
+    // "PWL1", the first four bytes of every log
+    private static final int MAGIC = 0x50574C31;
+    private static final int HEADER_SIZE = 4;
+
+    // Body length and checksum in front of every body
+    private static final int RECORD_HEADER = 8;
+
+    // Longest body accepted; anything longer is a damaged length
+    private static final int MAX_BODY = 1 << 20;
+
+    // Bytes of encoded records held before a write to the channel
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final int syncPolicy;
+    private final int groupSize;
+    private final ByteBuffer buffer;
+    private final CRC32 crc;
+
+    // Held while writing out and forcing, so one force covers every
+    // record appended before it started
+    private final Object syncLock;
+
+    // Records appended, and records known to be written (and forced,
+    // unless the policy is SYNC_NEVER)
+    private long appended;
+    private volatile long durable;
+
+    // File offset just past the last good record, or -1 until the file has
+    // been read through
+    private long end;
+
+    /**
+     * Opens a log with the default group size, creating the file if it does
+     * not exist
+     *
+     * @param file
+     *            The log file
+     * @param syncPolicy
+     *            SYNC_NEVER, SYNC_GROUP or SYNC_ALWAYS
+     * @throws IOException
+     *             If the file cannot be opened or is not a log
+     */
+    public WriteAheadLog(File file, int syncPolicy) throws IOException {
+        this(file, syncPolicy, DEFAULT_GROUP_SIZE);
+    }
+
+
+    /**
+     * Opens a log, creating the file if it does not exist
+     *
+     * @param file
+     *            The log file
+     * @param syncPolicy
+     *            SYNC_NEVER, SYNC_GROUP or SYNC_ALWAYS
+     * @param groupSize
+     *            Records per forced group under SYNC_GROUP
+     * @throws IOException
+     *             If the file cannot be opened or is not a log
+     * @throws IllegalArgumentException
+     *             If the policy is unknown or the group size is below 1
+     */
+    public WriteAheadLog(File file, int syncPolicy, int groupSize)
+        throws IOException {
+        if (syncPolicy < SYNC_NEVER || syncPolicy > SYNC_ALWAYS) {
+            throw new IllegalArgumentException("Unknown sync policy: "
+                + syncPolicy);
+        }
+        if (groupSize < 1) {
+            throw new IllegalArgumentException("Group size must be at "
+                + "least 1: " + groupSize);
+        }
+        this.syncPolicy = syncPolicy;
+        this.groupSize = groupSize;
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        crc = new CRC32();
+        syncLock = new Object();
+        appended = 0;
+        durable = 0;
+        end = -1;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            checkHeader(file);
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Logs an insert
+     *
+     * @param name
+     *            The point's name
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     */
+    public void appendInsert(String name, int x, int y) {
+        syncFor(recordInsert(name, x, y));
+    }
+
+
+    /**
+     * Logs a remove by coordinates that found a point
+     *
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     */
+    public void appendRemove(int x, int y) {
+        syncFor(recordRemove(x, y));
+    }
+
+
+    /**
+     * Logs a remove by name that found a point
+     *
+     * @param name
+     *            The name
+     */
+    public void appendRemove(String name) {
+        syncFor(recordRemove(name));
+    }
+
+
+    /**
+     * Adds an insert record without syncing
+     *
+     * @param name
+     *            The point's name
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @return The record's sequence number, for syncFor()
+     */
+    long recordInsert(String name, int x, int y) {
+        return append(INSERT, name, x, y);
+    }
+
+
+    /**
+     * Adds a record of a remove by coordinates without syncing
+     *
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     * @return The record's sequence number, for syncFor()
+     */
+    long recordRemove(int x, int y) {
+        return append(REMOVE_AT, null, x, y);
+    }
+
+
+    /**
+     * Adds a record of a remove by name without syncing
+     *
+     * @param name
+     *            The name
+     * @return The record's sequence number, for syncFor()
+     */
+    long recordRemove(String name) {
+        return append(REMOVE_NAME, name, 0, 0);
+    }
+
+
+    /**
+     * Syncs as the policy asks once a record has been added: always under
+     * SYNC_ALWAYS, and at the end of each group under SYNC_GROUP
+     *
+     * @param sequence
+     *            The record's sequence number
+     */
+    void syncFor(long sequence) {
+        if (syncPolicy == SYNC_ALWAYS || (syncPolicy == SYNC_GROUP
+            && sequence % groupSize == 0)) {
+            sync(sequence);
+        }
+    }
+
+
+    /**
+     * Writes every appended record to the channel and, unless the policy is
+     * SYNC_NEVER, forces it to disk
+     */
+    public void commit() {
+        long sequence;
+        synchronized (this) {
+            sequence = appended;
+        }
+        sync(sequence);
+    }
+
+
+    /**
+     * Commits, forces the file to disk whatever the policy, and closes it
+     */
+    public void close() {
+        commit();
+        try {
+            channel.force(true);
+            channel.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Gets the number of bytes of records in the log, not counting anything
+     * still buffered
+     *
+     * @return The record bytes on file
+     */
+    public synchronized long length() {
+        findEnd();
+        return end - HEADER_SIZE;
+    }
+
+
+    /**
+     * Commits, forces the file to disk whatever the policy, and gets the
+     * length of the records now on file. A snapshot stores this so that
+     * recovery knows where its part of the log ends.
+     *
+     * @return The record bytes on file
+     */
+    long checkpoint() {
+        commit();
+        try {
+            channel.force(false);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return length();
+    }
+
+
+    /**
+     * Replays the good records after an offset into a database, cutting
+     * off any damaged tail. Must be called before anything is appended.
+     *
+     * @param target
+     *            The database to apply the records to
+     * @param from
+     *            The record bytes to skip, as given by checkpoint()
+     * @return The number of records replayed
+     * @throws IllegalStateException
+     *             If records were already appended, or the log ends before
+     *             the offset
+     */
+    synchronized int replay(Database target, long from) {
+        if (appended > 0) {
+            throw new IllegalStateException("Records already appended");
+        }
+        int replayed = read(target, from);
+        if (end < HEADER_SIZE + from) {
+            throw new IllegalStateException("Log ends before offset " + from);
+        }
+        return replayed;
+    }
+
+
+    /**
+     * Appends one record without syncing
+     *
+     * @param type
+     *            The record type
+     * @param name
+     *            The name, or null for REMOVE_AT
+     * @param x
+     *            The x-coordinate, ignored for REMOVE_NAME
+     * @param y
+     *            The y-coordinate, ignored for REMOVE_NAME
+     * @return The record's sequence number
+     */
+    private long append(byte type, String name, int x, int y) {
+        byte[] nameBytes = null;
+        int body = 1;
+        if (type != REMOVE_NAME) {
+            body += 8;
+        }
+        if (name != null) {
+            nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            body += 4 + nameBytes.length;
+        }
+        if (body > MAX_BODY) {
+            throw new IllegalArgumentException("Name too long to log");
+        }
+
+        synchronized (this) {
+            findEnd();
+            if (RECORD_HEADER + body > buffer.remaining()) {
+                drain();
+            }
+            ByteBuffer target = buffer;
+            if (RECORD_HEADER + body > buffer.capacity()) {
+                target = ByteBuffer.allocate(RECORD_HEADER + body);
+            }
+            int start = target.position();
+            target.putInt(body).putInt(0).put(type);
+            if (type != REMOVE_NAME) {
+                target.putInt(x).putInt(y);
+            }
+            if (nameBytes != null) {
+                target.putInt(nameBytes.length).put(nameBytes);
+            }
+            crc.reset();
+            crc.update(target.array(), start + RECORD_HEADER, body);
+            target.putInt(start + 4, (int)crc.getValue());
+            if (target != buffer) {
+                target.flip();
+                write(target);
+            }
+            return ++appended;
+        }
+    }
+
+
+    /**
+     * Makes sure a record is written out, and forced unless the policy is
+     * SYNC_NEVER. A thread that finds its record already covered by
+     * another thread's force returns without forcing again.
+     *
+     * @param sequence
+     *            The record's sequence number
+     */
+    private void sync(long sequence) {
+        synchronized (syncLock) {
+            if (durable >= sequence) {
+                return;
+            }
+            long upTo;
+            synchronized (this) {
+                findEnd();
+                drain();
+                upTo = appended;
+            }
+            if (syncPolicy != SYNC_NEVER) {
+                try {
+                    channel.force(false);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            durable = upTo;
+        }
+    }
+
+
+    /**
+     * Writes the buffered records to the channel
+     */
+    private void drain() {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+
+    /**
+     * Writes bytes at the end of the log
+     *
+     * @param bytes
+     *            The bytes to write, from position to limit
+     */
+    private void write(ByteBuffer bytes) {
+        try {
+            while (bytes.hasRemaining()) {
+                end += channel.write(bytes, end);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Finds the end of the last good record if it is not known yet
+     */
+    private void findEnd() {
+        if (end < 0) {
+            read(null, 0);
+        }
+    }
+
+
+    /**
+     * Writes the header to a new or empty file, or checks the header of an
+     * existing one
+     *
+     * @param file
+     *            The log file, for the error message
+     * @throws IOException
+     *             If the file does not start with the magic number
+     */
+    private void checkHeader(File file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (channel.size() < HEADER_SIZE) {
+            // New, or the header itself was torn
+            channel.truncate(0);
+            header.putInt(MAGIC).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            return;
+        }
+        while (header.hasRemaining()) {
+            channel.read(header, header.position());
+        }
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a write-ahead log: " + file);
+        }
+    }
+
+
+    /**
+     * Reads records from an offset up to the first bad one, applying them to
+     * a database if one is given, and cuts the file off after the last good
+     * record. While the database is empty, leading inserts are collected and
+     * bulk loaded together.
+     *
+     * @param target
+     *            The database to apply records to, or null to only find the
+     *            end
+     * @param from
+     *            The record bytes to skip; reading an offset past the end
+     *            finds no records and leaves the file alone
+     * @return The number of good records read
+     */
+    private int read(Database target, long from) {
+        ByteBuffer in = ByteBuffer.allocate(RECORD_HEADER + MAX_BODY);
+        in.flip();
+        long readAt = HEADER_SIZE + from;
+        long good = HEADER_SIZE + from;
+        int records = 0;
+        ArrayList<Point> leading = null;
+        if (target != null && target.isEmpty()) {
+            leading = new ArrayList<>();
+        }
+
+        try {
+            while (true) {
+                readAt = fill(in, RECORD_HEADER, readAt);
+                if (in.remaining() < RECORD_HEADER) {
+                    break;
+                }
+                int body = in.getInt(in.position());
+                if (body < 1 || body > MAX_BODY) {
+                    break;
+                }
+                readAt = fill(in, RECORD_HEADER + body, readAt);
+                if (in.remaining() < RECORD_HEADER + body) {
+                    break;
+                }
+                int start = in.position();
+                crc.reset();
+                crc.update(in.array(), start + RECORD_HEADER, body);
+                if ((int)crc.getValue() != in.getInt(start + 4)) {
+                    break;
+                }
+
+                in.position(start + RECORD_HEADER);
+                byte type = in.get();
+                int x = 0;
+                int y = 0;
+                String name = null;
+                int expected = 1;
+                if (type != REMOVE_NAME && body >= 9) {
+                    x = in.getInt();
+                    y = in.getInt();
+                    expected += 8;
+                }
+                if (type != REMOVE_AT && body >= expected + 4) {
+                    int length = in.getInt();
+                    expected += 4;
+                    if (length >= 0 && length <= body - expected) {
+                        name = new String(in.array(), in.position(), length,
+                            StandardCharsets.UTF_8);
+                        expected += length;
+                    }
+                }
+                if (type < INSERT || type > REMOVE_NAME || expected != body
+                    || (type != REMOVE_AT && name == null)) {
+                    break;
+                }
+                in.position(start + RECORD_HEADER + body);
+
+                if (target != null) {
+                    if (leading != null && type == INSERT) {
+                        leading.add(new Point(name, x, y));
+                    }
+                    else {
+                        leading = load(target, leading);
+                        apply(target, type, name, x, y);
+                    }
+                }
+                good += RECORD_HEADER + body;
+                records++;
+            }
+            load(target, leading);
+
+            long size = channel.size();
+            if (good > size) {
+                end = size;
+                return 0;
+            }
+            if (good < size) {
+                channel.truncate(good);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        end = good;
+        return records;
+    }
+
+
+    /**
+     * Reads more of the file until a buffer holds enough bytes or the file
+     * runs out
+     *
+     * @param in
+     *            The read buffer, ready to be read from
+     * @param needed
+     *            The bytes wanted in the buffer
+     * @param readAt
+     *            The file offset to read from next
+     * @return The file offset to read from next after filling
+     * @throws IOException
+     *             If the channel cannot be read
+     */
+    private long fill(ByteBuffer in, int needed, long readAt)
+        throws IOException {
+        if (in.remaining() >= needed) {
+            return readAt;
+        }
+        in.compact();
+        long next = readAt;
+        while (in.position() < needed) {
+            int count = channel.read(in, next);
+            if (count <= 0) {
+                break;
+            }
+            next += count;
+        }
+        in.flip();
+        return next;
+    }
+
+
+    /**
+     * Bulk loads collected leading inserts into a database
+     *
+     * @param target
+     *            The database, or null
+     * @param leading
+     *            The inserts, or null if there are none to load
+     * @return Always null, as nothing is collected after the first load
+     */
+    private ArrayList<Point> load(Database target, ArrayList<Point> leading) {
+        if (target != null && leading != null && !leading.isEmpty()) {
+            target.load(leading.toArray(new Point[leading.size()]));
+        }
+        return null;
+    }
+
+
+    /**
+     * Applies one record to a database
+     *
+     * @param target
+     *            The database
+     * @param type
+     *            The record type
+     * @param name
+     *            The name, or null for REMOVE_AT
+     * @param x
+     *            The x-coordinate
+     * @param y
+     *            The y-coordinate
+     */
+    private void apply(Database target, byte type, String name, int x, int y) {
+        if (type == INSERT) {
+            target.store(new Point(name, x, y));
+        }
+        else if (type == REMOVE_AT) {
+            target.removeAt(x, y);
+        }
+        else {
+            target.removeNamed(name);
+        }
+    }
+}
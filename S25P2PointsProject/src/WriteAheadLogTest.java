@@ -0,0 +1,306 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+/**
+ * Tests the WriteAheadLog class and recovering a Database from it
+ *
+ * @author michaelo48
+ * @version 10.18.2026
+ */
+public class WriteAheadLogTest extends DatabaseTestCase {
+
+    private File file;
+
+    /**
+     * Sets up the tests that follow with a fresh log file
+     *
+     * @throws IOException
+     *             If the temporary file cannot be created
+     */
+    public void setUp() throws IOException {
+        file = File.createTempFile("points", ".wal");
+        file.deleteOnExit();
+        assertTrue(file.delete());
+    }
+
+
+    /**
+     * Removes the log file
+     */
+    public void tearDown() {
+        file.delete();
+    }
+
+
+    /**
+     * Tests a recovered database matches the one that wrote the log, and
+     * that it keeps logging where the first one stopped
+     *
+     * @throws IOException
+     *             If the log cannot be opened
+     */
+    public void testRecover() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(file,
+            WriteAheadLog.SYNC_GROUP, 16);
+        Database original = new Database();
+        assertEquals(0, original.recover(log));
+        runCommands(original, 1);
+        log.close();
+
+        log = new WriteAheadLog(file, WriteAheadLog.SYNC_NEVER);
+        Database recovered = new Database();
+        assertTrue(recovered.recover(log) > 0);
+        assertEquals(dumpOf(original), dumpOf(recovered));
+
+        runCommands(recovered, 2);
+        log.close();
+        log = new WriteAheadLog(file, WriteAheadLog.SYNC_ALWAYS);
+        Database again = new Database();
+        again.recover(log);
+        log.close();
+        Database unlogged = new Database();
+        runCommands(unlogged, 1);
+        runCommands(unlogged, 2);
+        assertEquals(dumpOf(unlogged), dumpOf(again));
+        assertEquals(dumpOf(recovered), dumpOf(again));
+    }
+
+
+    /**
+     * Tests recovering bulk inserts, and recovering into a database that
+     * already holds points
+     *
+     * @throws IOException
+     *             If the log cannot be opened
+     */
+    public void testRecoverBulkInsert() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(file, WriteAheadLog.SYNC_NEVER);
+        Database original = new Database();
+        original.recover(log);
+        Point[] batch = { new Point("a", 5, 5), new Point("b", 5, 5),
+            new Point("out", 2000, 5), new Point("c", 900, 3), new Point("a",
+                1, 1) };
+        original.bulkInsert(batch);
+        original.remove("a");
+        original.bulkInsert(batch);
+        log.close();
+
+        log = new WriteAheadLog(file, WriteAheadLog.SYNC_NEVER);
+        Database recovered = new Database();
+        assertEquals(9, recovered.recover(log));
+        log.close();
+        assertEquals(dumpOf(original), dumpOf(recovered));
+
+        Database nonEmpty = new Database();
+        nonEmpty.insert("z", 0, 0);
+        original.insert("z", 0, 0);
+        log = new WriteAheadLog(file, WriteAheadLog.SYNC_NEVER);
+        nonEmpty.recover(log);
+        log.close();
+        systemOut().clearHistory();
+        nonEmpty.search("z");
+        nonEmpty.regionsearch(0, 0, 1024, 1024);
+        String expected = systemOut().getHistory();
+        systemOut().clearHistory();
+        original.search("z");
+        original.regionsearch(0, 0, 1024, 1024);
+        assertEquals(expected.length(), systemOut().getHistory().length());
+    }
+
+
+    /**
+     * Tests a torn or damaged tail is cut off, and later records follow
+     * the last good one
+     *
+     * @throws IOException
+     *             If the log cannot be opened
+     */
+    public void testDamagedTail() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(file, WriteAheadLog.SYNC_NEVER);
+        log.appendInsert("a", 1, 1);
+        log.appendInsert("b", 2, 2);
+        log.appendRemove("a");
+        log.close();
+        long length = file.length();
+
+        // Cut the last record in half
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.setLength(length - 3);
+        raw.close();
+        log = new WriteAheadLog(file, WriteAheadLog.SYNC_NEVER);
+        Database db = new Database();
+        assertEquals(2, db.recover(log));
+        db.insert("c", 3, 3);
+        log.close();
+
+        // Flip a byte inside the last record's name
+        length = file.length();
+        raw = new RandomAccessFile(file, "rw");
+        raw.seek(length - 1);
+        raw.write('x');
+        raw.close();
+        log = new WriteAheadLog(file, WriteAheadLog.SYNC_NEVER);
+        assertEquals(2, new Database().recover(log));
+        assertEquals(44, log.length());
+        log.close();
+    }
+
+
+    /**
+     * Tests the log length counts written records and that replay is
+     * refused once records have been appended
+     *
+     * @throws IOException
+     *             If the log cannot be opened
+     */
+    public void testLengthAndReplayOrder() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(file, WriteAheadLog.SYNC_GROUP,
+            2);
+        assertEquals(0, log.length());
+        log.appendRemove(7, 8);
+        assertEquals(0, log.length());
+        log.appendRemove(9, 10);
+        assertEquals(34, log.length());
+        Exception thrown = null;
+        try {
+            new Database().recover(log);
+        }
+        catch (IllegalStateException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        log.close();
+    }
+
+
+    /**
+     * Tests bad arguments and files that are not logs are rejected
+     *
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    public void testRejected() throws IOException {
+        Exception thrown = null;
+        try {
+            new WriteAheadLog(file, 3);
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        thrown = null;
+        try {
+            new WriteAheadLog(file, WriteAheadLog.SYNC_GROUP, 0);
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.writeBytes("insert a 1 1\n");
+        raw.close();
+        thrown = null;
+        try {
+            new WriteAheadLog(file, WriteAheadLog.SYNC_NEVER);
+        }
+        catch (IOException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+
+    /**
+     * Tests concurrent writers under SYNC_ALWAYS lose no records
+     *
+     * @throws Exception
+     *             If the log cannot be opened or a thread is interrupted
+     */
+    public void testConcurrentAppends() throws Exception {
+        final WriteAheadLog log = new WriteAheadLog(file,
+            WriteAheadLog.SYNC_ALWAYS);
+        final Database db = new Database(new OutputSink(java.io.OutputStream
+            .nullOutputStream(), false), true);
+        db.recover(log);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < 50; i++) {
+                        db.insert("t" + id + "_" + i, id * 200 + i, i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+        }
+        log.close();
+
+        WriteAheadLog reopened = new WriteAheadLog(file,
+            WriteAheadLog.SYNC_NEVER);
+        Database recovered = new Database();
+        assertEquals(200, recovered.recover(reopened));
+        reopened.close();
+        systemOut().clearHistory();
+        recovered.regionsearch(0, 0, 1024, 1024);
+        assertTrue(systemOut().getHistory().contains("Point found t3_49 649 "
+            + "49"));
+    }
+
+
+    /**
+     * Tests threads inserting and removing the same names and locations
+     * leave a log that recovers to the same state as the live database
+     *
+     * @throws Exception
+     *             If the log cannot be opened or a thread is interrupted
+     */
+    public void testConcurrentSharedNames() throws Exception {
+        final WriteAheadLog log = new WriteAheadLog(file,
+            WriteAheadLog.SYNC_GROUP, 64);
+        final Database db = new Database(true);
+        db.recover(log);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long seed = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 2000; i++) {
+                        int op = random.nextInt(10);
+                        int x = random.nextInt(8) * 100;
+                        int y = random.nextInt(2) * 600;
+                        String name = "p" + random.nextInt(20);
+                        if (op < 5) {
+                            db.insert(name, x, y);
+                        }
+                        else if (op < 8) {
+                            db.remove(name);
+                        }
+                        else {
+                            db.remove(x, y);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+        }
+        log.close();
+
+        WriteAheadLog reopened = new WriteAheadLog(file,
+            WriteAheadLog.SYNC_NEVER);
+        Database recovered = new Database(true);
+        recovered.recover(reopened);
+        reopened.close();
+        assertEquals(dumpOf(db), dumpOf(recovered));
+    }
+}